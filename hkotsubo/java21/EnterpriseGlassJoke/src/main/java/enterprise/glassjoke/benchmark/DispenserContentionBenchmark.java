@@ -0,0 +1,164 @@
+package enterprise.glassjoke.benchmark;
+
+import enterprise.glassjoke.container.DispenserTap;
+import enterprise.glassjoke.container.LiquidDispenser;
+import enterprise.glassjoke.container.LiquidDispenserBuilder;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import java.util.concurrent.CountDownLatch;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Compares the liquid dispensers under contention: lots of threads drink small sips from the same dispenser as fast
+ * as they can, and whoever finds it empty calls the intern to refill it (while the others keep drinking).
+ *
+ * Each dispenser (with a lock, and lock-free) runs with and without taps, and the result is how many sips were drank
+ * per second (only the ones that got some liquid: trying to drink from an empty dispenser doesn't count), and how many
+ * milliliters. It also checks that no liquid appeared or disappeared (everything that was consumed and is still in the
+ * dispenser or in the taps must be what it had in the beginning, plus the refills).
+ *
+ * To run it: {@code mvn compile exec:java -Dexec.mainClass=enterprise.glassjoke.benchmark.DispenserContentionBenchmark
+ * -Dexec.args="<drinkers> <seconds> <tap batch>"} (all arguments are optional). The results only say something about
+ * contention when the drinkers really run at the same time, so use a machine with several CPUs.
+ *
+ * @author hkotsubo
+ */
+public class DispenserContentionBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(DispenserContentionBenchmark.class.getSimpleName());
+
+    // almost a regular water cooler
+    private static final int CAPACITY = 19_000;
+
+    private static final int SIP = 5;
+
+    private DispenserContentionBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int drinkers = args.length > 0 ? Integer.parseInt(args[0]) : 4 * Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int batch = args.length > 2 ? Integer.parseInt(args[2]) : 20 * SIP;
+        logger.info("{} drinkers, {} seconds per run, {}ml sips, taps take {}ml at once", drinkers, seconds, SIP, batch);
+        if (Runtime.getRuntime().availableProcessors() == 1) {
+            logger.warn("There's only one CPU, so the drinkers take turns and nobody really competes for the dispenser");
+        }
+
+        // warm up, so the JIT compiles everything before the real runs
+        for (Variant variant : Variant.values()) {
+            run(variant, drinkers, batch, 500);
+        }
+        for (Variant variant : Variant.values()) {
+            Result result = run(variant, drinkers, batch, seconds * 1000L);
+            logger.info("{}: {} sips/s, {} ml/s ({} refills)", variant,
+                        String.format("%,.0f", result.sips * 1000.0 / result.millis),
+                        String.format("%,.0f", result.milliLiters * 1000.0 / result.millis), result.refills);
+            if (!result.balanced) {
+                logger.error("{}: the amounts don't match, some liquid appeared or disappeared!", variant);
+            }
+        }
+    }
+
+    private static Result run(Variant variant, int drinkers, int batch, long millis) throws InterruptedException {
+        LiquidDispenserBuilder builder = new LiquidDispenserBuilder().withCapacity(CAPACITY);
+        if (variant.locked) {
+            builder.withLock();
+        }
+        LiquidDispenser dispenser = builder.build();
+        Intern intern = new InternFactory().createEntity();
+
+        CountDownLatch start = new CountDownLatch(1);
+        long[] sips = new long[drinkers], consumed = new long[drinkers], added = new long[drinkers];
+        int[] reserves = new int[drinkers];
+        long deadline = System.nanoTime() + millis * 1_000_000L + 50_000_000L; // the threads start within 50ms
+        Thread[] threads = new Thread[drinkers];
+        for (int i = 0; i < drinkers; i++) {
+            int drinker = i;
+            threads[i] = new Thread(() -> {
+                DispenserTap tap = variant.taps ? dispenser.openTap(batch) : null;
+                long mySips = 0, myConsumed = 0, myAdded = 0;
+                await(start);
+                while (System.nanoTime() < deadline) {
+                    // check the time only every now and then
+                    for (int j = 0; j < 256; j++) {
+                        int taken = tap != null ? tap.consume(SIP) : dispenser.consume(SIP);
+                        myConsumed += taken;
+                        if (taken > 0) {
+                            mySips++;
+                        }
+                        if (taken < SIP) {
+                            // office rule: who drinks the last drop calls the intern (other interns might be
+                            // refilling it at the same time)
+                            myAdded += intern.refill(dispenser);
+                        }
+                    }
+                }
+                sips[drinker] = mySips;
+                consumed[drinker] = myConsumed;
+                added[drinker] = myAdded;
+                reserves[drinker] = tap != null ? tap.getReserve() : 0;
+            }, "drinker-" + i);
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = (System.nanoTime() - begin) / 1_000_000L;
+
+        Result result = new Result();
+        result.millis = Math.max(1, elapsed);
+        long in = CAPACITY, out = dispenser.getCurrentVolume();
+        for (int i = 0; i < drinkers; i++) {
+            result.sips += sips[i];
+            result.milliLiters += consumed[i];
+            in += added[i];
+            out += consumed[i] + reserves[i];
+        }
+        result.refills = dispenser.getRefills();
+        result.balanced = in == out;
+        return result;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private enum Variant {
+        SYNCHRONIZED("synchronized", true, false),
+        LOCK_FREE("lock-free", false, false),
+        SYNCHRONIZED_WITH_TAPS("synchronized with taps", true, true),
+        LOCK_FREE_WITH_TAPS("lock-free with taps", false, true);
+
+        private final String description;
+        private final boolean locked;
+        private final boolean taps;
+
+        private Variant(String description, boolean locked, boolean taps) {
+            this.description = description;
+            this.locked = locked;
+            this.taps = taps;
+        }
+
+        @Override
+        public String toString() {
+            return this.description;
+        }
+    }
+
+    private static class Result {
+
+        long millis, sips, milliLiters;
+        int refills;
+        boolean balanced;
+    }
+}
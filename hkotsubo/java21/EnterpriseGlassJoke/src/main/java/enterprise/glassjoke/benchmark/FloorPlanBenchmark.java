@@ -0,0 +1,116 @@
+package enterprise.glassjoke.benchmark;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import enterprise.glassjoke.floor.FloorPlan;
+import enterprise.glassjoke.floor.FloorPlanBuilder;
+import enterprise.glassjoke.floor.FloorPosition;
+import enterprise.glassjoke.floor.FloorRefillRouter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Measures how long it takes to route refills in a huge office: employees, interns and water sources are spread
+ * randomly on the floor, and random employees ask for refills. Each refill finds the nearest free intern, the nearest
+ * water source, and moves the intern to the employee's desk (so the spatial index keeps being updated).
+ *
+ * Before that, it checks some lookups against a search in all interns, to make sure the index finds the nearest one.
+ *
+ * To run it: {@code mvn compile exec:java -Dexec.mainClass=enterprise.glassjoke.benchmark.FloorPlanBenchmark
+ * -Dexec.args="<employees> <interns> <refills>"} (all arguments are optional).
+ *
+ * @author hkotsubo
+ */
+public class FloorPlanBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(FloorPlanBenchmark.class.getSimpleName());
+
+    // a really big office: 1km x 1km
+    private static final double FLOOR_SIZE = 1000;
+
+    private static final int WATER_SOURCES = 100;
+
+    private FloorPlanBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 90_000;
+        int interns = args.length > 1 ? Integer.parseInt(args[1]) : 10_000 - WATER_SOURCES;
+        int refills = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        Random random = new Random(42);
+
+        // about one intern per cell
+        double cellSize = Math.max(1, FLOOR_SIZE / Math.sqrt(interns));
+        FloorPlan floorPlan = new FloorPlanBuilder().withSize(FLOOR_SIZE, FLOOR_SIZE).withCellSize(cellSize).build();
+        List<LiquidContainer> containers = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            LiquidContainer container = new LiquidContainerBuilder().withCapacity(300)
+                                                                    .withType(LiquidContainerType.GLASS).build();
+            floorPlan.placeEmployee(new Employee(), container, randomPosition(random));
+            containers.add(container);
+        }
+        InternFactory internFactory = new InternFactory();
+        List<Intern> allInterns = new ArrayList<>(interns);
+        for (int i = 0; i < interns; i++) {
+            Intern intern = internFactory.createEntity();
+            floorPlan.placeIntern(intern, randomPosition(random));
+            allInterns.add(intern);
+        }
+        for (int i = 0; i < WATER_SOURCES; i++) {
+            floorPlan.addWaterSource(randomPosition(random));
+        }
+        logger.info("{} employees, {} interns and {} water sources on the floor (cells of {}m)", employees, interns,
+                    WATER_SOURCES, String.format("%.1f", cellSize));
+
+        int mismatches = 0;
+        for (int i = 0; i < 1000; i++) {
+            FloorPosition position = randomPosition(random);
+            Intern found = floorPlan.findNearestFreeIntern(position);
+            if (floorPlan.getPosition(found).distanceTo(position) > nearestDistance(floorPlan, allInterns, position)) {
+                mismatches++;
+            }
+        }
+        if (mismatches > 0) {
+            logger.error("{} lookups didn't find the nearest intern!", mismatches);
+        }
+
+        // the first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            FloorRefillRouter router = new FloorRefillRouter(floorPlan, Runnable::run);
+            // with a single slow refill, it's probably the garbage collector, not the lookups
+            int slow = 0;
+            long begin = System.nanoTime();
+            for (int i = 0; i < refills; i++) {
+                LiquidContainer container = containers.get(random.nextInt(containers.size()));
+                long start = System.nanoTime();
+                router.requestRefill(container, LiquidType.WATER);
+                if (System.nanoTime() - start > 1_000_000L) {
+                    slow++;
+                }
+            }
+            long elapsed = System.nanoTime() - begin;
+            logger.info("{} refills routed, {}ns per refill on average, {} took more than 1ms: {}", refills,
+                        elapsed / refills, slow, router.getMetrics());
+        }
+    }
+
+    private static double nearestDistance(FloorPlan floorPlan, List<Intern> interns, FloorPosition position) {
+        double nearest = Double.MAX_VALUE;
+        for (Intern intern : interns) {
+            nearest = Math.min(nearest, floorPlan.getPosition(intern).distanceTo(position));
+        }
+        return nearest;
+    }
+
+    private static FloorPosition randomPosition(Random random) {
+        return new FloorPosition(random.nextDouble() * FLOOR_SIZE, random.nextDouble() * FLOOR_SIZE);
+    }
+}
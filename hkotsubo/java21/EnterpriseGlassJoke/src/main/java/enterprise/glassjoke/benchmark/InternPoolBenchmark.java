@@ -0,0 +1,137 @@
+package enterprise.glassjoke.benchmark;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.InternPool;
+import enterprise.glassjoke.entity.InternPoolBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Checks the order in which the intern pools serve the employees, and compares fair and unfair pools under contention.
+ *
+ * In the order check, the pool has one intern, who is busy while the employees get in line, one at a time. Then the
+ * employee who had the intern gives them back and asks again right away: in a fair pool, they go to the end of the
+ * line, so everybody is served in the order they asked. In an unfair pool, they might get the intern back before the
+ * others.
+ *
+ * In the contention run, lots of employees ask for refills as fast as they can, and the result is how many refills
+ * per second were made, and how long the employees waited.
+ *
+ * To run it: {@code mvn compile exec:java -Dexec.mainClass=enterprise.glassjoke.benchmark.InternPoolBenchmark
+ * -Dexec.args="<employees> <interns> <refills per employee>"} (all arguments are optional).
+ *
+ * @author hkotsubo
+ */
+public class InternPoolBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(InternPoolBenchmark.class.getSimpleName());
+
+    // how many employees get in line in each round of the order check
+    private static final int LINE_LENGTH = 10;
+    private static final int ROUNDS = 200;
+
+    private InternPoolBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int interns = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int refills = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        for (boolean fair : new boolean[] { true, false }) {
+            int outOfOrder = checkOrder(fair);
+            if (fair && outOfOrder > 0) {
+                logger.error("Fair pool: employees were served out of order in {} of {} rounds!", outOfOrder, ROUNDS);
+            } else {
+                logger.info("{} pool: employees were served out of order in {} of {} rounds", fair ? "Fair" : "Unfair",
+                            outOfOrder, ROUNDS);
+            }
+        }
+
+        logger.info("{} employees, {} interns, {} refills per employee", employees, interns, refills);
+        // the first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            for (boolean fair : new boolean[] { true, false }) {
+                InternPool pool = new InternPoolBuilder().withSize(interns).withFairness(fair).build();
+                long elapsed = contend(pool, employees, refills);
+                logger.info("{} pool: {} refills/s, {}", fair ? "Fair" : "Unfair",
+                            String.format("%,.0f", employees * (double) refills * 1e9 / elapsed), pool.getMetrics());
+            }
+        }
+    }
+
+    /**
+     * Get in how many rounds somebody was served out of order
+     */
+    private static int checkOrder(boolean fair) throws InterruptedException {
+        InternPool pool = new InternPoolBuilder().withFairness(fair).build();
+        int outOfOrder = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Integer> served = new ArrayList<>();
+            Intern intern = pool.acquire();
+            Thread[] line = new Thread[LINE_LENGTH];
+            for (int i = 0; i < LINE_LENGTH; i++) {
+                int employee = i;
+                line[i] = Thread.ofPlatform().start(() -> {
+                    Intern borrowed = pool.acquire();
+                    served.add(employee);
+                    pool.release(borrowed);
+                });
+                // the next one only arrives after this one is really waiting
+                while (line[i].getState() != Thread.State.WAITING) {
+                    Thread.onSpinWait();
+                }
+            }
+            // the one who had the intern asks again right away, so they must be the last one in line
+            pool.release(intern);
+            intern = pool.acquire();
+            served.add(LINE_LENGTH);
+            pool.release(intern);
+            for (Thread thread : line) {
+                thread.join();
+            }
+            // the pool has a single intern, so the list was changed by one thread at a time
+            for (int i = 0; i < served.size(); i++) {
+                if (served.get(i) != i) {
+                    outOfOrder++;
+                    break;
+                }
+            }
+        }
+        return outOfOrder;
+    }
+
+    private static long contend(InternPool pool, int employees, int refills) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[employees];
+        for (int i = 0; i < employees; i++) {
+            threads[i] = Thread.ofVirtual().unstarted(() -> {
+                LiquidContainer container = new LiquidContainerBuilder().withType(LiquidContainerType.GLASS)
+                                                                        .withCapacity(250).build();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < refills; j++) {
+                    pool.requestRefill(container, LiquidType.WATER);
+                }
+            });
+            threads[i].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return Math.max(1, System.nanoTime() - begin);
+    }
+}
@@ -0,0 +1,82 @@
+package enterprise.glassjoke.benchmark;
+
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.factory.IntervalFactory;
+import enterprise.glassjoke.entity.factory.TimePassageManagerFactory;
+import enterprise.glassjoke.entity.factory.WorkingScheduleFactory;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.ThirstyFactorBuilder;
+import enterprise.glassjoke.work.OfficeSimulatorBuilder;
+import enterprise.glassjoke.work.WorkingDayReport;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+
+/**
+ * Measures how many ticks (one employee in one moment of the day) are simulated per second, with logging turned off
+ * and with the usual INFO level, using whatever logging configuration is active.
+ *
+ * With the default configuration, everything goes to the console, synchronously. To compare it with the asynchronous
+ * logging to a file, run it with the "async-logging" profile:
+ * {@code mvn -Pasync-logging compile exec:java -Dexec.mainClass=enterprise.glassjoke.benchmark.LoggingThroughputBenchmark
+ * -Dexec.args="<employees> <runs>"} (all arguments are optional). The results are logged at WARN level, and the
+ * benchmark's logger is never turned off.
+ *
+ * @author hkotsubo
+ */
+public class LoggingThroughputBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(LoggingThroughputBenchmark.class.getSimpleName());
+
+    private LoggingThroughputBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        Level originalLevel = LogManager.getRootLogger().getLevel();
+        // the results must be shown even when everything else is off
+        Configurator.setLevel(logger.getName(), Level.WARN);
+        try {
+            for (Level level : new Level[]{ Level.OFF, Level.INFO }) {
+                Configurator.setRootLevel(level);
+                // the first run warms up the JIT
+                run(employees);
+                long ticks = 0, nanos = 0;
+                for (int i = 0; i < runs; i++) {
+                    long start = System.nanoTime();
+                    ticks += run(employees).getIterations();
+                    nanos += System.nanoTime() - start;
+                }
+                logger.warn("Logging {}: {} ticks/s ({} employees, {} runs)", level,
+                            String.format("%,.0f", ticks * 1e9 / nanos), employees, runs);
+            }
+        } finally {
+            Configurator.setRootLevel(originalLevel);
+            // with asynchronous logging, wait until everything is written (exec:java doesn't wait for the background
+            // threads before finishing)
+            LogManager.shutdown();
+        }
+    }
+
+    private static WorkingDayReport run(int employees) {
+        OfficeSimulatorBuilder builder = new OfficeSimulatorBuilder()
+                .withRandomnessProvider(new RandomnessProvider(42))
+                .withTimePassageManager(TimePassageManagerFactory.newFactory()
+                                                                 .createTimePassageManager(5, ChronoUnit.MINUTES));
+        for (int i = 0; i < employees; i++) {
+            builder.addEmployee(new Employee(),
+                                new LiquidContainerBuilder().withCapacity(750).withType(LiquidContainerType.GLASS).build(),
+                                WorkingScheduleFactory.newFactory().createNineToFiveSchedule(
+                                        IntervalFactory.newFactory().createIntervalWithMaxDuration(LocalTime.NOON)),
+                                new ThirstyFactorBuilder().addRoomTemperatureCelsius(25)
+                                                          .addWorkIntensity(1000 + i % 5000).build());
+        }
+        return builder.build().simulateWorkingDay();
+    }
+}
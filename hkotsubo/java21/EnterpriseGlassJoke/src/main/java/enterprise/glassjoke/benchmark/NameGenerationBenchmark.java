@@ -0,0 +1,128 @@
+package enterprise.glassjoke.benchmark;
+
+import enterprise.glassjoke.repository.NameTable;
+import enterprise.glassjoke.repository.NamesRepository;
+import enterprise.glassjoke.repository.UniqueNameGenerator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Measures how many names per second can be generated: random names from the repository, and unique names (with one
+ * and many threads). It also checks how many of the first names are really different, including with a tiny table (so
+ * most names have lots of middle names).
+ *
+ * By default, it uses the repository's names. To use larger lists, pass two files (first and last names, one per line).
+ *
+ * To run it: {@code mvn compile exec:java -Dexec.mainClass=enterprise.glassjoke.benchmark.NameGenerationBenchmark
+ * -Dexec.args="<names> <threads> [<first names file> <last names file>]"} (all arguments are optional).
+ *
+ * @author hkotsubo
+ */
+public class NameGenerationBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(NameGenerationBenchmark.class.getSimpleName());
+
+    // how many names are checked for duplicates
+    private static final int CHECKED_NAMES = 1_000_000;
+
+    private NameGenerationBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long names = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        NameTable table = args.length > 3 ? NameTable.load(Path.of(args[2]), Path.of(args[3]))
+                                          : NamesRepository.getNameTable();
+        logger.info("{} first names and {} last names ({} combinations)", table.getFirstNamesCount(),
+                    table.getLastNamesCount(), table.getCombinations());
+
+        Set<String> distinct = new HashSet<>();
+        SplittableRandom rand = new SplittableRandom(42);
+        for (int i = 0; i < CHECKED_NAMES; i++) {
+            distinct.add(NamesRepository.getRandomName(rand));
+        }
+        logger.info("Random names: {} different names in {}", distinct.size(), CHECKED_NAMES);
+        UniqueNameGenerator checked = new UniqueNameGenerator(table, new SplittableRandom(42));
+        distinct.clear();
+        for (int i = 0; i < CHECKED_NAMES; i++) {
+            distinct.add(checked.nextName());
+        }
+        logger.info("Unique names: {} different names in {} (the last one is {})", distinct.size(), CHECKED_NAMES,
+                    checked.getName(CHECKED_NAMES - 1));
+        // with 4 combinations, almost all names have middle names, which must not be confused with each other
+        UniqueNameGenerator tiny = new UniqueNameGenerator(new NameTable(List.of("Mary", "Ann"), List.of("Lee", "Ann")),
+                                                           new SplittableRandom(42));
+        distinct.clear();
+        for (int i = 0; i < CHECKED_NAMES / 10; i++) {
+            distinct.add(tiny.nextName());
+        }
+        logger.info("Unique names with a tiny table: {} different names in {} (the last one is {})", distinct.size(),
+                    CHECKED_NAMES / 10, tiny.getName(CHECKED_NAMES / 10 - 1));
+        distinct = null;
+
+        // the first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            long length = 0;
+            for (long i = 0; i < names / 10; i++) {
+                length += NamesRepository.getRandomName(rand).length();
+            }
+            report("Random names, 1 thread", names / 10, start, length);
+
+            UniqueNameGenerator generator = new UniqueNameGenerator(table, new SplittableRandom(42));
+            start = System.nanoTime();
+            length = 0;
+            for (long i = 0; i < names; i++) {
+                length += generator.nextName().length();
+            }
+            report("Unique names, 1 thread", names, start, length);
+
+            // what's stored instead of the names
+            generator = new UniqueNameGenerator(table, new SplittableRandom(42));
+            start = System.nanoTime();
+            long lastId = -1;
+            for (long i = 0; i < names; i++) {
+                lastId = generator.nextId();
+            }
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            logger.info("Unique identifiers, 1 thread: {} ids/s (the last one is {})",
+                        String.format("%,.0f", names * 1e9 / elapsed), lastId);
+
+            generator = new UniqueNameGenerator(table, new SplittableRandom(42));
+            long[] lengths = new long[threads];
+            Thread[] workers = new Thread[threads];
+            start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                UniqueNameGenerator shared = generator;
+                int worker = t;
+                workers[t] = new Thread(() -> {
+                    long sum = 0;
+                    for (long i = 0; i < names / threads; i++) {
+                        sum += shared.nextName().length();
+                    }
+                    lengths[worker] = sum;
+                });
+                workers[t].start();
+            }
+            length = 0;
+            for (int t = 0; t < threads; t++) {
+                workers[t].join();
+                length += lengths[t];
+            }
+            report("Unique names, " + threads + " threads", names / threads * threads, start, length);
+        }
+    }
+
+    // the total length is logged just to make sure the names are not optimized away
+    private static void report(String what, long names, long start, long length) {
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        logger.info("{}: {} names/s (average length {})", what, String.format("%,.0f", names * 1e9 / elapsed),
+                    String.format("%.1f", length / (double) names));
+    }
+}
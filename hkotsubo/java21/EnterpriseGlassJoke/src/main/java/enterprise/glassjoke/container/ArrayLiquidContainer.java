@@ -0,0 +1,209 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.entity.OfficeEntity;
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Liquid container that stores the amounts in an array, indexed by the liquid type's ordinal.
+ *
+ * It behaves exactly like {@link LiquidContainer} (the liquids are drank in the same order, and the same messages are
+ * logged), but {@link #consume}, {@link #fill} and {@link #isEmpty} don't allocate anything: there's no boxing, no map
+ * entries and no iterators. As the container is used in every moment by every employee, it makes a difference in large
+ * simulations.
+ *
+ * {@link #getContents()} returns a read-only view of the array, created only once (iterating through it still
+ * creates an iterator, but that's done only when the employee arrives, when saving checkpoints, etc).
+ *
+ * Use {@link LiquidContainerBuilder#withArrayStorage()} to create it.
+ *
+ * @author hkotsubo
+ */
+public class ArrayLiquidContainer extends LiquidContainer {
+
+    private static final LiquidType[] LIQUID_TYPES = LiquidType.values();
+
+    // the amount of each liquid type (indexed by its ordinal)
+    private final int[] amounts;
+
+    /**
+     * Creates a container with the specified capacity, contents and type.
+     *
+     * The same validations of {@link LiquidContainer#LiquidContainer(int, Map, LiquidContainerType)} are made.
+     *
+     * @param capacity The capacity in milliliters
+     * @param contents Map with the liquid types and their respective volumes
+     * @param type The container type
+     */
+    public ArrayLiquidContainer(int capacity, Map<LiquidType, Integer> contents, LiquidContainerType type) {
+        super(capacity, type);
+        Objects.requireNonNull(contents, "Contens can't be null");
+        this.amounts = new int[LIQUID_TYPES.length];
+        for (Map.Entry<LiquidType, Integer> content : contents.entrySet()) {
+            int vol = content.getValue();
+            if (vol <= 0) {
+                throw new InvalidLiquidAmountException("Amount of " + content.getKey() + " must be positive");
+            }
+            this.amounts[content.getKey().ordinal()] += vol;
+            this.currentVolume += vol;
+            if (this.currentVolume > this.capacity) {
+                throw new InvalidLiquidAmountException("Sum of contents volume is greater than the capacity");
+            }
+        }
+        this.contents = new ContentsView();
+    }
+
+    @Override
+    public Map<LiquidType, Integer> getContents() {
+        // the view is already read-only
+        return this.contents;
+    }
+
+    /**
+     * Drink some milliliters from this container, following the same rules of {@link LiquidContainer#consume}
+     *
+     * @param amountMilliLiters Amount of milliliters to consume
+     * @param consumer Who is drinking from this container
+     */
+    @Override
+    public void consume(int amountMilliLiters, OfficeEntity consumer) {
+        if (amountMilliLiters < 0) {
+            throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+        }
+
+        if (amountMilliLiters >= this.currentVolume) {
+            if (logger.isInfoEnabled()) {
+                if (amountMilliLiters != this.currentVolume) {
+                    logger.info("{} {} wants to drink {}ml but the {} has only {}ml. Drinking everything...",
+                                consumer.getClass().getSimpleName(), consumer.getName(), amountMilliLiters,
+                                this.type, this.currentVolume);
+                } else {
+                    logger.info("{} {} is drinking the whole {} ({}ml)", consumer.getClass().getSimpleName(),
+                                consumer.getName(), this.type, amountMilliLiters);
+                }
+            }
+            Arrays.fill(amounts, 0);
+            this.currentVolume = 0;
+            return;
+        }
+
+        boolean logging = logger.isInfoEnabled();
+        int consumed = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            int currentAmount = amounts[i];
+            if (currentAmount == 0) {
+                continue;
+            }
+            int amountToConsume = Math.min(currentAmount, amountMilliLiters);
+            if (logging) {
+                logger.info("{} {} is drinking {}ml of {}", consumer.getClass().getSimpleName(), consumer.getName(),
+                            amountToConsume, LIQUID_TYPES[i]);
+            }
+            amounts[i] = currentAmount - amountToConsume;
+            consumed += amountToConsume;
+            amountMilliLiters -= amountToConsume;
+        }
+        this.currentVolume -= consumed;
+        consumer.setThirsty(false);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.currentVolume == 0;
+    }
+
+    /**
+     * Fill the container with a liquid, until it's totally full.
+     *
+     * @param type The liquid type to be added
+     */
+    @Override
+    public void fill(LiquidType type) {
+        type = Objects.requireNonNull(type, "Type must not be null");
+        amounts[type.ordinal()] += this.capacity - this.currentVolume;
+        this.currentVolume = this.capacity;
+    }
+
+    /**
+     * Read-only map view of the amounts: only the liquid types with a positive amount are there, in the enum's order,
+     * like the map of {@link LiquidContainer} (which might also keep a zero amount, when a full container is filled)
+     */
+    private class ContentsView extends AbstractMap<LiquidType, Integer> {
+
+        private final Set<Map.Entry<LiquidType, Integer>> entrySet = new AbstractSet<>() {
+
+            @Override
+            public Iterator<Map.Entry<LiquidType, Integer>> iterator() {
+                return new Iterator<>() {
+
+                    private int next = skipEmpty(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < amounts.length;
+                    }
+
+                    @Override
+                    public Map.Entry<LiquidType, Integer> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<LiquidType, Integer> entry = Map.entry(LIQUID_TYPES[next], amounts[next]);
+                        next = skipEmpty(next + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ContentsView.this.size();
+            }
+        };
+
+        private int skipEmpty(int index) {
+            while (index < amounts.length && amounts[index] == 0) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public Set<Map.Entry<LiquidType, Integer>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int amount : amounts) {
+                if (amount > 0) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return currentVolume == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof LiquidType liquidType && amounts[liquidType.ordinal()] > 0;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? amounts[((LiquidType) key).ordinal()] : null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free liquid dispenser.
+ *
+ * The whole state (the current volume and how many times it was refilled) is packed in a single long, so consuming and
+ * refilling are just a compare-and-set each: a thread reads the state, computes the new one and tries to swap them. If
+ * another thread changed the state in the meantime, it tries again with the new value. Nobody waits for a lock, and
+ * readers never block anybody.
+ *
+ * When lots of threads drink at the same time, they keep failing each other's compare-and-sets. In that case, use taps
+ * (see {@link #openTap(int)}), so each thread touches the dispenser only once in a while.
+ *
+ * @author hkotsubo
+ */
+public class AtomicLiquidDispenser implements LiquidDispenser {
+
+    private static final long VOLUME_MASK = 0xFFFFFFFFL;
+
+    private final int capacity;
+    private final LiquidType liquidType;
+
+    // refills in the upper 32 bits, current volume in the lower 32 bits
+    private final AtomicLong state;
+
+    AtomicLiquidDispenser(int capacity, int initialVolume, LiquidType liquidType) {
+        this.capacity = capacity;
+        this.liquidType = liquidType;
+        this.state = new AtomicLong(pack(0, initialVolume));
+    }
+
+    @Override
+    public int consume(int amountMilliLiters) {
+        if (amountMilliLiters < 0) {
+            throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+        }
+        while (true) {
+            long current = state.get();
+            int volume = volumeOf(current);
+            int taken = Math.min(volume, amountMilliLiters);
+            if (taken == 0 || state.compareAndSet(current, pack(refillsOf(current), volume - taken))) {
+                return taken;
+            }
+            // somebody else got there first, let them finish
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public int refill() {
+        while (true) {
+            long current = state.get();
+            int volume = volumeOf(current);
+            if (volume == capacity || state.compareAndSet(current, pack(refillsOf(current) + 1, capacity))) {
+                return capacity - volume;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getCurrentVolume() {
+        return volumeOf(state.get());
+    }
+
+    @Override
+    public LiquidType getLiquidType() {
+        return liquidType;
+    }
+
+    @Override
+    public int getRefills() {
+        return refillsOf(state.get());
+    }
+
+    private static long pack(int refills, int volume) {
+        return ((long) refills << 32) | (volume & VOLUME_MASK);
+    }
+
+    private static int volumeOf(long state) {
+        return (int) (state & VOLUME_MASK);
+    }
+
+    private static int refillsOf(long state) {
+        return (int) (state >>> 32);
+    }
+}
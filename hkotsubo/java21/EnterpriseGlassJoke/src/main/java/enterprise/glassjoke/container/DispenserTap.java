@@ -0,0 +1,64 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+
+/**
+ * Takes liquid from a dispenser in batches (see {@link LiquidDispenser#openTap(int)}).
+ *
+ * A tap is not thread-safe: it's meant to be used by a single thread (or a single entity).
+ *
+ * @author hkotsubo
+ */
+public class DispenserTap {
+
+    private final LiquidDispenser dispenser;
+    private final int batch;
+
+    // what was already taken from the dispenser, but not consumed yet
+    private int reserve;
+
+    DispenserTap(LiquidDispenser dispenser, int batch) {
+        if (batch <= 0) {
+            throw new InvalidLiquidAmountException("Batch must be positive");
+        }
+        this.dispenser = dispenser;
+        this.batch = batch;
+        this.reserve = 0;
+    }
+
+    /**
+     * Take some liquid, from the reserve if possible, and from the dispenser when the reserve is not enough.
+     *
+     * @param amountMilliLiters The amount to take, in milliliters
+     *
+     * @return The amount actually taken (less than asked only if both the reserve and the dispenser are over)
+     */
+    public int consume(int amountMilliLiters) {
+        if (amountMilliLiters < 0) {
+            throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+        }
+        while (reserve < amountMilliLiters) {
+            int taken = dispenser.consume(Math.max(batch, amountMilliLiters - reserve));
+            if (taken == 0) {
+                break;
+            }
+            reserve += taken;
+        }
+        int consumed = Math.min(reserve, amountMilliLiters);
+        reserve -= consumed;
+        return consumed;
+    }
+
+    /**
+     * Get how much was taken from the dispenser and is still in the tap
+     *
+     * @return The reserve, in milliliters
+     */
+    public int getReserve() {
+        return reserve;
+    }
+
+    public LiquidDispenser getDispenser() {
+        return dispenser;
+    }
+}
@@ -3,6 +3,7 @@ package enterprise.glassjoke.container;
 import enterprise.glassjoke.entity.OfficeEntity;
 import enterprise.glassjoke.exception.InvalidLiquidAmountException;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -49,8 +50,24 @@ public class LiquidContainer {
     // the contents of this container
     protected Map<LiquidType, Integer> contents;
 
+    // one logger per container type, shared by all containers of that type
+    private static final Map<LiquidContainerType, Logger> LOGGERS = new EnumMap<>(LiquidContainerType.class);
+
+    static {
+        for (LiquidContainerType containerType : LiquidContainerType.values()) {
+            LOGGERS.put(containerType, LogManager.getLogger("LiquidContainer(" + containerType + ")"));
+        }
+    }
+
     protected Logger logger;
 
+    /**
+     * Get the logger shared by all containers of a type
+     */
+    static Logger loggerOf(LiquidContainerType type) {
+        return LOGGERS.get(type);
+    }
+
     /**
      * Creates a container with the specified capacity and type.
      *
@@ -76,7 +93,7 @@ public class LiquidContainer {
         this.currentVolume = 0; // container starts empty
         this.contents = new TreeMap<>();
         this.type = Objects.requireNonNull(type, "Type can't be null");
-        this.logger = LogManager.getLogger("LiquidContainer(" + type.toString() + ")");
+        this.logger = LOGGERS.get(type);
     }
 
     /**
@@ -149,14 +166,18 @@ public class LiquidContainer {
             throw new InvalidLiquidAmountException("Amount to dring can't be negative");
         }
 
+        // the consumer's class and name are not needed when nobody's listening
+        boolean logging = logger.isInfoEnabled();
         if (amountMilliLiters >= this.currentVolume) {
-            if (amountMilliLiters != this.currentVolume) {
-                logger.info("{} {} wants to drink {}ml but the {} has only {}ml. Drinking everything...",
-                            consumer.getClass().getSimpleName(), consumer.getName(), amountMilliLiters,
-                            this.type, this.currentVolume);
-            } else {
-                logger.info("{} {} is drinking the whole {} ({}ml)", consumer.getClass().getSimpleName(), consumer.getName(),
-                            this.type, amountMilliLiters);
+            if (logging) {
+                if (amountMilliLiters != this.currentVolume) {
+                    logger.info("{} {} wants to drink {}ml but the {} has only {}ml. Drinking everything...",
+                                consumer.getClass().getSimpleName(), consumer.getName(), amountMilliLiters,
+                                this.type, this.currentVolume);
+                } else {
+                    logger.info("{} {} is drinking the whole {} ({}ml)", consumer.getClass().getSimpleName(),
+                                consumer.getName(), this.type, amountMilliLiters);
+                }
             }
             this.contents.clear();
             this.currentVolume = 0;
@@ -171,8 +192,10 @@ public class LiquidContainer {
             LiquidType liquidType = iterator.next();
             int currentAmount = this.contents.get(liquidType);
             int amountToConsume = Math.min(currentAmount, amountMilliLiters);
-            logger.info("{} {} is drinking {}ml of {}", consumer.getClass().getSimpleName(), consumer.getName(),
-                        amountToConsume, liquidType);
+            if (logging) {
+                logger.info("{} {} is drinking {}ml of {}", consumer.getClass().getSimpleName(), consumer.getName(),
+                            amountToConsume, liquidType);
+            }
             if (currentAmount == amountToConsume) {
                 iterator.remove();
             } else {
@@ -21,10 +21,14 @@ public class LiquidContainerBuilder {
     // the contents of this container
     private final Map<LiquidType, Integer> contents;
 
+    // if the contents are stored in an array, instead of a map
+    private boolean arrayStorage;
+
     public LiquidContainerBuilder() {
         this.capacity = 0;
         this.type = null;
         this.contents = new TreeMap<>();
+        this.arrayStorage = false;
     }
 
     /**
@@ -86,12 +90,26 @@ public class LiquidContainerBuilder {
         return this;
     }
 
+    /**
+     * Store the contents in an array, instead of a map (see {@link ArrayLiquidContainer}). The container behaves the
+     * same, but drinking and filling don't allocate anything.
+     *
+     * @return This builder
+     */
+    public LiquidContainerBuilder withArrayStorage() {
+        this.arrayStorage = true;
+        return this;
+    }
+
     /**
      * Build the liquid container
      *
      * @return The liquid container
      */
     public LiquidContainer build() {
+        if (this.arrayStorage) {
+            return new ArrayLiquidContainer(this.capacity, this.contents, this.type);
+        }
         return new LiquidContainer(this.capacity, this.contents, this.type);
     }
 }
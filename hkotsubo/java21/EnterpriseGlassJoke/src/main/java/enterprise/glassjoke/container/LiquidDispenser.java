@@ -0,0 +1,66 @@
+package enterprise.glassjoke.container;
+
+/**
+ * A shared source of liquid, such as a water cooler or a coffee pot.
+ *
+ * Unlike a {@link LiquidContainer} (which belongs to a single employee), a dispenser is used by lots of entities at the
+ * same time: many threads drink from it while the interns refill it, so all implementations are thread-safe. A
+ * dispenser has only one type of liquid.
+ *
+ * Use {@link LiquidDispenserBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public interface LiquidDispenser {
+
+    /**
+     * Take some liquid from the dispenser.
+     *
+     * If the dispenser has less than the amount, everything that's left is taken.
+     *
+     * @param amountMilliLiters The amount to take, in milliliters
+     *
+     * @return The amount actually taken (zero if the dispenser is empty)
+     */
+    int consume(int amountMilliLiters);
+
+    /**
+     * Fill the dispenser until it's full
+     *
+     * @return The amount added, in milliliters (zero if it was already full)
+     */
+    int refill();
+
+    int getCapacity();
+
+    int getCurrentVolume();
+
+    LiquidType getLiquidType();
+
+    /**
+     * Get how many times the dispenser was refilled (only the refills that added something count)
+     *
+     * @return The number of refills
+     */
+    int getRefills();
+
+    default boolean isEmpty() {
+        return getCurrentVolume() == 0;
+    }
+
+    /**
+     * Open a tap that takes the liquid in batches: each time its reserve is over, it takes a whole batch from the
+     * dispenser, and the following consumptions use the reserve, without touching the dispenser.
+     *
+     * When lots of threads drink small amounts at the same time, each one with its own tap, the dispenser is used far
+     * less often, so there's much less contention. The downside is that the liquid in the taps' reserves is out of the
+     * dispenser, so the dispenser might look empty while some taps still have something.
+     *
+     * @param batchMilliLiters How much the tap takes from the dispenser each time
+     *
+     * @return The tap (it's not thread-safe, each thread must have its own)
+     */
+    default DispenserTap openTap(int batchMilliLiters) {
+        return new DispenserTap(this, batchMilliLiters);
+    }
+}
@@ -0,0 +1,94 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+import java.util.Objects;
+
+/**
+ * Builder for liquid dispensers.
+ *
+ * By default, it builds a lock-free dispenser ({@link AtomicLiquidDispenser}) of water, that starts full.
+ *
+ * @author hkotsubo
+ */
+public class LiquidDispenserBuilder {
+
+    private int capacity;
+    private int initialVolume;
+    private LiquidType liquidType;
+    private boolean synchronizedDispenser;
+
+    public LiquidDispenserBuilder() {
+        this.capacity = 0;
+        this.initialVolume = -1; // full
+        this.liquidType = LiquidType.WATER;
+        this.synchronizedDispenser = false;
+    }
+
+    /**
+     * Set the capacity of the dispenser, in milliliters (a regular water cooler has almost 20 liters)
+     *
+     * @param capacity The capacity in milliliters
+     *
+     * @return This builder
+     */
+    public LiquidDispenserBuilder withCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Set how much the dispenser has when it's created (if not set, it starts full)
+     *
+     * @param initialVolume The initial volume in milliliters
+     *
+     * @return This builder
+     */
+    public LiquidDispenserBuilder withInitialVolume(int initialVolume) {
+        if (initialVolume < 0) {
+            throw new InvalidLiquidAmountException("Initial volume can't be negative");
+        }
+        this.initialVolume = initialVolume;
+        return this;
+    }
+
+    /**
+     * Set the liquid type of the dispenser
+     *
+     * @param liquidType The liquid type
+     *
+     * @return This builder
+     */
+    public LiquidDispenserBuilder withLiquidType(LiquidType liquidType) {
+        this.liquidType = Objects.requireNonNull(liquidType, "liquid type can't be null");
+        return this;
+    }
+
+    /**
+     * Build a dispenser that uses a lock, instead of a lock-free one (see {@link SynchronizedLiquidDispenser})
+     *
+     * @return This builder
+     */
+    public LiquidDispenserBuilder withLock() {
+        this.synchronizedDispenser = true;
+        return this;
+    }
+
+    /**
+     * Build the dispenser
+     *
+     * @return The liquid dispenser
+     */
+    public LiquidDispenser build() {
+        if (capacity <= 0) {
+            throw new InvalidLiquidAmountException("Capacity must be positive");
+        }
+        int volume = initialVolume < 0 ? capacity : initialVolume;
+        if (volume > capacity) {
+            throw new InvalidLiquidAmountException("Initial volume is greater than the capacity");
+        }
+        if (synchronizedDispenser) {
+            return new SynchronizedLiquidDispenser(capacity, volume, liquidType);
+        }
+        return new AtomicLiquidDispenser(capacity, volume, liquidType);
+    }
+}
@@ -0,0 +1,494 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.entity.OfficeEntity;
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the state of lots of liquid containers outside the heap.
+ *
+ * Each container is a fixed-size record (capacity, current volume, container type and the amount of each liquid type)
+ * in direct memory, allocated in chunks of {@value #CHUNK_SIZE} containers. The heap only has the chunks' buffer
+ * objects, so neither the heap size nor the garbage collector's work depend on how many containers there are (the
+ * off-heap memory is limited by {@code -XX:MaxDirectMemorySize}, which by default is the maximum heap size).
+ *
+ * Containers are accessed by their index (in the order they were added), with:
+ *
+ * - the getters of this class
+ *
+ * - flyweights (see {@link #container(int)}), which are regular liquid containers that can be moved from one index to
+ * another, so a simulator can use them without knowing where the data is
+ *
+ * - bulk operations, that go through a range of containers at once
+ *
+ * The store is not thread-safe, but different threads can work on different containers at the same time.
+ *
+ * @author hkotsubo
+ */
+public class OffHeapContainerStore {
+
+    private static final Logger logger = LogManager.getLogger(OffHeapContainerStore.class.getSimpleName());
+
+    private static final LiquidType[] LIQUID_TYPES = LiquidType.values();
+    private static final LiquidContainerType[] CONTAINER_TYPES = LiquidContainerType.values();
+
+    // the record of each container: capacity, current volume, container type, amount of each liquid type (all ints)
+    private static final int CAPACITY = 0;
+    private static final int VOLUME = 4;
+    private static final int TYPE = 8;
+    private static final int AMOUNTS = 12;
+    private static final int RECORD_SIZE = AMOUNTS + 4 * LIQUID_TYPES.length;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private ByteBuffer[] chunks;
+    private int size;
+
+    public OffHeapContainerStore() {
+        this.chunks = new ByteBuffer[0];
+        this.size = 0;
+    }
+
+    /**
+     * Add a container, copying the capacity, type and contents of another one
+     *
+     * @param template The container to copy
+     *
+     * @return The index of the new container
+     */
+    public int add(LiquidContainer template) {
+        return addContainers(1, template);
+    }
+
+    /**
+     * Add many containers, all of them with the capacity, type and contents of another one
+     *
+     * @param count How many containers
+     * @param template The container to copy
+     *
+     * @return The index of the first container (the others come right after it)
+     */
+    public int addContainers(int count, LiquidContainer template) {
+        Objects.requireNonNull(template, "template can't be null");
+        if (count < 0 || count > Integer.MAX_VALUE - size) {
+            throw new IllegalArgumentException("Invalid number of containers: " + count);
+        }
+        int first = size;
+        ensureChunks(size + count);
+        int[] amounts = new int[LIQUID_TYPES.length];
+        for (Map.Entry<LiquidType, Integer> content : template.getContents().entrySet()) {
+            amounts[content.getKey().ordinal()] = content.getValue();
+        }
+        for (int index = first; index < first + count; index++) {
+            ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+            int offset = (index & CHUNK_MASK) * RECORD_SIZE;
+            chunk.putInt(offset + CAPACITY, template.getCapacity());
+            chunk.putInt(offset + VOLUME, template.getCurrentVolume());
+            chunk.putInt(offset + TYPE, template.getType().ordinal());
+            for (int t = 0; t < amounts.length; t++) {
+                chunk.putInt(offset + AMOUNTS + 4 * t, amounts[t]);
+            }
+        }
+        size += count;
+        return first;
+    }
+
+    private void ensureChunks(int containers) {
+        int needed = (int) ((containers + (long) CHUNK_MASK) >>> CHUNK_BITS);
+        if (needed <= chunks.length) {
+            return;
+        }
+        int old = chunks.length;
+        chunks = Arrays.copyOf(chunks, needed);
+        for (int c = old; c < needed; c++) {
+            chunks[c] = ByteBuffer.allocateDirect(CHUNK_SIZE * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        }
+        logger.debug("{} chunks allocated ({} bytes off-heap)", needed, getOffHeapBytes());
+    }
+
+    /**
+     * Get how many containers there are
+     *
+     * @return The number of containers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get how much memory was allocated outside the heap
+     *
+     * @return The number of bytes
+     */
+    public long getOffHeapBytes() {
+        return (long) chunks.length * CHUNK_SIZE * RECORD_SIZE;
+    }
+
+    public int getCapacity(int index) {
+        return chunkOf(index).getInt(offsetOf(index) + CAPACITY);
+    }
+
+    public int getCurrentVolume(int index) {
+        return chunkOf(index).getInt(offsetOf(index) + VOLUME);
+    }
+
+    public LiquidContainerType getType(int index) {
+        return CONTAINER_TYPES[chunkOf(index).getInt(offsetOf(index) + TYPE)];
+    }
+
+    public int getAmount(int index, LiquidType liquidType) {
+        return chunkOf(index).getInt(offsetOf(index) + AMOUNTS + 4 * liquidType.ordinal());
+    }
+
+    public boolean isEmpty(int index) {
+        return getCurrentVolume(index) == 0;
+    }
+
+    /**
+     * Create a flyweight positioned at a container (use {@link Flyweight#moveTo(int)} to reuse it for others)
+     *
+     * @param index The container's index
+     *
+     * @return The flyweight
+     */
+    public Flyweight container(int index) {
+        Flyweight flyweight = new Flyweight(getType(index));
+        flyweight.moveTo(index);
+        return flyweight;
+    }
+
+    /**
+     * All containers in a range drink the same amount (or everything they have, if it's less than that). Nothing is
+     * logged, and nobody's thirsty status changes: it's the bulk version of {@link LiquidContainer#consume}, for
+     * simulators that keep track of everything by themselves.
+     *
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     * @param amountMilliLiters The amount each container loses
+     *
+     * @return How much was consumed from all of them together
+     */
+    public long consume(int from, int to, int amountMilliLiters) {
+        if (amountMilliLiters < 0) {
+            throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+        }
+        Objects.checkFromToIndex(from, to, size);
+        long total = 0;
+        for (int index = from; index < to; index++) {
+            total += consume(chunks[index >>> CHUNK_BITS], (index & CHUNK_MASK) * RECORD_SIZE, amountMilliLiters);
+        }
+        return total;
+    }
+
+    /**
+     * Each container in a range drinks its own amount (the container {@code from + i} drinks {@code amounts[i]})
+     *
+     * @param from The first index
+     * @param amounts The amount of each container
+     *
+     * @return How much was consumed from all of them together
+     */
+    public long consume(int from, int[] amounts) {
+        Objects.checkFromIndexSize(from, amounts.length, size);
+        long total = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            if (amounts[i] < 0) {
+                throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+            }
+            int index = from + i;
+            total += consume(chunks[index >>> CHUNK_BITS], (index & CHUNK_MASK) * RECORD_SIZE, amounts[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Fill all containers in a range with a liquid, until they're full
+     *
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     * @param liquidType The liquid type
+     *
+     * @return How much was added to all of them together
+     */
+    public long fill(int from, int to, LiquidType liquidType) {
+        Objects.requireNonNull(liquidType, "Type must not be null");
+        Objects.checkFromToIndex(from, to, size);
+        long total = 0;
+        for (int index = from; index < to; index++) {
+            total += fill(chunks[index >>> CHUNK_BITS], (index & CHUNK_MASK) * RECORD_SIZE, liquidType);
+        }
+        return total;
+    }
+
+    /**
+     * Fill only the empty containers in a range (as the interns do)
+     *
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     * @param liquidType The liquid type
+     *
+     * @return How many containers were filled
+     */
+    public int fillEmpty(int from, int to, LiquidType liquidType) {
+        Objects.requireNonNull(liquidType, "Type must not be null");
+        Objects.checkFromToIndex(from, to, size);
+        int filled = 0;
+        for (int index = from; index < to; index++) {
+            ByteBuffer chunk = chunks[index >>> CHUNK_BITS];
+            int offset = (index & CHUNK_MASK) * RECORD_SIZE;
+            if (chunk.getInt(offset + VOLUME) == 0) {
+                fill(chunk, offset, liquidType);
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * Count the empty containers in a range
+     *
+     * @param from The first index (inclusive)
+     * @param to The last index (exclusive)
+     *
+     * @return The number of empty containers
+     */
+    public int countEmpty(int from, int to) {
+        Objects.checkFromToIndex(from, to, size);
+        int empty = 0;
+        for (int index = from; index < to; index++) {
+            if (chunks[index >>> CHUNK_BITS].getInt((index & CHUNK_MASK) * RECORD_SIZE + VOLUME) == 0) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Drink from the container at an offset, in the liquid types' order (the same rules of
+     * {@link LiquidContainer#consume})
+     */
+    private static int consume(ByteBuffer chunk, int offset, int amountMilliLiters) {
+        int volume = chunk.getInt(offset + VOLUME);
+        if (amountMilliLiters >= volume) {
+            for (int t = 0; t < LIQUID_TYPES.length; t++) {
+                chunk.putInt(offset + AMOUNTS + 4 * t, 0);
+            }
+            chunk.putInt(offset + VOLUME, 0);
+            return volume;
+        }
+        int remaining = amountMilliLiters;
+        for (int t = 0; t < LIQUID_TYPES.length && remaining > 0; t++) {
+            int amount = chunk.getInt(offset + AMOUNTS + 4 * t);
+            int taken = Math.min(amount, remaining);
+            chunk.putInt(offset + AMOUNTS + 4 * t, amount - taken);
+            remaining -= taken;
+        }
+        chunk.putInt(offset + VOLUME, volume - amountMilliLiters);
+        return amountMilliLiters;
+    }
+
+    private static int fill(ByteBuffer chunk, int offset, LiquidType liquidType) {
+        int added = chunk.getInt(offset + CAPACITY) - chunk.getInt(offset + VOLUME);
+        int amountOffset = offset + AMOUNTS + 4 * liquidType.ordinal();
+        chunk.putInt(amountOffset, chunk.getInt(amountOffset) + added);
+        chunk.putInt(offset + VOLUME, chunk.getInt(offset + CAPACITY));
+        return added;
+    }
+
+    private ByteBuffer chunkOf(int index) {
+        Objects.checkIndex(index, size);
+        return chunks[index >>> CHUNK_BITS];
+    }
+
+    private static int offsetOf(int index) {
+        return (index & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    /**
+     * A liquid container whose data is in the store. It has no state of its own besides the index, so it can be moved
+     * to another container at any time, and a few of them are enough to go through millions of containers.
+     *
+     * It behaves like {@link ArrayLiquidContainer}.
+     */
+    public class Flyweight extends LiquidContainer {
+
+        private ByteBuffer chunk;
+        private int offset;
+        private int index;
+
+        private Flyweight(LiquidContainerType type) {
+            // the capacity is checked when the container is added to the store
+            super(0, type);
+            this.contents = new ContentsView();
+        }
+
+        /**
+         * Move to another container
+         *
+         * @param index The container's index
+         *
+         * @return This flyweight
+         */
+        public Flyweight moveTo(int index) {
+            this.chunk = chunkOf(index);
+            this.offset = offsetOf(index);
+            this.index = index;
+            this.type = CONTAINER_TYPES[chunk.getInt(offset + TYPE)];
+            // the logs go to the logger of the container's type, not of the first one
+            this.logger = loggerOf(this.type);
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getCapacity() {
+            return chunk.getInt(offset + CAPACITY);
+        }
+
+        @Override
+        public int getCurrentVolume() {
+            return chunk.getInt(offset + VOLUME);
+        }
+
+        @Override
+        public Map<LiquidType, Integer> getContents() {
+            // the view is already read-only, and follows the flyweight
+            return this.contents;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getCurrentVolume() == 0;
+        }
+
+        @Override
+        public void consume(int amountMilliLiters, OfficeEntity consumer) {
+            if (amountMilliLiters < 0) {
+                throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+            }
+            int volume = getCurrentVolume();
+            if (amountMilliLiters >= volume) {
+                if (logger.isInfoEnabled()) {
+                    if (amountMilliLiters != volume) {
+                        logger.info("{} {} wants to drink {}ml but the {} has only {}ml. Drinking everything...",
+                                    consumer.getClass().getSimpleName(), consumer.getName(), amountMilliLiters,
+                                    this.type, volume);
+                    } else {
+                        logger.info("{} {} is drinking the whole {} ({}ml)", consumer.getClass().getSimpleName(),
+                                    consumer.getName(), this.type, amountMilliLiters);
+                    }
+                }
+                OffHeapContainerStore.consume(chunk, offset, amountMilliLiters);
+                return;
+            }
+            if (logger.isInfoEnabled()) {
+                int remaining = amountMilliLiters;
+                for (int t = 0; t < LIQUID_TYPES.length; t++) {
+                    int amount = chunk.getInt(offset + AMOUNTS + 4 * t);
+                    if (amount > 0) {
+                        logger.info("{} {} is drinking {}ml of {}", consumer.getClass().getSimpleName(),
+                                    consumer.getName(), Math.min(amount, remaining), LIQUID_TYPES[t]);
+                        remaining -= Math.min(amount, remaining);
+                    }
+                }
+            }
+            OffHeapContainerStore.consume(chunk, offset, amountMilliLiters);
+            consumer.setThirsty(false);
+        }
+
+        @Override
+        public void fill(LiquidType type) {
+            OffHeapContainerStore.fill(chunk, offset, Objects.requireNonNull(type, "Type must not be null"));
+        }
+
+        /**
+         * Read-only map view of the amounts of the current container (only the liquid types with a positive amount)
+         */
+        private class ContentsView extends AbstractMap<LiquidType, Integer> {
+
+            private final Set<Map.Entry<LiquidType, Integer>> entrySet = new AbstractSet<>() {
+
+                @Override
+                public Iterator<Map.Entry<LiquidType, Integer>> iterator() {
+                    return new Iterator<>() {
+
+                        private int next = skipEmpty(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < LIQUID_TYPES.length;
+                        }
+
+                        @Override
+                        public Map.Entry<LiquidType, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<LiquidType, Integer> entry = Map.entry(LIQUID_TYPES[next], amountOf(next));
+                            next = skipEmpty(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ContentsView.this.size();
+                }
+            };
+
+            private int amountOf(int liquidType) {
+                return chunk.getInt(offset + AMOUNTS + 4 * liquidType);
+            }
+
+            private int skipEmpty(int liquidType) {
+                while (liquidType < LIQUID_TYPES.length && amountOf(liquidType) == 0) {
+                    liquidType++;
+                }
+                return liquidType;
+            }
+
+            @Override
+            public Set<Map.Entry<LiquidType, Integer>> entrySet() {
+                return entrySet;
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (int t = 0; t < LIQUID_TYPES.length; t++) {
+                    if (amountOf(t) > 0) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof LiquidType liquidType && amountOf(liquidType.ordinal()) > 0;
+            }
+
+            @Override
+            public Integer get(Object key) {
+                return containsKey(key) ? amountOf(((LiquidType) key).ordinal()) : null;
+            }
+        }
+    }
+}
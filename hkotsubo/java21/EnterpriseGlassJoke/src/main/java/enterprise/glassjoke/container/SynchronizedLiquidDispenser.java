@@ -0,0 +1,67 @@
+package enterprise.glassjoke.container;
+
+import enterprise.glassjoke.exception.InvalidLiquidAmountException;
+
+/**
+ * Liquid dispenser that uses a lock (its own monitor) for everything.
+ *
+ * It's simpler than {@link AtomicLiquidDispenser}, but under contention the threads wait in line for the lock (and
+ * even reading the volume has to wait). It's here mostly to be compared with the lock-free one.
+ *
+ * @author hkotsubo
+ */
+public class SynchronizedLiquidDispenser implements LiquidDispenser {
+
+    private final int capacity;
+    private final LiquidType liquidType;
+
+    private int currentVolume;
+    private int refills;
+
+    SynchronizedLiquidDispenser(int capacity, int initialVolume, LiquidType liquidType) {
+        this.capacity = capacity;
+        this.liquidType = liquidType;
+        this.currentVolume = initialVolume;
+        this.refills = 0;
+    }
+
+    @Override
+    public synchronized int consume(int amountMilliLiters) {
+        if (amountMilliLiters < 0) {
+            throw new InvalidLiquidAmountException("Amount to dring can't be negative");
+        }
+        int taken = Math.min(currentVolume, amountMilliLiters);
+        currentVolume -= taken;
+        return taken;
+    }
+
+    @Override
+    public synchronized int refill() {
+        int added = capacity - currentVolume;
+        if (added > 0) {
+            currentVolume = capacity;
+            refills++;
+        }
+        return added;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized int getCurrentVolume() {
+        return currentVolume;
+    }
+
+    @Override
+    public LiquidType getLiquidType() {
+        return liquidType;
+    }
+
+    @Override
+    public synchronized int getRefills() {
+        return refills;
+    }
+}
@@ -0,0 +1,28 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fills liquid containers without making the employee wait: the refill is only requested, and the employee can keep
+ * doing other things until the returned future is completed.
+ *
+ * As nobody waits for the interns, lots of refills can be outstanding at the same time, with only a few threads doing
+ * the actual work (see {@link ExecutorRefillService} and {@link RefillDispatcher}).
+ *
+ * @author hkotsubo
+ */
+public interface AsyncRefillService {
+
+    /**
+     * Request a container to be filled
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent it is (higher is more urgent, zero is the usual). Services might ignore it
+     *
+     * @return A future completed with the container, after it's filled
+     */
+    CompletableFuture<LiquidContainer> refillAsync(LiquidContainer container, LiquidType liquidType, int priority);
+}
@@ -3,7 +3,9 @@ package enterprise.glassjoke.entity;
 import enterprise.glassjoke.container.LiquidContainer;
 import enterprise.glassjoke.container.LiquidType;
 import enterprise.glassjoke.entity.factory.InternFactory;
+import java.util.concurrent.CompletableFuture;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * An office employee
@@ -12,6 +14,9 @@ import org.apache.logging.log4j.LogManager;
  */
 public class Employee extends OfficeEntity {
 
+    // shared by all employees (the name goes in the messages), so log4j's registry doesn't grow with the population
+    private static final Logger LOGGER = LogManager.getLogger(Employee.class.getSimpleName());
+
     /**
      * Create an employee without the default name.
      *
@@ -24,7 +29,7 @@ public class Employee extends OfficeEntity {
     public Employee() {
         super(OfficeEntityType.EMPLOYEE);
         this.thirsty = true;
-        setLogger();
+        this.logger = LOGGER;
     }
 
     /**
@@ -35,17 +40,13 @@ public class Employee extends OfficeEntity {
     public Employee(String name) {
         super(name, OfficeEntityType.EMPLOYEE);
         this.thirsty = true;
-        setLogger();
-    }
-
-    private void setLogger() {
-        this.logger = LogManager.getLogger("Employee(" + this.name + ")");
+        this.logger = LOGGER;
     }
 
     @Override
     public void work() {
         // TODO: future versions will hopefully add an implementation. For now, just prints a message to pretend I'm working
-        logger.info("Working");
+        logger.info("[{}] Working", name);
     }
 
     @Override
@@ -58,11 +59,71 @@ public class Employee extends OfficeEntity {
     public void enjoyInterval() {
         // TODO: future versions will hopefully add an implementation with many different ways to enjoy the interval.
         // For now, just prints a message
-        logger.info("enjoying interval");
+        logger.info("[{}] enjoying interval", name);
     }
 
     public Intern callIntern(InternFactory internFactory) {
-        logger.info("Glass is empty, where's the intern?");
+        logger.info("[{}] Glass is empty, where's the intern?", name);
         return internFactory.createEntity();
     }
+
+    /**
+     * Call an intern from the intern desk, and wait until they fill the container.
+     *
+     * @param internDesk The intern desk
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     *
+     * @return The intern who filled the container
+     */
+    public Intern callIntern(InternDesk internDesk, LiquidContainer container, LiquidType liquidType) {
+        logger.info("[{}] Glass is empty, where's the intern?", name);
+        return internDesk.requestRefill(container, liquidType);
+    }
+
+    /**
+     * Borrow an intern from the intern pool to fill the container (waiting in line if all of them are busy).
+     *
+     * @param internPool The intern pool
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     *
+     * @return The intern who filled the container
+     */
+    public Intern callIntern(InternPool internPool, LiquidContainer container, LiquidType liquidType) {
+        logger.info("[{}] Glass is empty, where's the intern?", name);
+        return internPool.requestRefill(container, liquidType);
+    }
+
+    /**
+     * Ask the refill dispatcher for an intern, and wait until some intern fills the container in one of their trips.
+     *
+     * @param refillDispatcher The refill dispatcher
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent it is (higher is more urgent)
+     *
+     * @return The intern who filled the container
+     */
+    public Intern callIntern(RefillDispatcher refillDispatcher, LiquidContainer container, LiquidType liquidType,
+            int priority) {
+        logger.info("[{}] Glass is empty, where's the intern?", name);
+        return refillDispatcher.requestRefill(container, liquidType, priority);
+    }
+
+    /**
+     * Call an intern without waiting for them: the employee can do other things until the container is filled.
+     *
+     * @param refillService The service that sends the interns
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent it is (higher is more urgent)
+     *
+     * @return A future completed with the container, after it's filled
+     */
+    public CompletableFuture<LiquidContainer> callInternAsync(AsyncRefillService refillService,
+            LiquidContainer container, LiquidType liquidType, int priority) {
+        logger.info("[{}] Glass is empty, where's the intern? I'll keep working while they don't come", name);
+        return refillService.refillAsync(container, liquidType, priority);
+    }
 }
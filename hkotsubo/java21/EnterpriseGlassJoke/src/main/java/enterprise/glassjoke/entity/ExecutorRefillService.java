@@ -0,0 +1,46 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Asynchronous refills done by the interns of a pool, in the threads of an executor.
+ *
+ * Each request becomes a task of the executor (the priority is ignored, tasks run in the executor's order), so
+ * thousands of refills can be waiting in the executor's queue while a couple of threads handle them. The pool limits
+ * how many of them happen at the same time, and its metrics show how busy the interns are.
+ *
+ * The executor is not shut down by the service.
+ *
+ * @author hkotsubo
+ */
+public class ExecutorRefillService implements AsyncRefillService {
+
+    private final InternPool internPool;
+    private final Executor executor;
+
+    /**
+     * Create the service.
+     *
+     * @param internPool Where the interns come from
+     * @param executor Where the refills run
+     */
+    public ExecutorRefillService(InternPool internPool, Executor executor) {
+        this.internPool = Objects.requireNonNull(internPool, "intern pool can't be null");
+        this.executor = Objects.requireNonNull(executor, "executor can't be null");
+    }
+
+    @Override
+    public CompletableFuture<LiquidContainer> refillAsync(LiquidContainer container, LiquidType liquidType,
+            int priority) {
+        Objects.requireNonNull(container, "container can't be null");
+        Objects.requireNonNull(liquidType, "liquid type can't be null");
+        return CompletableFuture.supplyAsync(() -> {
+            internPool.requestRefill(container, liquidType);
+            return container;
+        }, executor);
+    }
+}
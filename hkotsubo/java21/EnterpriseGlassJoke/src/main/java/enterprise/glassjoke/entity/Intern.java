@@ -1,10 +1,12 @@
 package enterprise.glassjoke.entity;
 
 import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidDispenser;
 import enterprise.glassjoke.container.LiquidType;
 import enterprise.glassjoke.exception.NobodyCaresAboutYourNameException;
 import enterprise.glassjoke.thirsty.ThirstyFactorManager;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * An intern
@@ -13,6 +15,9 @@ import org.apache.logging.log4j.LogManager;
  */
 public class Intern extends OfficeEntity {
 
+    // all interns are the same, as far as the logs are concerned
+    private static final Logger LOGGER = LogManager.getLogger("intern");
+
     /**
      * Create an intern with a default name.
      *
@@ -21,7 +26,7 @@ public class Intern extends OfficeEntity {
      */
     public Intern() {
         super("intern", OfficeEntityType.INTERN);
-        this.logger = LogManager.getLogger("intern");
+        this.logger = LOGGER;
     }
 
     @Override
@@ -36,6 +41,19 @@ public class Intern extends OfficeEntity {
         container.fill(liquidType);
     }
 
+    /**
+     * Refill a shared dispenser (many interns can do it at the same time, and while people are drinking from it)
+     *
+     * @param dispenser The dispenser
+     *
+     * @return The amount added, in milliliters
+     */
+    public int refill(LiquidDispenser dispenser) {
+        int added = dispenser.refill();
+        logger.debug("Added {}ml of {} to the dispenser", added, dispenser.getLiquidType());
+        return added;
+    }
+
     @Override
     public void drink(LiquidContainer container, ThirstyFactorManager thirstyFactorManager) {
         // interns are allowed to drink a limited amount of liquid, regardless of the thirsty factors
@@ -0,0 +1,126 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The place where employees go to ask for an intern.
+ *
+ * Each intern of the desk runs their day in their own virtual thread, waiting for refill orders. An employee that
+ * places an order is blocked until some intern fills the liquid container - and as everybody runs in virtual threads,
+ * waiting for the intern is cheap.
+ *
+ * @author hkotsubo
+ */
+public class InternDesk implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(InternDesk.class.getSimpleName());
+
+    // order used to tell the interns they can go home
+    private static final RefillOrder GO_HOME = new RefillOrder(null, null);
+
+    private final BlockingQueue<RefillOrder> orders;
+    private final List<Thread> interns;
+
+    /**
+     * Create a desk and start the interns' virtual threads.
+     *
+     * @param internFactory The factory used to create the interns
+     * @param numberOfInterns How many interns are available, it must be positive
+     */
+    public InternDesk(InternFactory internFactory, int numberOfInterns) {
+        Objects.requireNonNull(internFactory, "intern factory can't be null");
+        if (numberOfInterns <= 0) {
+            throw new IllegalArgumentException("number of interns must be positive");
+        }
+        this.orders = new LinkedBlockingQueue<>();
+        this.interns = new ArrayList<>(numberOfInterns);
+        Thread.Builder builder = Thread.ofVirtual().name("intern-", 0);
+        for (int i = 0; i < numberOfInterns; i++) {
+            Intern intern = internFactory.createEntity();
+            this.interns.add(builder.start(() -> serve(intern)));
+        }
+    }
+
+    /**
+     * Ask an intern to fill the container, and wait until it's done.
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     *
+     * @return The intern who filled the container
+     */
+    public Intern requestRefill(LiquidContainer container, LiquidType liquidType) {
+        RefillOrder order = new RefillOrder(Objects.requireNonNull(container, "container can't be null"),
+                                            Objects.requireNonNull(liquidType, "liquid type can't be null"));
+        orders.add(order);
+        return order.done.join();
+    }
+
+    private void serve(Intern intern) {
+        try {
+            while (true) {
+                RefillOrder order = orders.take();
+                if (order == GO_HOME) {
+                    return;
+                }
+                try {
+                    intern.fill(order.container, order.liquidType);
+                    order.done.complete(intern);
+                } catch (RuntimeException e) {
+                    order.done.completeExceptionally(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send all interns home, and wait until they leave.
+     */
+    @Override
+    public void close() {
+        interns.forEach(intern -> orders.add(GO_HOME));
+        boolean interrupted = false;
+        for (Thread intern : interns) {
+            while (true) {
+                try {
+                    intern.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("{} interns went home", interns.size());
+    }
+
+    /**
+     * An employee asking for a container to be filled.
+     */
+    private static class RefillOrder {
+
+        final LiquidContainer container;
+        final LiquidType liquidType;
+        final CompletableFuture<Intern> done;
+
+        RefillOrder(LiquidContainer container, LiquidType liquidType) {
+            this.container = container;
+            this.liquidType = liquidType;
+            this.done = new CompletableFuture<>();
+        }
+    }
+}
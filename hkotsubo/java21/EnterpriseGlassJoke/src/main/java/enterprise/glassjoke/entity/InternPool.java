@@ -0,0 +1,178 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A fixed group of interns, shared by the whole office.
+ *
+ * Instead of summoning a brand new intern each time a glass is empty, employees borrow one of the pool's interns, who
+ * goes back to the pool after filling the container. When all interns are busy, the employee waits in line until one
+ * of them is free. With a fair pool, the line is first come, first served; otherwise, somebody who just arrived might
+ * get an intern before the ones who were already waiting (which is faster, but somebody might wait a lot).
+ *
+ * Unlike the {@link InternDesk}, the interns don't have their own threads: the employee's thread does everything, the
+ * pool only controls how many refills happen at the same time. The pool is thread-safe.
+ *
+ * The pool keeps track of how many employees had to wait, for how long, and how busy the interns were (see
+ * {@link #getMetrics()}), so the number of interns can be sized according to the office's needs.
+ *
+ * Use {@link InternPoolBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class InternPool {
+
+    private static final Logger logger = LogManager.getLogger(InternPool.class.getSimpleName());
+
+    private final int size;
+    private final Semaphore available;
+    private final ConcurrentLinkedQueue<Intern> idleInterns;
+
+    private final long createdAt;
+    private final LongAdder requests;
+    private final LongAdder waits;
+    private final LongAdder waitNanos;
+    private final AtomicLong maxWaitNanos;
+    private final AtomicInteger waiting;
+    private final AtomicInteger maxWaiting;
+    // the busy time is the sum of (release time - acquire time): acquiring subtracts the time, releasing adds it
+    private final LongAdder busyClock;
+    private final AtomicInteger busy;
+
+    InternPool(Iterable<Intern> interns, int size, boolean fair) {
+        this.size = size;
+        this.available = new Semaphore(size, fair);
+        this.idleInterns = new ConcurrentLinkedQueue<>();
+        interns.forEach(idleInterns::add);
+        this.createdAt = System.nanoTime();
+        this.requests = new LongAdder();
+        this.waits = new LongAdder();
+        this.waitNanos = new LongAdder();
+        this.maxWaitNanos = new AtomicLong();
+        this.waiting = new AtomicInteger();
+        this.maxWaiting = new AtomicInteger();
+        this.busyClock = new LongAdder();
+        this.busy = new AtomicInteger();
+    }
+
+    /**
+     * Borrow an intern, waiting until one is free
+     *
+     * @return The intern (give it back with {@link #release(Intern)})
+     */
+    public Intern acquire() {
+        requests.increment();
+        if (!tryAcquireNow()) {
+            int inLine = waiting.incrementAndGet();
+            maxWaiting.accumulateAndGet(inLine, Math::max);
+            long start = System.nanoTime();
+            available.acquireUninterruptibly();
+            long waited = System.nanoTime() - start;
+            waiting.decrementAndGet();
+            waits.increment();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        busy.incrementAndGet();
+        busyClock.add(-System.nanoTime());
+        return idleInterns.poll();
+    }
+
+    /**
+     * Take a permit if one is free, without waiting. Unlike {@link Semaphore#tryAcquire()}, a fair pool doesn't let the
+     * employee get ahead of the ones already waiting in line.
+     */
+    private boolean tryAcquireNow() {
+        if (!available.isFair()) {
+            return available.tryAcquire();
+        }
+        try {
+            return available.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // acquiring is uninterruptible, so the employee just waits in line (and the thread stays interrupted)
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Give an intern back to the pool
+     *
+     * @param intern The intern, who must have been borrowed from this pool
+     */
+    public void release(Intern intern) {
+        Objects.requireNonNull(intern, "intern can't be null");
+        if (busy.getAndUpdate(count -> count > 0 ? count - 1 : count) == 0) {
+            throw new IllegalStateException("Releasing an intern that wasn't borrowed");
+        }
+        busyClock.add(System.nanoTime());
+        idleInterns.add(intern);
+        available.release();
+    }
+
+    /**
+     * Borrow an intern to fill a container (waiting until one is free), and give them back right after that
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     *
+     * @return The intern who filled the container
+     */
+    public Intern requestRefill(LiquidContainer container, LiquidType liquidType) {
+        Objects.requireNonNull(container, "container can't be null");
+        Objects.requireNonNull(liquidType, "liquid type can't be null");
+        Intern intern = acquire();
+        try {
+            intern.fill(container, liquidType);
+        } finally {
+            release(intern);
+        }
+        return intern;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isFair() {
+        return available.isFair();
+    }
+
+    /**
+     * Get how many employees are waiting for an intern right now
+     *
+     * @return The length of the line
+     */
+    public int getQueueLength() {
+        return waiting.get();
+    }
+
+    /**
+     * Get the current metrics (they keep being updated, so each call returns a new snapshot)
+     *
+     * @return The metrics
+     */
+    public InternPoolMetrics getMetrics() {
+        long now = System.nanoTime();
+        long busyNanos = busyClock.sum() + busy.get() * now;
+        long elapsed = Math.max(1, now - createdAt);
+        double utilisation = Math.min(1.0, busyNanos / ((double) elapsed * size));
+        long waited = waits.sum();
+        InternPoolMetrics metrics = new InternPoolMetrics(size, requests.sum(), waited, waiting.get(), maxWaiting.get(),
+                                                          Duration.ofNanos(waited == 0 ? 0 : waitNanos.sum() / waited),
+                                                          Duration.ofNanos(maxWaitNanos.get()), utilisation);
+        logger.debug("Intern pool metrics: {}", metrics);
+        return metrics;
+    }
+}
@@ -0,0 +1,79 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.entity.factory.InternFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builder for intern pools.
+ *
+ * By default, the pool has one intern and is fair (employees get an intern in the order they asked).
+ *
+ * @author hkotsubo
+ */
+public class InternPoolBuilder {
+
+    private InternFactory internFactory;
+    private int size;
+    private boolean fair;
+
+    public InternPoolBuilder() {
+        this.internFactory = new InternFactory();
+        this.size = 1;
+        this.fair = true;
+    }
+
+    /**
+     * Set the factory used to hire the interns (all of them are hired when the pool is built)
+     *
+     * @param internFactory The intern factory
+     *
+     * @return This builder
+     */
+    public InternPoolBuilder withInternFactory(InternFactory internFactory) {
+        this.internFactory = Objects.requireNonNull(internFactory, "intern factory can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many interns the pool has
+     *
+     * @param size The number of interns, it must be positive
+     *
+     * @return This builder
+     */
+    public InternPoolBuilder withSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("number of interns must be positive");
+        }
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * Set if employees get an intern in the order they asked (fair), or if somebody who just arrived might go ahead of
+     * the ones who were waiting (which has a higher throughput)
+     *
+     * @param fair If the pool is fair
+     *
+     * @return This builder
+     */
+    public InternPoolBuilder withFairness(boolean fair) {
+        this.fair = fair;
+        return this;
+    }
+
+    /**
+     * Build the pool
+     *
+     * @return The intern pool
+     */
+    public InternPool build() {
+        List<Intern> interns = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            interns.add(internFactory.createEntity());
+        }
+        return new InternPool(interns, size, fair);
+    }
+}
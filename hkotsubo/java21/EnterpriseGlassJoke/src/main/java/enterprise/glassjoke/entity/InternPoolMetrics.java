@@ -0,0 +1,89 @@
+package enterprise.glassjoke.entity;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of how an intern pool is doing.
+ *
+ * If employees wait a lot, or the interns are busy almost all the time, it's time to hire more interns. If the
+ * utilisation is low and nobody waits, some interns can go back to college.
+ *
+ * Metrics are immutable.
+ *
+ * @author hkotsubo
+ */
+public class InternPoolMetrics {
+
+    private final int poolSize;
+    private final long requests;
+    private final long waitedRequests;
+    private final int queueLength;
+    private final int maxQueueLength;
+    private final Duration averageWait;
+    private final Duration maxWait;
+    private final double utilisation;
+
+    /**
+     * Create the metrics.
+     *
+     * @param poolSize How many interns the pool has
+     * @param requests How many times an intern was requested
+     * @param waitedRequests How many of those requests had to wait for an intern
+     * @param queueLength How many employees are waiting right now
+     * @param maxQueueLength The largest number of employees waiting at the same time
+     * @param averageWait The average time waited (only of the requests that had to wait)
+     * @param maxWait The longest time somebody waited
+     * @param utilisation The fraction of time the interns were busy, from 0 to 1
+     */
+    public InternPoolMetrics(int poolSize, long requests, long waitedRequests, int queueLength, int maxQueueLength,
+            Duration averageWait, Duration maxWait, double utilisation) {
+        this.poolSize = poolSize;
+        this.requests = requests;
+        this.waitedRequests = waitedRequests;
+        this.queueLength = queueLength;
+        this.maxQueueLength = maxQueueLength;
+        this.averageWait = averageWait;
+        this.maxWait = maxWait;
+        this.utilisation = utilisation;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getWaitedRequests() {
+        return waitedRequests;
+    }
+
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public Duration getAverageWait() {
+        return averageWait;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public double getUtilisation() {
+        return utilisation;
+    }
+
+    @Override
+    public String toString() {
+        return "InternPoolMetrics{" + "poolSize=" + poolSize + ", requests=" + requests + ", waitedRequests="
+                + waitedRequests + ", queueLength=" + queueLength + ", maxQueueLength=" + maxQueueLength
+                + ", averageWait=" + averageWait + ", maxWait=" + maxWait + ", utilisation="
+                + String.format("%.1f%%", utilisation * 100) + '}';
+    }
+}
@@ -0,0 +1,84 @@
+package enterprise.glassjoke.entity;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies (in nanoseconds) in logarithmic buckets, each power of two split in 16 linear sub-buckets, so the
+ * percentiles have an error of at most 1/16 (about 6%) no matter how large the values are. Recording is just an
+ * increment, without locks or allocation, and can be done by many threads at the same time.
+ *
+ * @author hkotsubo
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong max;
+
+    LatencyHistogram() {
+        this.counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+        this.max = new AtomicLong();
+    }
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the value below which a percentage of the values are (rounded up to the end of its bucket)
+     *
+     * @param percentile The percentage, from 0 to 100
+     *
+     * @return The value in nanoseconds (zero if nothing was recorded)
+     */
+    long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
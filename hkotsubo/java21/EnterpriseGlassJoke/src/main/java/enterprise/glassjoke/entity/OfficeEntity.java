@@ -34,21 +34,30 @@ public abstract class OfficeEntity {
     }
 
     private static boolean isValidName(String name) {
-        if (name == null || name.isBlank()) {
+        if (name == null) {
             return false;
         }
-        for (int i = 0; i < name.codePointCount(0, name.length()); i++) {
-            int c = name.codePointAt(i);
-            if (!Character.isLetter(c) && !Character.isSpaceChar(c)) {
-                return false;
+        // fast path: most names are plain ASCII, so a single pass (without code points) checks everything
+        boolean hasLetters = false;
+        for (int i = 0, length = name.length(); i < length; i++) {
+            char c = name.charAt(i);
+            if ((char) ((c | 0x20) - 'a') < 26) {
+                hasLetters = true;
+            } else if (c != ' ') {
+                return c >= 128 && isValidUnicodeName(name);
             }
         }
-        return true;
+        return hasLetters;
+    }
+
+    private static boolean isValidUnicodeName(String name) {
+        return !name.isBlank() && name.codePoints().allMatch(c -> Character.isLetter(c) || Character.isSpaceChar(c));
     }
 
     protected String name;
     protected OfficeEntityType type;
     protected boolean thirsty;
+    // shared by all entities of the same kind: the messages say who is logging
     protected Logger logger;
 
     /**
@@ -104,11 +113,21 @@ public abstract class OfficeEntity {
      */
     public boolean isThirsty() {
         if (thirsty) {
-            logger.info("I'm thirsty");
+            logger.info("[{}] I'm thirsty", name);
         }
         return thirsty;
     }
 
+    /**
+     * Get this entity's thirsty status, without complaining about it (unlike {@link #isThirsty()}, it doesn't log
+     * anything).
+     *
+     * @return true if it's thirsty, false otherwise
+     */
+    public boolean isQuietlyThirsty() {
+        return thirsty;
+    }
+
     /**
      * Change this entity's thirsty status
      *
@@ -157,7 +176,7 @@ public abstract class OfficeEntity {
      * @param time The time to chedk
      */
     public void whatShouldBeDoing(WorkingSchedule schedule, LocalTime time) {
-        logger.info("It's {}, what should I do?", time);
+        logger.info("[{}] It's {}, what should I do?", name, time);
         if (schedule.inWorkingHours(time)) {
             if (schedule.getInterval() != null && schedule.getInterval().contains(time)) {
                 this.enjoyInterval();
@@ -168,7 +187,7 @@ public abstract class OfficeEntity {
             this.thirsty = true;
         } else {
             // TODO: add implementation for leaving office, staying home, going to the gym, doing anything else not related to work
-            logger.info("Not my shift, bye!");
+            logger.info("[{}] Not my shift, bye!", name);
         }
     }
 }
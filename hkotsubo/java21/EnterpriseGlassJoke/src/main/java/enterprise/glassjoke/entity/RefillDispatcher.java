@@ -0,0 +1,274 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Takes refill requests from many employees and sends the interns to fill several containers in a single trip.
+ *
+ * Each intern runs in their own virtual thread: when there are requests waiting, the intern takes the most urgent ones
+ * (up to the maximum batch size), fills all of them, and comes back for more. If a maximum batch delay is set, the
+ * intern waits a little for more requests before leaving with an incomplete batch. Under load, lots of requests pile up
+ * while the interns are busy, so each trip takes a full batch, and there are far fewer trips than refills.
+ *
+ * The most urgent request is the one with the highest priority (such as the employee's work intensity) that has been
+ * waiting the longest: a request with priority {@code p} is served as if it had been waiting for {@code p} times the
+ * priority weight more than it actually did. Therefore, low-priority requests still get their turn, as they get older.
+ *
+ * The dispatcher keeps track of how long each request took, from the moment it was made until the container was filled
+ * (see {@link #getMetrics()}).
+ *
+ * Use {@link RefillDispatcherBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class RefillDispatcher implements AsyncRefillService, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(RefillDispatcher.class.getSimpleName());
+
+    // request used to tell the interns they can go home (it comes after all the others)
+    private static final RefillRequest GO_HOME = new RefillRequest(null, null, Long.MAX_VALUE, Long.MAX_VALUE, 0);
+
+    private final PriorityBlockingQueue<RefillRequest> requests;
+    private final List<Thread> interns;
+    private final int maxBatchSize;
+    private final long maxBatchDelayNanos;
+    private final Duration tripDuration;
+    private final long priorityWeightNanos;
+
+    private final AtomicLong sequence;
+    private final LongAdder trips;
+    private final LongAdder refills;
+    private final LatencyHistogram latencies;
+
+    // no more requests are accepted after close() is called, and no more are served after all interns went home
+    private volatile boolean closed;
+    private volatile boolean internsGone;
+
+    RefillDispatcher(InternFactory internFactory, int numberOfInterns, int maxBatchSize, Duration maxBatchDelay,
+            Duration tripDuration, Duration priorityWeight) {
+        this.requests = new PriorityBlockingQueue<>(64, Comparator.comparingLong((RefillRequest r) -> r.urgency)
+                                                    .thenComparingLong(r -> r.sequence));
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayNanos = maxBatchDelay.toNanos();
+        this.tripDuration = tripDuration;
+        this.priorityWeightNanos = priorityWeight.toNanos();
+        this.sequence = new AtomicLong();
+        this.trips = new LongAdder();
+        this.refills = new LongAdder();
+        this.latencies = new LatencyHistogram();
+        this.interns = new ArrayList<>(numberOfInterns);
+        Thread.Builder builder = Thread.ofVirtual().name("dispatched-intern-", 0);
+        for (int i = 0; i < numberOfInterns; i++) {
+            Intern intern = internFactory.createEntity();
+            this.interns.add(builder.start(() -> serve(intern)));
+        }
+    }
+
+    /**
+     * Ask for a container to be filled. It returns right away, the container is filled in one of the next trips.
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent the request is (higher is more urgent, zero is the usual)
+     *
+     * @return A future completed with the intern who filled the container (or completed exceptionally, if the
+     * dispatcher was closed before any intern could take the request)
+     *
+     * @throws IllegalStateException If the dispatcher is closed
+     */
+    public CompletableFuture<Intern> submit(LiquidContainer container, LiquidType liquidType, int priority) {
+        Objects.requireNonNull(container, "container can't be null");
+        Objects.requireNonNull(liquidType, "liquid type can't be null");
+        if (closed) {
+            throw new IllegalStateException("The refill dispatcher is closed");
+        }
+        long now = System.nanoTime();
+        RefillRequest request = new RefillRequest(container, liquidType, now, now - priority * priorityWeightNanos,
+                                                  sequence.getAndIncrement());
+        requests.add(request);
+        // if it was closed in the meantime and the interns already left, nobody will take it
+        if (internsGone && requests.remove(request)) {
+            request.done.completeExceptionally(new IllegalStateException("The refill dispatcher is closed"));
+        }
+        return request.done;
+    }
+
+    /**
+     * Ask for a container to be filled, without waiting (the same of {@link #submit}, but the future is completed
+     * with the container)
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent the request is (higher is more urgent, zero is the usual)
+     *
+     * @return A future completed with the container, after it's filled
+     */
+    @Override
+    public CompletableFuture<LiquidContainer> refillAsync(LiquidContainer container, LiquidType liquidType,
+            int priority) {
+        return submit(container, liquidType, priority).thenApply(intern -> container);
+    }
+
+    /**
+     * Ask for a container to be filled, and wait until it's done
+     *
+     * @param container The container to be filled
+     * @param liquidType The liquid type
+     * @param priority How urgent the request is (higher is more urgent, zero is the usual)
+     *
+     * @return The intern who filled the container
+     *
+     * @throws IllegalStateException If the dispatcher is closed
+     */
+    public Intern requestRefill(LiquidContainer container, LiquidType liquidType, int priority) {
+        return submit(container, liquidType, priority).join();
+    }
+
+    /**
+     * Get how many requests are waiting for an intern
+     *
+     * @return The number of requests
+     */
+    public int getPendingRequests() {
+        // the interns' "go home" requests don't count
+        return (int) requests.stream().filter(request -> request != GO_HOME).count();
+    }
+
+    /**
+     * Get the current metrics (they keep being updated, so each call returns a new snapshot)
+     *
+     * @return The metrics
+     */
+    public RefillDispatcherMetrics getMetrics() {
+        return new RefillDispatcherMetrics(interns.size(), trips.sum(), refills.sum(),
+                                           Duration.ofNanos(latencies.getPercentile(50)),
+                                           Duration.ofNanos(latencies.getPercentile(90)),
+                                           Duration.ofNanos(latencies.getPercentile(99)),
+                                           Duration.ofNanos(latencies.getMax()));
+    }
+
+    private void serve(Intern intern) {
+        List<RefillRequest> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                RefillRequest first = requests.take();
+                if (first == GO_HOME) {
+                    return;
+                }
+                batch.add(first);
+                collectBatch(batch);
+                if (!tripDuration.isZero()) {
+                    Thread.sleep(tripDuration);
+                }
+                for (RefillRequest request : batch) {
+                    try {
+                        intern.fill(request.container, request.liquidType);
+                        latencies.record(System.nanoTime() - request.createdAt);
+                        request.done.complete(intern);
+                    } catch (RuntimeException e) {
+                        request.done.completeExceptionally(e);
+                    }
+                }
+                trips.increment();
+                refills.add(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            batch.forEach(request -> request.done.completeExceptionally(e));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take more requests for the same trip, waiting for them until the maximum delay
+     */
+    private void collectBatch(List<RefillRequest> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            RefillRequest next = remaining > 0 ? requests.poll(remaining, TimeUnit.NANOSECONDS) : requests.poll();
+            if (next == null) {
+                return;
+            }
+            if (next == GO_HOME) {
+                // it's not time to go home yet, this trip must be done first
+                requests.add(next);
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Send all interns home (after they handle the requests already made), and wait until they leave. New requests are
+     * rejected, and the ones made while the interns were leaving (if any) are completed exceptionally.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        interns.forEach(intern -> requests.add(GO_HOME));
+        boolean interrupted = false;
+        for (Thread intern : interns) {
+            while (true) {
+                try {
+                    intern.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        internsGone = true;
+        RefillRequest request;
+        while ((request = requests.poll()) != null) {
+            if (request != GO_HOME) {
+                request.done.completeExceptionally(new IllegalStateException("The refill dispatcher is closed"));
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("{} interns went home: {}", interns.size(), getMetrics());
+    }
+
+    /**
+     * An employee asking for a container to be filled.
+     */
+    private static class RefillRequest {
+
+        final LiquidContainer container;
+        final LiquidType liquidType;
+        final long createdAt;
+        // the smallest is the most urgent
+        final long urgency;
+        // tie-breaker, so requests with the same urgency are handled in the order they were made
+        final long sequence;
+        final CompletableFuture<Intern> done;
+
+        RefillRequest(LiquidContainer container, LiquidType liquidType, long createdAt, long urgency, long sequence) {
+            this.container = container;
+            this.liquidType = liquidType;
+            this.createdAt = createdAt;
+            this.urgency = urgency;
+            this.sequence = sequence;
+            this.done = new CompletableFuture<>();
+        }
+    }
+}
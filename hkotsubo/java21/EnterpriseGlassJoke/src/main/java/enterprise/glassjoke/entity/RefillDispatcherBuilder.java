@@ -0,0 +1,132 @@
+package enterprise.glassjoke.entity;
+
+import enterprise.glassjoke.entity.factory.InternFactory;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Builder for refill dispatchers.
+ *
+ * By default, there's one intern, who fills up to 8 containers per trip without waiting for more requests, the trips
+ * take no time, and each point of priority counts as 1 microsecond of waiting (so the priorities used by the
+ * simulators, which are thirsty levels of a few hundred points, are worth less than a millisecond, and low-priority
+ * requests aren't left behind for long).
+ *
+ * @author hkotsubo
+ */
+public class RefillDispatcherBuilder {
+
+    private InternFactory internFactory;
+    private int numberOfInterns;
+    private int maxBatchSize;
+    private Duration maxBatchDelay;
+    private Duration tripDuration;
+    private Duration priorityWeight;
+
+    public RefillDispatcherBuilder() {
+        this.internFactory = new InternFactory();
+        this.numberOfInterns = 1;
+        this.maxBatchSize = 8;
+        this.maxBatchDelay = Duration.ZERO;
+        this.tripDuration = Duration.ZERO;
+        this.priorityWeight = Duration.ofNanos(1_000);
+    }
+
+    /**
+     * Set the factory used to hire the interns
+     *
+     * @param internFactory The intern factory
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withInternFactory(InternFactory internFactory) {
+        this.internFactory = Objects.requireNonNull(internFactory, "intern factory can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many interns make the trips
+     *
+     * @param numberOfInterns The number of interns, it must be positive
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withNumberOfInterns(int numberOfInterns) {
+        if (numberOfInterns <= 0) {
+            throw new IllegalArgumentException("number of interns must be positive");
+        }
+        this.numberOfInterns = numberOfInterns;
+        return this;
+    }
+
+    /**
+     * Set how many containers an intern can fill in a single trip
+     *
+     * @param maxBatchSize The maximum batch size, it must be positive
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * Set how long an intern waits for more requests before leaving with an incomplete batch (larger batches, but
+     * higher latency)
+     *
+     * @param maxBatchDelay The maximum delay
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withMaxBatchDelay(Duration maxBatchDelay) {
+        this.maxBatchDelay = requireNotNegative(maxBatchDelay, "max batch delay");
+        return this;
+    }
+
+    /**
+     * Set how long each trip takes, regardless of how many containers are filled (the interns really wait that long)
+     *
+     * @param tripDuration The trip duration
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withTripDuration(Duration tripDuration) {
+        this.tripDuration = requireNotNegative(tripDuration, "trip duration");
+        return this;
+    }
+
+    /**
+     * Set how much waiting each point of priority is worth: a request with priority {@code p} goes ahead of the ones
+     * made up to {@code p * priorityWeight} earlier with no priority
+     *
+     * @param priorityWeight The priority weight (zero means that requests are handled in the order they're made)
+     *
+     * @return This builder
+     */
+    public RefillDispatcherBuilder withPriorityWeight(Duration priorityWeight) {
+        this.priorityWeight = requireNotNegative(priorityWeight, "priority weight");
+        return this;
+    }
+
+    private static Duration requireNotNegative(Duration duration, String name) {
+        Objects.requireNonNull(duration, name + " can't be null");
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException(name + " can't be negative");
+        }
+        return duration;
+    }
+
+    /**
+     * Build the dispatcher (the interns start working right away)
+     *
+     * @return The refill dispatcher
+     */
+    public RefillDispatcher build() {
+        return new RefillDispatcher(internFactory, numberOfInterns, maxBatchSize, maxBatchDelay, tripDuration,
+                                    priorityWeight);
+    }
+}
@@ -0,0 +1,90 @@
+package enterprise.glassjoke.entity;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of how a refill dispatcher is doing.
+ *
+ * The latency of a refill is the time between the request and the moment the container is filled. Percentiles are
+ * approximated (with an error of about 6%).
+ *
+ * Metrics are immutable.
+ *
+ * @author hkotsubo
+ */
+public class RefillDispatcherMetrics {
+
+    private final int interns;
+    private final long trips;
+    private final long refills;
+    private final Duration latencyP50;
+    private final Duration latencyP90;
+    private final Duration latencyP99;
+    private final Duration maxLatency;
+
+    /**
+     * Create the metrics.
+     *
+     * @param interns How many interns the dispatcher has
+     * @param trips How many trips the interns made
+     * @param refills How many containers were filled
+     * @param latencyP50 The median latency
+     * @param latencyP90 The 90th percentile of the latency
+     * @param latencyP99 The 99th percentile of the latency
+     * @param maxLatency The largest latency
+     */
+    public RefillDispatcherMetrics(int interns, long trips, long refills, Duration latencyP50, Duration latencyP90,
+            Duration latencyP99, Duration maxLatency) {
+        this.interns = interns;
+        this.trips = trips;
+        this.refills = refills;
+        this.latencyP50 = latencyP50;
+        this.latencyP90 = latencyP90;
+        this.latencyP99 = latencyP99;
+        this.maxLatency = maxLatency;
+    }
+
+    public int getInterns() {
+        return interns;
+    }
+
+    public long getTrips() {
+        return trips;
+    }
+
+    public long getRefills() {
+        return refills;
+    }
+
+    /**
+     * Get how many containers were filled in each trip, on average
+     *
+     * @return The average batch size (zero if there were no trips)
+     */
+    public double getAverageBatchSize() {
+        return trips == 0 ? 0 : refills / (double) trips;
+    }
+
+    public Duration getLatencyP50() {
+        return latencyP50;
+    }
+
+    public Duration getLatencyP90() {
+        return latencyP90;
+    }
+
+    public Duration getLatencyP99() {
+        return latencyP99;
+    }
+
+    public Duration getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "RefillDispatcherMetrics{" + "interns=" + interns + ", trips=" + trips + ", refills=" + refills
+                + ", averageBatchSize=" + String.format("%.2f", getAverageBatchSize()) + ", latencyP50=" + latencyP50
+                + ", latencyP90=" + latencyP90 + ", latencyP99=" + latencyP99 + ", maxLatency=" + maxLatency + '}';
+    }
+}
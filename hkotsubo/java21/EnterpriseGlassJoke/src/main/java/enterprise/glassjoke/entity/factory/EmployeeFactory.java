@@ -1,7 +1,14 @@
 package enterprise.glassjoke.entity.factory;
 
-import enterprise.glassjoke.repository.NamesRepository;
 import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.repository.NamesRepository;
+import enterprise.glassjoke.repository.UniqueNameGenerator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 /**
  * Factory to create new instances of an employee
@@ -10,6 +17,44 @@ import enterprise.glassjoke.entity.Employee;
  */
 public class EmployeeFactory implements GenericOfficeEntityFactory<Employee> {
 
+    // generator used to choose random names (null means "use the current thread's generator")
+    private final RandomGenerator rand;
+
+    // if set, names come from it and are never repeated
+    private final UniqueNameGenerator nameGenerator;
+
+    /**
+     * Create a factory that chooses random names with the current thread's random generator.
+     */
+    public EmployeeFactory() {
+        this.rand = null;
+        this.nameGenerator = null;
+    }
+
+    /**
+     * Create a factory that chooses random names with the specified generator, so the names are reproducible.
+     *
+     * The factory is not thread-safe if the generator isn't.
+     *
+     * @param rand The random generator
+     */
+    public EmployeeFactory(RandomGenerator rand) {
+        this.rand = Objects.requireNonNull(rand, "random generator can't be null");
+        this.nameGenerator = null;
+    }
+
+    /**
+     * Create a factory that gives each employee a unique name.
+     *
+     * The factory is thread-safe.
+     *
+     * @param nameGenerator The name generator
+     */
+    public EmployeeFactory(UniqueNameGenerator nameGenerator) {
+        this.rand = null;
+        this.nameGenerator = Objects.requireNonNull(nameGenerator, "name generator can't be null");
+    }
+
     /**
      * Get an instance of this factory.
      *
@@ -21,13 +66,47 @@ public class EmployeeFactory implements GenericOfficeEntityFactory<Employee> {
     }
 
     /**
-     * Create an employee with a random name
+     * Create an employee with a random name (or a unique one, if the factory has a name generator)
      *
      * @return The new employee
      */
     @Override
     public Employee createEntity() {
-        return new Employee(NamesRepository.getRandomName());
+        if (nameGenerator != null) {
+            return new Employee(nameGenerator.nextName());
+        }
+        return new Employee(rand == null ? NamesRepository.getRandomName() : NamesRepository.getRandomName(rand));
+    }
+
+    /**
+     * Create many employees at once, in parallel (unless the factory has its own random generator, which isn't
+     * thread-safe, and the names must come in the same order of {@link #createEntity()})
+     *
+     * With a name generator, the employees get consecutive names of the generator, in order, no matter how many
+     * threads create them.
+     *
+     * @param count How many employees
+     *
+     * @return The new employees (the list can't be modified)
+     */
+    @Override
+    public List<Employee> createEntities(int count) {
+        if (rand != null) {
+            return GenericOfficeEntityFactory.super.createEntities(count);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+        Employee[] employees = new Employee[count];
+        if (nameGenerator != null) {
+            long firstId = nameGenerator.reserve(count);
+            IntStream.range(0, count).parallel()
+                     .forEach(i -> employees[i] = new Employee(nameGenerator.getName(firstId + i)));
+        } else {
+            IntStream.range(0, count).parallel()
+                     .forEach(i -> employees[i] = new Employee(NamesRepository.getRandomName()));
+        }
+        return Collections.unmodifiableList(Arrays.asList(employees));
     }
 
     /**
@@ -1,6 +1,10 @@
 package enterprise.glassjoke.entity.factory;
 
 import enterprise.glassjoke.entity.OfficeEntity;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface for all factories that create office entities.
@@ -33,4 +37,35 @@ public interface GenericOfficeEntityFactory<T extends OfficeEntity> {
      * @return The new entity
      */
     public T createEntity(String name);
+
+    /**
+     * Create many entities with random names at once.
+     *
+     * The default implementation just creates one at a time, factories can do it faster (e.g. in parallel).
+     *
+     * @param count How many entities
+     *
+     * @return The new entities (the list can't be modified)
+     */
+    public default List<T> createEntities(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+        List<T> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entities.add(createEntity());
+        }
+        return Collections.unmodifiableList(entities);
+    }
+
+    /**
+     * Get an endless stream of entities with random names (use {@code limit} to choose how many).
+     *
+     * It can be parallel if the factory is thread-safe.
+     *
+     * @return The stream
+     */
+    public default Stream<T> streamEntities() {
+        return Stream.generate(this::createEntity);
+    }
 }
@@ -1,6 +1,9 @@
 package enterprise.glassjoke.entity.factory;
 
 import enterprise.glassjoke.entity.Intern;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -34,6 +37,24 @@ public class InternFactory implements GenericOfficeEntityFactory<Intern> {
         return new Intern();
     }
 
+    /**
+     * Summon many interns at once (they're all the same, so there's no need to do it one by one)
+     *
+     * @param count How many interns
+     *
+     * @return The interns (the list can't be modified)
+     */
+    @Override
+    public List<Intern> createEntities(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+        logger.info("Summoning {} interns...", count);
+        Intern[] interns = new Intern[count];
+        Arrays.parallelSetAll(interns, i -> new Intern());
+        return Collections.unmodifiableList(Arrays.asList(interns));
+    }
+
     /**
      * It should create an intern with the specified name, but actually it always throw an exception because nobody
      * cares about intern's names.
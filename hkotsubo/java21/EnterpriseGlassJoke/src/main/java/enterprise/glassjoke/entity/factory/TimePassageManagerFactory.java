@@ -1,6 +1,9 @@
 package enterprise.glassjoke.entity.factory;
 
+import enterprise.glassjoke.time.AdaptiveTimePassageManager;
+import enterprise.glassjoke.time.FixedStepTimePassageManager;
 import enterprise.glassjoke.time.TimePassageManager;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalUnit;
@@ -35,7 +38,8 @@ public class TimePassageManagerFactory {
     }
 
     /**
-     * Create a time passage manager that adds a specific amount of time to the current date/time
+     * Create a time passage manager that adds a specific amount of time to the current date/time (see
+     * {@link FixedStepTimePassageManager})
      *
      * @param <T> The type of the date/time object returned by the manager
      *
@@ -45,6 +49,22 @@ public class TimePassageManagerFactory {
      * @return The time passage manager
      */
     public <T extends Temporal> TimePassageManager<T> createTimePassageManager(long amount, TemporalUnit unit) {
-        return t -> (T) t.plus(amount, unit);
+        return new FixedStepTimePassageManager<>(amount, unit);
+    }
+
+    /**
+     * Create a time passage manager whose steps grow during quiet stretches, and shrink near interesting moments (see
+     * {@link AdaptiveTimePassageManager}).
+     *
+     * @param fineStep The smallest step (the resolution of the simulation)
+     * @param maxStep The largest step
+     * @param tolerance How much the thirsty level can change in a single step (relative to its value at the beginning
+     * of the step), before the step ends
+     *
+     * @return The time passage manager
+     */
+    public AdaptiveTimePassageManager createAdaptiveTimePassageManager(Duration fineStep, Duration maxStep,
+            double tolerance) {
+        return new AdaptiveTimePassageManager(fineStep, maxStep, tolerance);
     }
 }
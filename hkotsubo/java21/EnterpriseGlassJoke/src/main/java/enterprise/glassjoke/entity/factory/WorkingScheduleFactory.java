@@ -2,8 +2,12 @@ package enterprise.glassjoke.entity.factory;
 
 import enterprise.glassjoke.time.TimeProvider;
 import enterprise.glassjoke.work.Interval;
+import enterprise.glassjoke.work.WorkingCalendar;
+import enterprise.glassjoke.work.WorkingCalendarBuilder;
 import enterprise.glassjoke.work.WorkingSchedule;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 
 /**
  * Factory to create working schedules.
@@ -64,4 +68,23 @@ public class WorkingScheduleFactory {
     public WorkingSchedule createSchedule(LocalTime start, LocalTime end, Interval interval) {
         return new WorkingSchedule(start, end, interval);
     }
+
+    /**
+     * Create a calendar with a nine-to-five schedule from monday to friday.
+     *
+     * @param interval The interval - use null for schedules without intervals
+     * @param firstDay The first day of the calendar's period
+     * @param lastDay The last day of the calendar's period (inclusive)
+     * @param holidays The holidays in the period
+     *
+     * @return The working calendar
+     */
+    public WorkingCalendar createNineToFiveCalendar(Interval interval, LocalDate firstDay, LocalDate lastDay,
+            Collection<LocalDate> holidays) {
+        return new WorkingCalendarBuilder(this.timeProvider)
+                .withPeriod(firstDay, lastDay)
+                .withWeekdaysSchedule(createNineToFiveSchedule(interval))
+                .addHolidays(holidays)
+                .build();
+    }
 }
@@ -0,0 +1,110 @@
+package enterprise.glassjoke.event;
+
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Something that happened to an employee during a simulation.
+ *
+ * All events have the time they happened and the employee's index in the office (the order in which they were added to
+ * the {@link enterprise.glassjoke.work.OfficeSimulatorBuilder}).
+ *
+ * @author hkotsubo
+ */
+public sealed interface SimulationEvent {
+
+    /**
+     * When it happened
+     *
+     * @return The time of the event
+     */
+    LocalTime time();
+
+    /**
+     * Who it happened to
+     *
+     * @return The employee's index in the office
+     */
+    int member();
+
+    /**
+     * The employee arrived at the office to start their working day. It has everything needed to know how the employee
+     * is at this moment (so replaying a day doesn't depend on the previous ones).
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     * @param capacity The capacity of the liquid container
+     * @param containerType The type of the liquid container
+     * @param contents The contents of the liquid container
+     * @param celsius The room temperature (NaN if the employee isn't affected by it)
+     * @param workIntensity The work intensity (Integer.MIN_VALUE if the employee isn't affected by it)
+     */
+    record Arrived(LocalTime time, int member, int capacity, LiquidContainerType containerType,
+            Map<LiquidType, Integer> contents, double celsius, int workIntensity) implements SimulationEvent {
+
+        public Arrived {
+            contents = Map.copyOf(contents);
+        }
+    }
+
+    /**
+     * The employee drank from their liquid container (the amount might be zero if the container was empty).
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     * @param milliLiters How much was consumed
+     */
+    record Consumed(LocalTime time, int member, int milliLiters) implements SimulationEvent {
+    }
+
+    /**
+     * The employee called an intern, because their liquid container was empty.
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     */
+    record InternSummoned(LocalTime time, int member) implements SimulationEvent {
+    }
+
+    /**
+     * The intern filled the employee's liquid container.
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     * @param liquidType The liquid type
+     * @param milliLiters How much was added
+     */
+    record Filled(LocalTime time, int member, LiquidType liquidType, int milliLiters) implements SimulationEvent {
+    }
+
+    /**
+     * The thirsty factors' conditions changed.
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     * @param celsius The new room temperature (NaN if the employee isn't affected by it)
+     * @param workIntensity The new work intensity (Integer.MIN_VALUE if the employee isn't affected by it)
+     */
+    record ConditionsChanged(LocalTime time, int member, double celsius, int workIntensity) implements SimulationEvent {
+    }
+
+    /**
+     * The employee started to enjoy the interval of their working schedule.
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     */
+    record IntervalEntered(LocalTime time, int member) implements SimulationEvent {
+    }
+
+    /**
+     * The interval is over, and the employee got back to work.
+     *
+     * @param time When it happened
+     * @param member The employee's index
+     */
+    record IntervalLeft(LocalTime time, int member) implements SimulationEvent {
+    }
+}
@@ -0,0 +1,115 @@
+package enterprise.glassjoke.event;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Publishes the simulation events as a reactive stream, so other components can follow what happens without parsing
+ * the logs.
+ *
+ * The publisher is a simulation listener (register it with
+ * {@link enterprise.glassjoke.work.OfficeSimulatorBuilder#withSimulationListener}), and each subscriber receives the
+ * events in its own executor, only when it asks for them (through {@link Flow.Subscription#request(long)}). Events not
+ * requested yet wait in a buffer of limited size for each subscriber. When a buffer is full, the overflow policy
+ * decides what happens: the simulation waits until there's room (so a slow subscriber slows down the simulation, but
+ * nothing is lost), or the event is dropped for that subscriber.
+ *
+ * Events published when there are no subscribers are lost. Close the publisher at the end of the simulation, so the
+ * subscribers know there are no more events.
+ *
+ * Use {@link SimulationEventPublisherBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class SimulationEventPublisher implements SimulationListener, Flow.Publisher<SimulationEvent>, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(SimulationEventPublisher.class.getSimpleName());
+
+    /**
+     * What happens when a subscriber's buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The simulation waits until the subscriber consumes some events.
+         */
+        BLOCK,
+        /**
+         * The event is dropped for that subscriber (the other subscribers still receive it).
+         */
+        DROP
+    }
+
+    private final SubmissionPublisher<SimulationEvent> publisher;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder droppedEvents;
+
+    SimulationEventPublisher(Executor executor, int bufferSize, OverflowPolicy overflowPolicy) {
+        this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.droppedEvents = new LongAdder();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SimulationEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Publish an event to all subscribers, according to the overflow policy
+     *
+     * @param event The event
+     */
+    @Override
+    public void onEvent(SimulationEvent event) {
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            publisher.submit(event);
+        } else {
+            publisher.offer(event, (subscriber, dropped) -> {
+                droppedEvents.increment();
+                return false;
+            });
+        }
+    }
+
+    /**
+     * Get how many events were dropped because some subscriber's buffer was full (each subscriber counts separately)
+     *
+     * @return The number of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Get the largest number of events waiting in a subscriber's buffer
+     *
+     * @return The number of events waiting
+     */
+    public int getMaxBufferedEvents() {
+        return publisher.estimateMaximumLag();
+    }
+
+    /**
+     * Get how many subscribers are still receiving events (the ones that cancelled their subscription don't count)
+     *
+     * @return The number of subscribers
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * Tell the subscribers there are no more events (after they consume the ones already buffered)
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        if (droppedEvents.sum() > 0) {
+            logger.warn("{} events were dropped because the subscribers were too slow", droppedEvents.sum());
+        }
+    }
+}
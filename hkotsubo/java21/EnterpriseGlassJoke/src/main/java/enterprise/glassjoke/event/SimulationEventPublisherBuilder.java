@@ -0,0 +1,74 @@
+package enterprise.glassjoke.event;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builder for simulation event publishers.
+ *
+ * By default, each subscriber has a buffer of 1024 events and runs in the common fork-join pool, and the simulation
+ * waits when a buffer is full.
+ *
+ * @author hkotsubo
+ */
+public class SimulationEventPublisherBuilder {
+
+    private Executor executor;
+    private int bufferSize;
+    private SimulationEventPublisher.OverflowPolicy overflowPolicy;
+
+    public SimulationEventPublisherBuilder() {
+        this.executor = ForkJoinPool.commonPool();
+        this.bufferSize = 1024;
+        this.overflowPolicy = SimulationEventPublisher.OverflowPolicy.BLOCK;
+    }
+
+    /**
+     * Set where the subscribers receive the events
+     *
+     * @param executor The executor
+     *
+     * @return This builder
+     */
+    public SimulationEventPublisherBuilder withExecutor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor can't be null");
+        return this;
+    }
+
+    /**
+     * Set the maximum number of events waiting for each subscriber (it's rounded up to a power of two)
+     *
+     * @param bufferSize The buffer size
+     *
+     * @return This builder
+     */
+    public SimulationEventPublisherBuilder withBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Set what happens when a subscriber's buffer is full
+     *
+     * @param overflowPolicy The overflow policy
+     *
+     * @return This builder
+     */
+    public SimulationEventPublisherBuilder withOverflowPolicy(SimulationEventPublisher.OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflow policy can't be null");
+        return this;
+    }
+
+    /**
+     * Build the publisher
+     *
+     * @return The simulation event publisher
+     */
+    public SimulationEventPublisher build() {
+        return new SimulationEventPublisher(executor, bufferSize, overflowPolicy);
+    }
+}
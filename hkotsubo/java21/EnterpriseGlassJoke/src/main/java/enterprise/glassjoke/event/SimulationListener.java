@@ -0,0 +1,57 @@
+package enterprise.glassjoke.event;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Someone who wants to know what happens during a simulation.
+ *
+ * Employees might be simulated by many threads at the same time, so listeners must be thread-safe. Events of the same
+ * employee are always notified in chronological order, but there's no order between different employees.
+ *
+ * @author hkotsubo
+ */
+@FunctionalInterface
+public interface SimulationListener {
+
+    /**
+     * Called when something happens to an employee
+     *
+     * @param event The event
+     */
+    void onEvent(SimulationEvent event);
+
+    /**
+     * Called by multi-day simulators before each working day (simulators of a single day don't know the date, so they
+     * don't call it). The default implementation does nothing.
+     *
+     * @param day The working day
+     */
+    default void workingDayStarted(LocalDate day) {
+    }
+
+    /**
+     * Create a listener that tells this listener and then another one
+     *
+     * @param other The other listener
+     *
+     * @return The combined listener
+     */
+    default SimulationListener andThen(SimulationListener other) {
+        Objects.requireNonNull(other, "listener can't be null");
+        SimulationListener first = this;
+        return new SimulationListener() {
+            @Override
+            public void onEvent(SimulationEvent event) {
+                first.onEvent(event);
+                other.onEvent(event);
+            }
+
+            @Override
+            public void workingDayStarted(LocalDate day) {
+                first.workingDayStarted(day);
+                other.workingDayStarted(day);
+            }
+        };
+    }
+}
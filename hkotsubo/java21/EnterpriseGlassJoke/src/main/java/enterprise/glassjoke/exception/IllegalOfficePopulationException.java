@@ -0,0 +1,24 @@
+package enterprise.glassjoke.exception;
+
+/**
+ * Exception thrown when an office population can't be simulated (e.g. two employees sharing the same glass).
+ *
+ * @author hkotsubo
+ */
+public class IllegalOfficePopulationException extends EnterpriseGlassJokeBaseException {
+
+    public IllegalOfficePopulationException() {
+    }
+
+    public IllegalOfficePopulationException(String message) {
+        super(message);
+    }
+
+    public IllegalOfficePopulationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public IllegalOfficePopulationException(Throwable cause) {
+        super(cause);
+    }
+}
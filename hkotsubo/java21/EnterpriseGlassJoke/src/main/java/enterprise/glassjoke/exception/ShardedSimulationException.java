@@ -0,0 +1,24 @@
+package enterprise.glassjoke.exception;
+
+/**
+ * Exception thrown when a sharded simulation fails (a worker process dies, the communication fails, etc).
+ *
+ * @author hkotsubo
+ */
+public class ShardedSimulationException extends EnterpriseGlassJokeBaseException {
+
+    public ShardedSimulationException() {
+    }
+
+    public ShardedSimulationException(String message) {
+        super(message);
+    }
+
+    public ShardedSimulationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ShardedSimulationException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,24 @@
+package enterprise.glassjoke.exception;
+
+/**
+ * Exception thrown when a simulation checkpoint can't be saved or restored.
+ *
+ * @author hkotsubo
+ */
+public class SimulationCheckpointException extends EnterpriseGlassJokeBaseException {
+
+    public SimulationCheckpointException() {
+    }
+
+    public SimulationCheckpointException(String message) {
+        super(message);
+    }
+
+    public SimulationCheckpointException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SimulationCheckpointException(Throwable cause) {
+        super(cause);
+    }
+}
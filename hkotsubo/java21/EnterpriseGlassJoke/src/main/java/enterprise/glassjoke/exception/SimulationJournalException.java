@@ -0,0 +1,24 @@
+package enterprise.glassjoke.exception;
+
+/**
+ * Exception thrown when the simulation journal can't be written or read.
+ *
+ * @author hkotsubo
+ */
+public class SimulationJournalException extends EnterpriseGlassJokeBaseException {
+
+    public SimulationJournalException() {
+    }
+
+    public SimulationJournalException(String message) {
+        super(message);
+    }
+
+    public SimulationJournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SimulationJournalException(Throwable cause) {
+        super(cause);
+    }
+}
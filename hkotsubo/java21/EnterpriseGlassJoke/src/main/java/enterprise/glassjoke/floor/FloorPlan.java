@@ -0,0 +1,283 @@
+package enterprise.glassjoke.floor;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.OfficeEntity;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Where everybody is in the office: employees at their desks (with their containers), interns wandering around, and
+ * the water sources.
+ *
+ * The free interns are kept in a spatial index (see {@link SpatialGrid}), so the nearest one to a desk is found
+ * without looking at all of them, even with hundreds of thousands of entities on the floor. The index is updated as
+ * the interns move: when an intern is claimed for a refill, they leave the index, and come back at the desk where they
+ * delivered the container.
+ *
+ * The floor plan is thread-safe, with a single lock for everything: all routing (finding, claiming and releasing
+ * interns, and finding water sources) is serialized, no matter where on the floor it happens. The operations under the
+ * lock are short (a few dozen grid cells are visited, and nobody walks while holding it), so it's only a bottleneck
+ * with lots of threads asking for interns all the time. The lock isn't split by region because the nearest free intern
+ * might be in any region, and taking them must be atomic (otherwise two employees could get the same intern).
+ *
+ * Use {@link FloorPlanBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class FloorPlan {
+
+    private static final Logger logger = LogManager.getLogger(FloorPlan.class.getSimpleName());
+
+    private final double width;
+    private final double depth;
+    private final double walkingSpeed;
+
+    // protects everything below (see the class' javadoc)
+    private final ReentrantLock lock;
+    private final Condition internReleased;
+    private final Map<OfficeEntity, FloorPosition> positions;
+    private final Map<LiquidContainer, Employee> owners;
+    private final SpatialGrid<Intern> freeInterns;
+    private final Set<Intern> busyInterns;
+    private final SpatialGrid<FloorPosition> waterSources;
+
+    FloorPlan(double width, double depth, double cellSize, double walkingSpeed) {
+        this.width = width;
+        this.depth = depth;
+        this.walkingSpeed = walkingSpeed;
+        this.lock = new ReentrantLock();
+        this.internReleased = lock.newCondition();
+        this.positions = new IdentityHashMap<>();
+        this.owners = new IdentityHashMap<>();
+        this.freeInterns = new SpatialGrid<>(width, depth, cellSize);
+        this.busyInterns = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.waterSources = new SpatialGrid<>(width, depth, cellSize);
+    }
+
+    /**
+     * Put an employee's desk somewhere (if they already have a desk, they move to the new one)
+     *
+     * @param employee The employee
+     * @param container The employee's container (it stays on the desk, that's where the interns deliver it)
+     * @param position Where the desk is
+     */
+    public void placeEmployee(Employee employee, LiquidContainer container, FloorPosition position) {
+        Objects.requireNonNull(employee, "employee can't be null");
+        Objects.requireNonNull(container, "container can't be null");
+        requireInside(position);
+        lock.lock();
+        try {
+            Employee owner = owners.putIfAbsent(container, employee);
+            if (owner != null && owner != employee) {
+                throw new IllegalOfficePopulationException("The container is already on somebody else's desk");
+            }
+            positions.put(employee, position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Put an intern somewhere, or move them (a busy intern just changes position, and they'll be available where they
+     * deliver the container)
+     *
+     * @param intern The intern
+     * @param position Where the intern is
+     */
+    public void placeIntern(Intern intern, FloorPosition position) {
+        Objects.requireNonNull(intern, "intern can't be null");
+        requireInside(position);
+        lock.lock();
+        try {
+            positions.put(intern, position);
+            if (!busyInterns.contains(intern)) {
+                freeInterns.put(intern, position);
+                internReleased.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a water source (a water cooler, a filter, a tap, or anything the interns can fill the containers with)
+     *
+     * @param position Where the water source is
+     */
+    public void addWaterSource(FloorPosition position) {
+        requireInside(position);
+        lock.lock();
+        try {
+            waterSources.put(position, position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get where an entity is
+     *
+     * @param entity The employee or intern
+     *
+     * @return The position (null if they're not on the floor)
+     */
+    public FloorPosition getPosition(OfficeEntity entity) {
+        lock.lock();
+        try {
+            return positions.get(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get where a container is delivered
+     *
+     * @param container The container
+     *
+     * @return The position of the desk (null if the container is not on the floor)
+     */
+    public FloorPosition getDeskPosition(LiquidContainer container) {
+        lock.lock();
+        try {
+            Employee owner = owners.get(container);
+            return owner == null ? null : positions.get(owner);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Find the nearest intern who's not busy (they're not claimed, so somebody else might get them first)
+     *
+     * @param position Where the intern is needed
+     *
+     * @return The intern (null if all of them are busy)
+     */
+    public Intern findNearestFreeIntern(FloorPosition position) {
+        Objects.requireNonNull(position, "position can't be null");
+        lock.lock();
+        try {
+            return freeInterns.nearest(position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Find the nearest water source
+     *
+     * @param position Where the liquid is needed
+     *
+     * @return The position of the water source (null if there's none)
+     */
+    public FloorPosition findNearestWaterSource(FloorPosition position) {
+        Objects.requireNonNull(position, "position can't be null");
+        lock.lock();
+        try {
+            return waterSources.nearest(position);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the nearest free intern, waiting until one is free if all of them are busy
+     *
+     * @param position Where the intern is needed
+     *
+     * @return The intern (give them back with {@link #releaseIntern(Intern, FloorPosition)})
+     */
+    public Intern claimNearestFreeIntern(FloorPosition position) {
+        Objects.requireNonNull(position, "position can't be null");
+        lock.lock();
+        try {
+            Intern intern;
+            while ((intern = freeInterns.nearest(position)) == null) {
+                if (busyInterns.isEmpty()) {
+                    throw new IllegalOfficePopulationException("There are no interns on the floor");
+                }
+                logger.debug("All {} interns are busy, waiting", busyInterns.size());
+                internReleased.awaitUninterruptibly();
+            }
+            freeInterns.remove(intern);
+            busyInterns.add(intern);
+            return intern;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Make an intern available again
+     *
+     * @param intern The intern, who must have been claimed
+     * @param position Where the intern is now
+     */
+    public void releaseIntern(Intern intern, FloorPosition position) {
+        Objects.requireNonNull(intern, "intern can't be null");
+        requireInside(position);
+        lock.lock();
+        try {
+            if (!busyInterns.remove(intern)) {
+                throw new IllegalStateException("Releasing an intern that wasn't claimed");
+            }
+            positions.put(intern, position);
+            freeInterns.put(intern, position);
+            internReleased.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get how long it takes to walk a distance
+     *
+     * @param distance The distance, in meters
+     *
+     * @return The walking time
+     */
+    public Duration getWalkingTime(double distance) {
+        return Duration.ofNanos((long) (distance / walkingSpeed * 1_000_000_000L));
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getDepth() {
+        return depth;
+    }
+
+    public double getWalkingSpeed() {
+        return walkingSpeed;
+    }
+
+    public int getFreeInterns() {
+        lock.lock();
+        try {
+            return freeInterns.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requireInside(FloorPosition position) {
+        Objects.requireNonNull(position, "position can't be null");
+        if (position.getX() < 0 || position.getX() > width || position.getY() < 0 || position.getY() > depth) {
+            throw new IllegalArgumentException("Position " + position + " is outside the floor (" + width + " x "
+                                               + depth + ")");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package enterprise.glassjoke.floor;
+
+/**
+ * Builder for floor plans.
+ *
+ * By default, the floor has 100 x 100 meters, the spatial index uses cells of 5 meters, and interns walk at 1.4 meters
+ * per second (they're not in a hurry).
+ *
+ * The cell size should be close to the average distance between interns: smaller cells mean more empty cells to look
+ * at, larger cells mean more interns in each cell.
+ *
+ * @author hkotsubo
+ */
+public class FloorPlanBuilder {
+
+    private double width;
+    private double depth;
+    private double cellSize;
+    private double walkingSpeed;
+
+    public FloorPlanBuilder() {
+        this.width = 100;
+        this.depth = 100;
+        this.cellSize = 5;
+        this.walkingSpeed = 1.4;
+    }
+
+    /**
+     * Set the size of the floor
+     *
+     * @param width The width, in meters
+     * @param depth The depth, in meters
+     *
+     * @return This builder
+     */
+    public FloorPlanBuilder withSize(double width, double depth) {
+        this.width = requirePositive(width, "width");
+        this.depth = requirePositive(depth, "depth");
+        return this;
+    }
+
+    /**
+     * Set the size of the spatial index's cells
+     *
+     * @param cellSize The cell size, in meters
+     *
+     * @return This builder
+     */
+    public FloorPlanBuilder withCellSize(double cellSize) {
+        this.cellSize = requirePositive(cellSize, "cell size");
+        return this;
+    }
+
+    /**
+     * Set how fast the interns walk
+     *
+     * @param walkingSpeed The speed, in meters per second
+     *
+     * @return This builder
+     */
+    public FloorPlanBuilder withWalkingSpeed(double walkingSpeed) {
+        this.walkingSpeed = requirePositive(walkingSpeed, "walking speed");
+        return this;
+    }
+
+    private static double requirePositive(double value, String name) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(name + " must be a positive number");
+        }
+        return value;
+    }
+
+    /**
+     * Build the floor plan (it's empty, the entities must be placed afterwards)
+     *
+     * @return The floor plan
+     */
+    public FloorPlan build() {
+        return new FloorPlan(width, depth, cellSize, walkingSpeed);
+    }
+}
@@ -0,0 +1,68 @@
+package enterprise.glassjoke.floor;
+
+/**
+ * A point in the office floor, in meters from the top left corner (x goes to the right, y goes down).
+ *
+ * Positions are immutable.
+ *
+ * @author hkotsubo
+ */
+public class FloorPosition {
+
+    private final double x;
+    private final double y;
+
+    /**
+     * Create the position.
+     *
+     * @param x Distance from the left wall, in meters
+     * @param y Distance from the top wall, in meters
+     */
+    public FloorPosition(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("coordinates must be finite numbers");
+        }
+        this.x = x;
+        this.y = y;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Get the straight line distance to another position (interns walk through the desks, apparently)
+     *
+     * @param other The other position
+     *
+     * @return The distance, in meters
+     */
+    public double distanceTo(FloorPosition other) {
+        return Math.hypot(x - other.x, y - other.y);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FloorPosition other)) {
+            return false;
+        }
+        return Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(x) + Double.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
+    }
+}
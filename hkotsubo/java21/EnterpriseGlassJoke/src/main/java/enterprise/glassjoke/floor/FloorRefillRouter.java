@@ -0,0 +1,105 @@
+package enterprise.glassjoke.floor;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.AsyncRefillService;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Sends the nearest free intern to fill a container: the intern walks to the nearest water source, then to the desk
+ * where the container is, and stays there until the next request.
+ *
+ * The walking is not simulated in real time (nobody wants to wait for the interns), but the distances and walking times
+ * are recorded (see {@link #getMetrics()}).
+ *
+ * The router can be used as an asynchronous refill service, so the simulators send refills to the floor plan: the
+ * refills run in the executor's threads. The containers must be on the floor plan (see
+ * {@link FloorPlan#placeEmployee}).
+ *
+ * @author hkotsubo
+ */
+public class FloorRefillRouter implements AsyncRefillService {
+
+    private static final Logger logger = LogManager.getLogger(FloorRefillRouter.class.getSimpleName());
+
+    private final FloorPlan floorPlan;
+    private final Executor executor;
+
+    private final LongAdder trips;
+    private final DoubleAdder totalDistance;
+    private final DoubleAccumulator maxDistance;
+
+    /**
+     * Create the router.
+     *
+     * @param floorPlan Where everybody is
+     * @param executor Where the asynchronous refills run
+     */
+    public FloorRefillRouter(FloorPlan floorPlan, Executor executor) {
+        this.floorPlan = Objects.requireNonNull(floorPlan, "floor plan can't be null");
+        this.executor = Objects.requireNonNull(executor, "executor can't be null");
+        this.trips = new LongAdder();
+        this.totalDistance = new DoubleAdder();
+        this.maxDistance = new DoubleAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Send the nearest free intern to fill a container, and wait until it's done
+     *
+     * @param container The container, which must be on the floor plan
+     * @param liquidType The liquid type
+     *
+     * @return The intern who filled the container
+     */
+    public Intern requestRefill(LiquidContainer container, LiquidType liquidType) {
+        Objects.requireNonNull(container, "container can't be null");
+        Objects.requireNonNull(liquidType, "liquid type can't be null");
+        FloorPosition desk = floorPlan.getDeskPosition(container);
+        if (desk == null) {
+            throw new IllegalOfficePopulationException("The container is not on the floor plan");
+        }
+        Intern intern = floorPlan.claimNearestFreeIntern(desk);
+        try {
+            FloorPosition start = floorPlan.getPosition(intern);
+            FloorPosition waterSource = floorPlan.findNearestWaterSource(start);
+            double distance = waterSource == null ? start.distanceTo(desk)
+                                                  : start.distanceTo(waterSource) + waterSource.distanceTo(desk);
+            intern.fill(container, liquidType);
+            trips.increment();
+            totalDistance.add(distance);
+            maxDistance.accumulate(distance);
+            logger.debug("Intern walked {}m from {} to {}", distance, start, desk);
+        } finally {
+            floorPlan.releaseIntern(intern, desk);
+        }
+        return intern;
+    }
+
+    @Override
+    public CompletableFuture<LiquidContainer> refillAsync(LiquidContainer container, LiquidType liquidType,
+            int priority) {
+        return CompletableFuture.supplyAsync(() -> {
+            requestRefill(container, liquidType);
+            return container;
+        }, executor);
+    }
+
+    /**
+     * Get the current metrics (they keep being updated, so each call returns a new snapshot)
+     *
+     * @return The metrics
+     */
+    public FloorRoutingMetrics getMetrics() {
+        double distance = totalDistance.sum();
+        return new FloorRoutingMetrics(trips.sum(), distance, maxDistance.get(), floorPlan.getWalkingTime(distance));
+    }
+}
@@ -0,0 +1,76 @@
+package enterprise.glassjoke.floor;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of how much the interns walked.
+ *
+ * Each trip goes from where the intern was to the nearest water source, and then to the employee's desk.
+ *
+ * Metrics are immutable.
+ *
+ * @author hkotsubo
+ */
+public class FloorRoutingMetrics {
+
+    private final long trips;
+    private final double totalDistance;
+    private final double maxDistance;
+    private final Duration totalWalkingTime;
+
+    /**
+     * Create the metrics.
+     *
+     * @param trips How many trips the interns made
+     * @param totalDistance How much they walked, in meters
+     * @param maxDistance The longest trip, in meters
+     * @param totalWalkingTime How long they walked
+     */
+    public FloorRoutingMetrics(long trips, double totalDistance, double maxDistance, Duration totalWalkingTime) {
+        this.trips = trips;
+        this.totalDistance = totalDistance;
+        this.maxDistance = maxDistance;
+        this.totalWalkingTime = totalWalkingTime;
+    }
+
+    public long getTrips() {
+        return trips;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    public Duration getTotalWalkingTime() {
+        return totalWalkingTime;
+    }
+
+    /**
+     * Get how much the interns walked in each trip, on average
+     *
+     * @return The average distance in meters (zero if there were no trips)
+     */
+    public double getAverageDistance() {
+        return trips == 0 ? 0 : totalDistance / trips;
+    }
+
+    /**
+     * Get how long each trip took, on average
+     *
+     * @return The average walking time (zero if there were no trips)
+     */
+    public Duration getAverageWalkingTime() {
+        return trips == 0 ? Duration.ZERO : totalWalkingTime.dividedBy(trips);
+    }
+
+    @Override
+    public String toString() {
+        return "FloorRoutingMetrics{" + "trips=" + trips + ", totalDistance=" + String.format("%.1f", totalDistance)
+                + ", averageDistance=" + String.format("%.1f", getAverageDistance()) + ", maxDistance="
+                + String.format("%.1f", maxDistance) + ", averageWalkingTime=" + getAverageWalkingTime() + '}';
+    }
+}
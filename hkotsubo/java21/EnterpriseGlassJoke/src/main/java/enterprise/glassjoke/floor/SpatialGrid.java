@@ -0,0 +1,169 @@
+package enterprise.glassjoke.floor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index that splits the floor in square cells, each one with the items inside it.
+ *
+ * Adding, moving and removing an item are constant time (an item that moves to another cell just changes lists). The
+ * nearest item is found by looking at the cells around the position, ring after ring, until no unvisited cell can be
+ * closer than the best item found so far. If the cells are about the size of the average distance between items, only
+ * a few dozen cells are visited, no matter how many items there are.
+ *
+ * Items are compared by identity. The grid is not thread-safe.
+ *
+ * @author hkotsubo
+ */
+class SpatialGrid<T> {
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<Entry<T>>[] cells;
+    private final Map<T, Entry<T>> entries;
+
+    @SuppressWarnings("unchecked")
+    SpatialGrid(double width, double depth, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(depth / cellSize));
+        this.cells = (List<Entry<T>>[]) new List<?>[columns * rows];
+        this.entries = new IdentityHashMap<>();
+    }
+
+    /**
+     * Add an item, or move it if it's already in the grid
+     */
+    void put(T item, FloorPosition position) {
+        int cell = cellOf(position.getX(), position.getY());
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            entry = new Entry<>(item);
+            entries.put(item, entry);
+        } else if (entry.cell != cell) {
+            removeFromCell(entry);
+        } else {
+            entry.position = position;
+            return;
+        }
+        entry.position = position;
+        addToCell(entry, cell);
+    }
+
+    boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+        removeFromCell(entry);
+        return true;
+    }
+
+    boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the item closest to a position
+     *
+     * @return The nearest item (null if the grid is empty)
+     */
+    T nearest(FloorPosition position) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        double x = position.getX();
+        double y = position.getY();
+        int column = columnOf(x);
+        int row = rowOf(y);
+        int maxRing = Math.max(columns, rows);
+        Entry<T> best = null;
+        double bestDistance = Double.MAX_VALUE; // squared, there's no need to calculate the root
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // cells in this ring are at least (ring - 1) cells away
+            double reach = (ring - 1) * cellSize;
+            if (best != null && ring > 0 && bestDistance <= reach * reach) {
+                break;
+            }
+            for (int c = column - ring; c <= column + ring; c++) {
+                if (c < 0 || c >= columns) {
+                    continue;
+                }
+                // the whole column at the edges of the ring, only the top and bottom cells in the middle
+                int step = (c == column - ring || c == column + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int r = row - ring; r <= row + ring; r += step) {
+                    if (r < 0 || r >= rows) {
+                        continue;
+                    }
+                    List<Entry<T>> cell = cells[r * columns + c];
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int i = 0, size = cell.size(); i < size; i++) {
+                        Entry<T> entry = cell.get(i);
+                        double dx = entry.position.getX() - x;
+                        double dy = entry.position.getY() - y;
+                        double distance = dx * dx + dy * dy;
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = entry;
+                        }
+                    }
+                }
+            }
+        }
+        return best.item;
+    }
+
+    private void addToCell(Entry<T> entry, int cell) {
+        List<Entry<T>> items = cells[cell];
+        if (items == null) {
+            items = new ArrayList<>(4);
+            cells[cell] = items;
+        }
+        entry.cell = cell;
+        entry.slot = items.size();
+        items.add(entry);
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        // the last item takes the place of the removed one, so nothing else has to be shifted
+        List<Entry<T>> items = cells[entry.cell];
+        Entry<T> last = items.remove(items.size() - 1);
+        if (last != entry) {
+            items.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+    }
+
+    private int cellOf(double x, double y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    private int columnOf(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) (y / cellSize)));
+    }
+
+    private static class Entry<T> {
+
+        final T item;
+        FloorPosition position;
+        int cell;
+        int slot;
+
+        Entry(T item) {
+            this.item = item;
+        }
+    }
+}
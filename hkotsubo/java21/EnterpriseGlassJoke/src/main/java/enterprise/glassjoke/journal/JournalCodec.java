@@ -0,0 +1,108 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.exception.SimulationJournalException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * The journal's binary format.
+ *
+ * Each segment file starts with a magic number and a format version, followed by blocks of events. Each block has a
+ * header (the length in bytes and the number of its events, the timestamp of its first event, and the minimum and
+ * maximum timestamps of all its events), followed by the events. A block whose length is zero marks the end of the
+ * segment (when the journal wasn't closed properly, the rest of the file is all zeros).
+ *
+ * Each event starts with its type, followed by the differences from the previous event of the same block: first the
+ * timestamp (in milliseconds), then the employee's index. As events of the same employee or the same moment usually
+ * come together, most differences are small or zero, so they're written as variable-length integers (7 bits per byte).
+ * Negative numbers are zigzag-encoded. Then comes the event's data, which depends on the type.
+ *
+ * @author hkotsubo
+ */
+final class JournalCodec {
+
+    // "EGJJ" (Enterprise Glass Joke Journal)
+    static final int MAGIC = 0x45474A4A;
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+
+    // length, count, first timestamp, min timestamp, max timestamp
+    static final int BLOCK_HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+
+    // the largest possible event is an arrival with all liquid types, and conditions with both factors
+    static final int MAX_EVENT_SIZE = 96;
+
+    static final byte ARRIVED = 1;
+    static final byte CONSUMED = 2;
+    static final byte INTERN_SUMMONED = 3;
+    static final byte FILLED = 4;
+    static final byte CONDITIONS_CHANGED = 5;
+    static final byte INTERVAL_ENTERED = 6;
+    static final byte INTERVAL_LEFT = 7;
+
+    // flags of the conditions
+    static final byte HAS_ROOM_TEMPERATURE = 1;
+    static final byte HAS_WORK_INTENSITY = 2;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private JournalCodec() {
+    }
+
+    static String segmentFileName(int segment) {
+        return String.format("segment-%06d.journal", segment);
+    }
+
+    /**
+     * Milliseconds since the epoch (there are no time zones in the office)
+     */
+    static long timestamp(LocalDate day, LocalTime time) {
+        return day.toEpochDay() * MILLIS_PER_DAY + time.toNanoOfDay() / 1_000_000;
+    }
+
+    static long timestamp(LocalDateTime dateTime) {
+        return timestamp(dateTime.toLocalDate(), dateTime.toLocalTime());
+    }
+
+    static LocalDate dayOf(long timestamp) {
+        return LocalDate.ofEpochDay(Math.floorDiv(timestamp, MILLIS_PER_DAY));
+    }
+
+    static LocalTime timeOf(long timestamp) {
+        return LocalTime.ofNanoOfDay(Math.floorMod(timestamp, MILLIS_PER_DAY) * 1_000_000);
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new SimulationJournalException("Corrupted journal: variable-length integer is too long");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    static void putSignedVarLong(ByteBuffer buffer, long value) {
+        putVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    static long getSignedVarLong(ByteBuffer buffer) {
+        long value = getVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
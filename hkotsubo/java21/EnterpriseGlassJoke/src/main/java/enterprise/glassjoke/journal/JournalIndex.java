@@ -0,0 +1,162 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.exception.SimulationJournalException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The sparse index of a journal: one entry per block of events, with where the block is and the range of its
+ * timestamps. To seek a timestamp, the blocks that only have later events are skipped without being read.
+ *
+ * The index is saved when the journal is closed. The same information is in the blocks' headers, so if the journal
+ * wasn't closed properly, the index is rebuilt by reading the headers.
+ *
+ * @author hkotsubo
+ */
+class JournalIndex {
+
+    private static final Logger logger = LogManager.getLogger(JournalIndex.class.getSimpleName());
+
+    static final String FILE_NAME = "journal.idx";
+
+    // "EGJI" (Enterprise Glass Joke Index)
+    private static final int MAGIC = 0x45474A49;
+
+    private final List<Entry> entries;
+
+    JournalIndex() {
+        this.entries = new ArrayList<>();
+    }
+
+    void add(Entry entry) {
+        entries.add(entry);
+    }
+
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    void save(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        Path temp = directory.resolve(FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(JournalCodec.VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeInt(entry.segment);
+                out.writeInt(entry.offset);
+                out.writeInt(entry.length);
+                out.writeInt(entry.count);
+                out.writeLong(entry.firstTimestamp);
+                out.writeLong(entry.minTimestamp);
+                out.writeLong(entry.maxTimestamp);
+            }
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't save the journal index " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't save the journal index " + file, e);
+        }
+    }
+
+    /**
+     * Load the index of a journal, or rebuild it if it doesn't exist
+     */
+    static JournalIndex load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            logger.warn("The journal in {} wasn't closed properly, rebuilding the index", directory);
+            return rebuild(directory);
+        }
+        JournalIndex index = new JournalIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != JournalCodec.VERSION) {
+                throw new SimulationJournalException(file + " is not a journal index (or its version is not supported)");
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                index.add(new Entry(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readLong(),
+                                    in.readLong(), in.readLong()));
+            }
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't read the journal index " + file, e);
+        }
+        return index;
+    }
+
+    /**
+     * Rebuild the index from the headers of the blocks
+     */
+    static JournalIndex rebuild(Path directory) {
+        JournalIndex index = new JournalIndex();
+        for (int segment = 0; Files.exists(directory.resolve(JournalCodec.segmentFileName(segment))); segment++) {
+            ByteBuffer buffer = map(directory, segment);
+            int offset = JournalCodec.SEGMENT_HEADER_SIZE;
+            while (offset + JournalCodec.BLOCK_HEADER_SIZE <= buffer.limit()) {
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    break;
+                }
+                index.add(new Entry(segment, offset, length, buffer.getInt(offset + 4), buffer.getLong(offset + 8),
+                                    buffer.getLong(offset + 16), buffer.getLong(offset + 24)));
+                offset += JournalCodec.BLOCK_HEADER_SIZE + length;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Map a segment file (read-only), checking its header
+     */
+    static MappedByteBuffer map(Path directory, int segment) {
+        Path file = directory.resolve(JournalCodec.segmentFileName(segment));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < JournalCodec.SEGMENT_HEADER_SIZE || buffer.getInt(0) != JournalCodec.MAGIC
+                    || buffer.getInt(4) != JournalCodec.VERSION) {
+                throw new SimulationJournalException(file + " is not a journal segment (or its version is not supported)");
+            }
+            return buffer;
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't read the journal segment " + file, e);
+        }
+    }
+
+    /**
+     * A block of events.
+     */
+    static class Entry {
+
+        final int segment, offset, length, count;
+        final long firstTimestamp, minTimestamp, maxTimestamp;
+
+        Entry(int segment, int offset, int length, int count, long firstTimestamp, long minTimestamp,
+                long maxTimestamp) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.firstTimestamp = firstTimestamp;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+        }
+    }
+}
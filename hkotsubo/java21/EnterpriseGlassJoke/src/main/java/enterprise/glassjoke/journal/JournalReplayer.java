@@ -0,0 +1,269 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.event.SimulationEvent;
+import enterprise.glassjoke.exception.SimulationJournalException;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads a simulation journal, to rebuild the office's state or to go through the events.
+ *
+ * Replaying just decodes the events and updates some arrays, so it's much faster than simulating again (there are no
+ * thirsty factors, loggers, interns, etc). To replay until a timestamp, the sparse index is used to skip all blocks
+ * whose events are later than that: when the journal is written in chronological order (such as by the discrete-event
+ * simulator, or any simulator with a single thread), only the blocks before the timestamp are read. When the employees
+ * are simulated by many threads (including virtual threads), each thread writes its own blocks, so the blocks of the
+ * same day overlap in time, and more blocks might have to be read (but never more than the whole journal).
+ *
+ * The segments are mapped in memory (read-only). A replayer is not thread-safe.
+ *
+ * @author hkotsubo
+ */
+public class JournalReplayer {
+
+    private static final Logger logger = LogManager.getLogger(JournalReplayer.class.getSimpleName());
+
+    private static final LiquidType[] LIQUID_TYPES = LiquidType.values();
+    private static final LiquidContainerType[] CONTAINER_TYPES = LiquidContainerType.values();
+
+    private final JournalIndex index;
+    private final List<MappedByteBuffer> segments;
+
+    // the data of the last decoded event, besides the type, timestamp and employee
+    private final int[] contents;
+    private int capacity, containerType, liquidType, milliLiters;
+    private double celsius;
+    private int intensity;
+
+    private JournalReplayer(JournalIndex index, List<MappedByteBuffer> segments) {
+        this.index = index;
+        this.segments = segments;
+        this.contents = new int[LIQUID_TYPES.length];
+    }
+
+    /**
+     * Open a journal
+     *
+     * @param directory The journal's directory
+     *
+     * @return The replayer
+     */
+    public static JournalReplayer open(Path directory) {
+        Objects.requireNonNull(directory, "directory can't be null");
+        if (!Files.exists(directory.resolve(JournalCodec.segmentFileName(0)))) {
+            throw new SimulationJournalException("There's no journal in " + directory);
+        }
+        JournalIndex index = JournalIndex.load(directory);
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        for (int segment = 0; Files.exists(directory.resolve(JournalCodec.segmentFileName(segment))); segment++) {
+            segments.add(JournalIndex.map(directory, segment));
+        }
+        logger.info("Journal {} has {} blocks in {} segments", directory, index.getEntries().size(), segments.size());
+        return new JournalReplayer(index, segments);
+    }
+
+    /**
+     * Get how many events the journal has
+     *
+     * @return The number of events
+     */
+    public long getEventCount() {
+        long count = 0;
+        for (JournalIndex.Entry entry : index.getEntries()) {
+            count += entry.count;
+        }
+        return count;
+    }
+
+    /**
+     * Replay the whole journal
+     *
+     * @return The state of the office after the last event
+     */
+    public ReplayedOffice replay() {
+        return replay(Long.MAX_VALUE);
+    }
+
+    /**
+     * Replay the journal until a timestamp (inclusive)
+     *
+     * @param until The timestamp
+     *
+     * @return The state of the office at that timestamp
+     */
+    public ReplayedOffice replayUntil(LocalDateTime until) {
+        return replay(JournalCodec.timestamp(Objects.requireNonNull(until, "timestamp can't be null")));
+    }
+
+    /**
+     * Go through the events between two timestamps (both inclusive), in the order they were written
+     *
+     * @param from The first timestamp
+     * @param to The last timestamp
+     * @param action What to do with each event (and the day it happened)
+     */
+    public void forEachEvent(LocalDateTime from, LocalDateTime to, BiConsumer<LocalDate, SimulationEvent> action) {
+        long fromTimestamp = JournalCodec.timestamp(Objects.requireNonNull(from, "from can't be null"));
+        long toTimestamp = JournalCodec.timestamp(Objects.requireNonNull(to, "to can't be null"));
+        Objects.requireNonNull(action, "action can't be null");
+        for (JournalIndex.Entry entry : index.getEntries()) {
+            if (entry.minTimestamp > toTimestamp || entry.maxTimestamp < fromTimestamp) {
+                continue;
+            }
+            ByteBuffer buffer = blockOf(entry);
+            long timestamp = entry.firstTimestamp;
+            int member = 0;
+            for (int i = 0; i < entry.count; i++) {
+                byte type = buffer.get();
+                timestamp += JournalCodec.getSignedVarLong(buffer);
+                member += (int) JournalCodec.getSignedVarLong(buffer);
+                readData(type, buffer);
+                if (timestamp >= fromTimestamp && timestamp <= toTimestamp) {
+                    action.accept(JournalCodec.dayOf(timestamp), toEvent(type, timestamp, member));
+                }
+            }
+        }
+    }
+
+    private ReplayedOffice replay(long until) {
+        ReplayedOffice office = new ReplayedOffice();
+        int blocks = 0;
+        for (JournalIndex.Entry entry : index.getEntries()) {
+            if (entry.minTimestamp > until) {
+                continue;
+            }
+            blocks++;
+            ByteBuffer buffer = blockOf(entry);
+            long timestamp = entry.firstTimestamp;
+            int member = 0;
+            for (int i = 0; i < entry.count; i++) {
+                byte type = buffer.get();
+                timestamp += JournalCodec.getSignedVarLong(buffer);
+                member += (int) JournalCodec.getSignedVarLong(buffer);
+                readData(type, buffer);
+                if (timestamp <= until) {
+                    office.seen(timestamp, member);
+                    apply(office, type, member);
+                }
+            }
+        }
+        logger.debug("{} of {} blocks replayed", blocks, index.getEntries().size());
+        return office;
+    }
+
+    private ByteBuffer blockOf(JournalIndex.Entry entry) {
+        if (entry.segment >= segments.size()) {
+            throw new SimulationJournalException("Journal segment " + entry.segment + " is missing");
+        }
+        int start = entry.offset + JournalCodec.BLOCK_HEADER_SIZE;
+        return segments.get(entry.segment).slice(start, entry.length);
+    }
+
+    /**
+     * Read the data of an event (it depends on the event's type)
+     */
+    private void readData(byte type, ByteBuffer buffer) {
+        switch (type) {
+            case JournalCodec.ARRIVED -> {
+                capacity = (int) JournalCodec.getVarLong(buffer);
+                containerType = buffer.get();
+                Arrays.fill(contents, 0);
+                int size = buffer.get();
+                for (int i = 0; i < size; i++) {
+                    int liquid = buffer.get();
+                    contents[liquid] = (int) JournalCodec.getVarLong(buffer);
+                }
+                readConditions(buffer);
+            }
+            case JournalCodec.CONSUMED ->
+                milliLiters = (int) JournalCodec.getVarLong(buffer);
+            case JournalCodec.FILLED -> {
+                liquidType = buffer.get();
+                milliLiters = (int) JournalCodec.getVarLong(buffer);
+            }
+            case JournalCodec.CONDITIONS_CHANGED ->
+                readConditions(buffer);
+            case JournalCodec.INTERN_SUMMONED, JournalCodec.INTERVAL_ENTERED, JournalCodec.INTERVAL_LEFT -> {
+                // nothing else
+            }
+            default ->
+                throw new SimulationJournalException("Corrupted journal: unknown event type " + type);
+        }
+    }
+
+    private void readConditions(ByteBuffer buffer) {
+        byte flags = buffer.get();
+        celsius = (flags & JournalCodec.HAS_ROOM_TEMPERATURE) != 0 ? buffer.getDouble()
+                : BatchThirstyEvaluator.NO_ROOM_TEMPERATURE;
+        intensity = (flags & JournalCodec.HAS_WORK_INTENSITY) != 0 ? (int) JournalCodec.getSignedVarLong(buffer)
+                : BatchThirstyEvaluator.NO_WORK_INTENSITY;
+    }
+
+    private void apply(ReplayedOffice office, byte type, int member) {
+        switch (type) {
+            case JournalCodec.ARRIVED ->
+                office.arrived(member, capacity, containerType, contents, celsius, intensity);
+            case JournalCodec.CONSUMED ->
+                office.consumed(member, milliLiters);
+            case JournalCodec.INTERN_SUMMONED ->
+                office.internSummoned();
+            case JournalCodec.FILLED ->
+                office.filled(member, liquidType, milliLiters);
+            case JournalCodec.CONDITIONS_CHANGED ->
+                office.conditionsChanged(member, celsius, intensity);
+            case JournalCodec.INTERVAL_ENTERED ->
+                office.interval(member, true);
+            case JournalCodec.INTERVAL_LEFT ->
+                office.interval(member, false);
+            default ->
+                throw new SimulationJournalException("Corrupted journal: unknown event type " + type);
+        }
+    }
+
+    private SimulationEvent toEvent(byte type, long timestamp, int member) {
+        LocalTime time = JournalCodec.timeOf(timestamp);
+        return switch (type) {
+            case JournalCodec.ARRIVED -> {
+                Map<LiquidType, Integer> map = new EnumMap<>(LiquidType.class);
+                for (int t = 0; t < contents.length; t++) {
+                    if (contents[t] > 0) {
+                        map.put(LIQUID_TYPES[t], contents[t]);
+                    }
+                }
+                yield new SimulationEvent.Arrived(time, member, capacity, CONTAINER_TYPES[containerType], map, celsius,
+                                                  intensity);
+            }
+            case JournalCodec.CONSUMED ->
+                new SimulationEvent.Consumed(time, member, milliLiters);
+            case JournalCodec.INTERN_SUMMONED ->
+                new SimulationEvent.InternSummoned(time, member);
+            case JournalCodec.FILLED ->
+                new SimulationEvent.Filled(time, member, LIQUID_TYPES[liquidType], milliLiters);
+            case JournalCodec.CONDITIONS_CHANGED ->
+                new SimulationEvent.ConditionsChanged(time, member, celsius, intensity);
+            case JournalCodec.INTERVAL_ENTERED ->
+                new SimulationEvent.IntervalEntered(time, member);
+            case JournalCodec.INTERVAL_LEFT ->
+                new SimulationEvent.IntervalLeft(time, member);
+            default ->
+                throw new SimulationJournalException("Corrupted journal: unknown event type " + type);
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.thirsty.RoomTemperature;
+import enterprise.glassjoke.thirsty.ThirstyFactor;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.thirsty.WorkIntensity;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * The state of the office rebuilt from a journal: how each employee was at the moment the replay stopped.
+ *
+ * The state of each employee is known since their first arrival in the journal (see
+ * {@link enterprise.glassjoke.event.SimulationEvent.Arrived}), and it's kept in arrays (like
+ * {@link enterprise.glassjoke.kernel.OfficeKernel}), so no objects are created while replaying. Liquid containers
+ * and thirsty factors can be created from it afterwards.
+ *
+ * It also has the totals of the replayed events. Iterations are not in the journal.
+ *
+ * @author hkotsubo
+ */
+public class ReplayedOffice {
+
+    private static final LiquidType[] LIQUID_TYPES = LiquidType.values();
+    private static final LiquidContainerType[] CONTAINER_TYPES = LiquidContainerType.values();
+
+    private int size;
+    private boolean[] arrived;
+    private int[] capacity;
+    private byte[] containerType;
+    private int[] volume;
+    // amounts[member * LIQUID_TYPES.length + liquid type's ordinal]
+    private int[] amounts;
+    private double[] celsius;
+    private int[] intensity;
+    private boolean[] inInterval;
+
+    private long drinks, internCalls, milliLitersConsumed, milliLitersRefilled;
+    private long lastTimestamp;
+    private boolean empty;
+
+    ReplayedOffice() {
+        this.arrived = new boolean[0];
+        this.capacity = new int[0];
+        this.containerType = new byte[0];
+        this.volume = new int[0];
+        this.amounts = new int[0];
+        this.celsius = new double[0];
+        this.intensity = new int[0];
+        this.inInterval = new boolean[0];
+        this.empty = true;
+    }
+
+    /**
+     * Get the number of employees found in the journal (the highest index plus one)
+     *
+     * @return The number of employees
+     */
+    public int getPopulationSize() {
+        return size;
+    }
+
+    /**
+     * Check if the employee's state is known (they arrived at least once before the replay stopped)
+     *
+     * @param member The employee's index
+     *
+     * @return true if the state is known, false otherwise
+     */
+    public boolean hasArrived(int member) {
+        return member < size && arrived[member];
+    }
+
+    /**
+     * Create a liquid container with the same capacity, type and contents the employee's container had
+     *
+     * @param member The employee's index
+     *
+     * @return The liquid container
+     */
+    public LiquidContainer createLiquidContainer(int member) {
+        checkArrived(member);
+        LiquidContainerBuilder builder = new LiquidContainerBuilder()
+                .withCapacity(capacity[member])
+                .withType(CONTAINER_TYPES[containerType[member]]);
+        for (LiquidType liquidType : LIQUID_TYPES) {
+            int amount = amounts[member * LIQUID_TYPES.length + liquidType.ordinal()];
+            if (amount > 0) {
+                builder.addContent(liquidType, amount);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Set the conditions of the employee in the thirsty factors of a manager (the room temperature and the work
+     * intensity). Factors the employee wasn't affected by are not changed.
+     *
+     * @param member The employee's index
+     * @param thirstyFactorManager The thirsty factor manager
+     */
+    public void restoreThirstyFactors(int member, ThirstyFactorManager thirstyFactorManager) {
+        checkArrived(member);
+        for (ThirstyFactor factor : thirstyFactorManager.getFactors()) {
+            if (factor instanceof RoomTemperature roomTemperature && !Double.isNaN(celsius[member])) {
+                roomTemperature.setCelsius(celsius[member]);
+            } else if (factor instanceof WorkIntensity workIntensity
+                    && intensity[member] != BatchThirstyEvaluator.NO_WORK_INTENSITY) {
+                workIntensity.setIntensity(intensity[member]);
+            }
+        }
+    }
+
+    public int getCurrentVolume(int member) {
+        checkArrived(member);
+        return volume[member];
+    }
+
+    public int getAmount(int member, LiquidType liquidType) {
+        checkArrived(member);
+        return amounts[member * LIQUID_TYPES.length + liquidType.ordinal()];
+    }
+
+    /**
+     * Get the room temperature of an employee
+     *
+     * @param member The employee's index
+     *
+     * @return The room temperature, or NaN if the employee isn't affected by it
+     */
+    public double getCelsius(int member) {
+        checkArrived(member);
+        return celsius[member];
+    }
+
+    /**
+     * Get the work intensity of an employee
+     *
+     * @param member The employee's index
+     *
+     * @return The work intensity, or Integer.MIN_VALUE if the employee isn't affected by it
+     */
+    public int getWorkIntensity(int member) {
+        checkArrived(member);
+        return intensity[member];
+    }
+
+    public boolean isEnjoyingInterval(int member) {
+        checkArrived(member);
+        return inInterval[member];
+    }
+
+    public long getDrinks() {
+        return drinks;
+    }
+
+    public long getInternCalls() {
+        return internCalls;
+    }
+
+    public long getMilliLitersConsumed() {
+        return milliLitersConsumed;
+    }
+
+    public long getMilliLitersRefilled() {
+        return milliLitersRefilled;
+    }
+
+    /**
+     * Get the timestamp of the latest replayed event
+     *
+     * @return The timestamp, or null if no events were replayed
+     */
+    public LocalDateTime getTimestamp() {
+        return empty ? null : LocalDateTime.of(JournalCodec.dayOf(lastTimestamp), JournalCodec.timeOf(lastTimestamp));
+    }
+
+    private void checkArrived(int member) {
+        if (!hasArrived(member)) {
+            throw new IllegalArgumentException("Employee " + member + " didn't arrive yet");
+        }
+    }
+
+    void seen(long timestamp, int member) {
+        if (empty || timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+            empty = false;
+        }
+        if (member >= size) {
+            if (member >= capacity.length) {
+                grow(Math.max(member + 1, capacity.length * 2));
+            }
+            size = member + 1;
+        }
+    }
+
+    void arrived(int member, int capacity, int containerType, int[] contents, double celsius, int intensity) {
+        this.arrived[member] = true;
+        this.capacity[member] = capacity;
+        this.containerType[member] = (byte) containerType;
+        int total = 0;
+        for (int t = 0; t < LIQUID_TYPES.length; t++) {
+            amounts[member * LIQUID_TYPES.length + t] = contents[t];
+            total += contents[t];
+        }
+        this.volume[member] = total;
+        this.celsius[member] = celsius;
+        this.intensity[member] = intensity;
+        this.inInterval[member] = false;
+    }
+
+    /**
+     * Same rules of {@link LiquidContainer#consume}: the liquids are drank in order
+     */
+    void consumed(int member, int milliLiters) {
+        drinks++;
+        milliLitersConsumed += milliLiters;
+        if (!arrived[member]) {
+            return;
+        }
+        int base = member * LIQUID_TYPES.length;
+        if (milliLiters >= volume[member]) {
+            Arrays.fill(amounts, base, base + LIQUID_TYPES.length, 0);
+            volume[member] = 0;
+            return;
+        }
+        volume[member] -= milliLiters;
+        for (int t = 0; t < LIQUID_TYPES.length && milliLiters > 0; t++) {
+            int amountToConsume = Math.min(amounts[base + t], milliLiters);
+            amounts[base + t] -= amountToConsume;
+            milliLiters -= amountToConsume;
+        }
+    }
+
+    void internSummoned() {
+        internCalls++;
+    }
+
+    void filled(int member, int liquidType, int milliLiters) {
+        milliLitersRefilled += milliLiters;
+        if (arrived[member]) {
+            amounts[member * LIQUID_TYPES.length + liquidType] += milliLiters;
+            volume[member] += milliLiters;
+        }
+    }
+
+    void conditionsChanged(int member, double celsius, int intensity) {
+        this.celsius[member] = celsius;
+        this.intensity[member] = intensity;
+    }
+
+    void interval(int member, boolean inInterval) {
+        this.inInterval[member] = inInterval;
+    }
+
+    private void grow(int newLength) {
+        arrived = Arrays.copyOf(arrived, newLength);
+        capacity = Arrays.copyOf(capacity, newLength);
+        containerType = Arrays.copyOf(containerType, newLength);
+        volume = Arrays.copyOf(volume, newLength);
+        amounts = Arrays.copyOf(amounts, newLength * LIQUID_TYPES.length);
+        celsius = Arrays.copyOf(celsius, newLength);
+        intensity = Arrays.copyOf(intensity, newLength);
+        inInterval = Arrays.copyOf(inInterval, newLength);
+    }
+}
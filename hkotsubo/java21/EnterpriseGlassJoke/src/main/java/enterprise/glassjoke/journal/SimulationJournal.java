@@ -0,0 +1,323 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.event.SimulationEvent;
+import enterprise.glassjoke.event.SimulationListener;
+import enterprise.glassjoke.exception.SimulationJournalException;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An append-only journal of everything that happens during a simulation.
+ *
+ * The journal is a simulation listener (register it with
+ * {@link enterprise.glassjoke.work.OfficeSimulatorBuilder#withSimulationListener}), and writes the events to segment
+ * files that are mapped in memory, in a compact binary format (see {@link JournalCodec}). When a segment is full, a new
+ * one is created. Events are grouped in blocks, and each block becomes an entry of a sparse index, so a replay can skip
+ * the blocks it doesn't need.
+ *
+ * Each thread fills its own block, without any locks, and only the complete blocks are appended to the segment (one at a
+ * time). So the threads don't wait for each other at every event, and the events of an employee are always in order
+ * (each employee is simulated by a single thread during a working day). The blocks that aren't complete yet are
+ * appended when a new working day starts, and when the journal is closed.
+ *
+ * Events only have the time of the day, so the journal keeps track of the current day: multi-day simulators tell the
+ * listener when a new day starts. When simulating single days, call {@link #workingDayStarted(LocalDate)} before each
+ * one (otherwise all events are on the first day set in the builder).
+ *
+ * Timestamps are saved with millisecond precision. Don't forget to close the journal at the end, after the simulation
+ * is over (otherwise, the events of the incomplete blocks are lost, and the index will have to be rebuilt).
+ *
+ * Use {@link SimulationJournalBuilder} to create it, and {@link JournalReplayer} to read it.
+ *
+ * @author hkotsubo
+ */
+public class SimulationJournal implements SimulationListener, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(SimulationJournal.class.getSimpleName());
+
+    // the threads' blocks start small (there might be lots of virtual threads), and grow as needed
+    private static final int INITIAL_BLOCK_CAPACITY = 256;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int blockSize;
+    private final JournalIndex index;
+
+    // the largest block that fits in a segment, in bytes (without the header)
+    private final int maxBlockLength;
+
+    private volatile LocalDate currentDay;
+
+    // the current segment (only changed while holding the journal's lock)
+    private int segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    // each thread's block, and the blocks that have events not appended yet
+    private final ThreadLocal<ThreadBlock> threadBlocks;
+    private final Queue<ThreadBlock> pendingBlocks;
+
+    private final LongAdder events;
+    private volatile boolean closed;
+
+    SimulationJournal(Path directory, int segmentSize, int blockSize, LocalDate firstDay) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.blockSize = blockSize;
+        this.index = new JournalIndex();
+        this.maxBlockLength = segmentSize - JournalCodec.SEGMENT_HEADER_SIZE - JournalCodec.BLOCK_HEADER_SIZE;
+        this.currentDay = firstDay;
+        this.segment = -1;
+        this.threadBlocks = ThreadLocal.withInitial(ThreadBlock::new);
+        this.pendingBlocks = new ConcurrentLinkedQueue<>();
+        this.events = new LongAdder();
+        openNextSegment();
+    }
+
+    /**
+     * Set the day of the next events. The blocks of the previous day are appended to the journal (no thread should be
+     * simulating it anymore).
+     *
+     * @param day The day
+     */
+    @Override
+    public void workingDayStarted(LocalDate day) {
+        Objects.requireNonNull(day, "day can't be null");
+        appendPendingBlocks();
+        this.currentDay = day;
+    }
+
+    /**
+     * Append an event to the current thread's block (and the block to the journal, if it's complete)
+     *
+     * @param event The event
+     */
+    @Override
+    public void onEvent(SimulationEvent event) {
+        if (closed) {
+            throw new SimulationJournalException("The journal is closed");
+        }
+        long timestamp = JournalCodec.timestamp(currentDay, event.time());
+        ThreadBlock block = threadBlocks.get();
+        // nobody else uses this lock, except when appending the pending blocks
+        synchronized (block) {
+            if (!block.pending) {
+                block.pending = true;
+                pendingBlocks.add(block);
+            }
+            if (block.data.position() + JournalCodec.MAX_EVENT_SIZE > maxBlockLength) {
+                // it wouldn't fit in a segment
+                append(block);
+            }
+            block.ensureCapacity(JournalCodec.MAX_EVENT_SIZE);
+            block.write(event, timestamp);
+            events.increment();
+            if (block.count == blockSize) {
+                append(block);
+            }
+        }
+    }
+
+    /**
+     * Get how many events were written so far
+     *
+     * @return The number of events
+     */
+    public long getEventCount() {
+        return events.sum();
+    }
+
+    /**
+     * Write the pending data and the index, and close the journal. Further events are rejected.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        appendPendingBlocks();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            finishSegment();
+            index.save(directory);
+        }
+        logger.info("Journal closed with {} events in {} blocks", events.sum(), index.getEntries().size());
+    }
+
+    /**
+     * Append the blocks that have events, no matter how many
+     */
+    private void appendPendingBlocks() {
+        ThreadBlock block;
+        while ((block = pendingBlocks.poll()) != null) {
+            // always the block's lock first, then the journal's (the same order of onEvent)
+            synchronized (block) {
+                append(block);
+                block.pending = false;
+            }
+        }
+    }
+
+    /**
+     * Copy a block to the current segment (or to a new one, if it doesn't fit), and start it again. The caller must
+     * hold the block's lock.
+     */
+    private synchronized void append(ThreadBlock block) {
+        if (block.count == 0) {
+            return;
+        }
+        ByteBuffer data = block.data.flip();
+        int length = data.remaining();
+        if (buffer.remaining() < JournalCodec.BLOCK_HEADER_SIZE + length) {
+            finishSegment();
+            openNextSegment();
+        }
+        int offset = buffer.position();
+        buffer.position(offset + JournalCodec.BLOCK_HEADER_SIZE);
+        buffer.put(data);
+        buffer.putInt(offset + 4, block.count);
+        buffer.putLong(offset + 8, block.firstTimestamp);
+        buffer.putLong(offset + 16, block.minTimestamp);
+        buffer.putLong(offset + 24, block.maxTimestamp);
+        // the length goes last: a block without length is ignored
+        buffer.putInt(offset, length);
+        index.add(new JournalIndex.Entry(segment, offset, length, block.count, block.firstTimestamp,
+                                         block.minTimestamp, block.maxTimestamp));
+        data.clear();
+        block.count = 0;
+    }
+
+    private void openNextSegment() {
+        segment++;
+        Path file = directory.resolve(JournalCodec.segmentFileName(segment));
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't create the journal segment " + file, e);
+        }
+        buffer.putInt(JournalCodec.MAGIC);
+        buffer.putInt(JournalCodec.VERSION);
+        logger.debug("Journal segment {} created", file);
+    }
+
+    private void finishSegment() {
+        try {
+            buffer.force();
+            // the rest of the file is empty, there's no need to keep it
+            channel.truncate(buffer.position());
+            channel.close();
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't finish the journal segment " + segment, e);
+        }
+    }
+
+    /**
+     * The block that a thread is filling. Its events are encoded right away (in a heap buffer), so appending it to the
+     * journal is just a copy.
+     */
+    private class ThreadBlock {
+
+        ByteBuffer data;
+        int count;
+        long firstTimestamp, minTimestamp, maxTimestamp;
+        long previousTimestamp;
+        int previousMember;
+
+        // if it's in the queue of pending blocks
+        boolean pending;
+
+        ThreadBlock() {
+            this.data = ByteBuffer.allocate(Math.min(INITIAL_BLOCK_CAPACITY, maxBlockLength));
+        }
+
+        void ensureCapacity(int bytes) {
+            if (data.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(maxBlockLength,
+                                                                 Math.max(2 * data.capacity(), data.position() + bytes)));
+                data = larger.put(data.flip());
+            }
+        }
+
+        void write(SimulationEvent event, long timestamp) {
+            if (count == 0) {
+                firstTimestamp = minTimestamp = maxTimestamp = previousTimestamp = timestamp;
+                previousMember = 0;
+            }
+            switch (event) {
+                case SimulationEvent.Arrived arrived -> {
+                    writeCommon(JournalCodec.ARRIVED, timestamp, arrived.member());
+                    JournalCodec.putVarLong(data, arrived.capacity());
+                    data.put((byte) arrived.containerType().ordinal());
+                    data.put((byte) arrived.contents().size());
+                    for (Map.Entry<LiquidType, Integer> content : arrived.contents().entrySet()) {
+                        data.put((byte) content.getKey().ordinal());
+                        JournalCodec.putVarLong(data, content.getValue());
+                    }
+                    writeConditions(arrived.celsius(), arrived.workIntensity());
+                }
+                case SimulationEvent.Consumed consumed -> {
+                    writeCommon(JournalCodec.CONSUMED, timestamp, consumed.member());
+                    JournalCodec.putVarLong(data, consumed.milliLiters());
+                }
+                case SimulationEvent.InternSummoned summoned ->
+                    writeCommon(JournalCodec.INTERN_SUMMONED, timestamp, summoned.member());
+                case SimulationEvent.Filled filled -> {
+                    writeCommon(JournalCodec.FILLED, timestamp, filled.member());
+                    data.put((byte) filled.liquidType().ordinal());
+                    JournalCodec.putVarLong(data, filled.milliLiters());
+                }
+                case SimulationEvent.ConditionsChanged changed -> {
+                    writeCommon(JournalCodec.CONDITIONS_CHANGED, timestamp, changed.member());
+                    writeConditions(changed.celsius(), changed.workIntensity());
+                }
+                case SimulationEvent.IntervalEntered entered ->
+                    writeCommon(JournalCodec.INTERVAL_ENTERED, timestamp, entered.member());
+                case SimulationEvent.IntervalLeft left ->
+                    writeCommon(JournalCodec.INTERVAL_LEFT, timestamp, left.member());
+            }
+            count++;
+        }
+
+        private void writeCommon(byte type, long timestamp, int member) {
+            data.put(type);
+            JournalCodec.putSignedVarLong(data, timestamp - previousTimestamp);
+            JournalCodec.putSignedVarLong(data, member - previousMember);
+            previousTimestamp = timestamp;
+            previousMember = member;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+
+        private void writeConditions(double celsius, int workIntensity) {
+            boolean hasRoomTemperature = !Double.isNaN(celsius);
+            boolean hasWorkIntensity = workIntensity != BatchThirstyEvaluator.NO_WORK_INTENSITY;
+            data.put((byte) ((hasRoomTemperature ? JournalCodec.HAS_ROOM_TEMPERATURE : 0)
+                    | (hasWorkIntensity ? JournalCodec.HAS_WORK_INTENSITY : 0)));
+            if (hasRoomTemperature) {
+                data.putDouble(celsius);
+            }
+            if (hasWorkIntensity) {
+                JournalCodec.putSignedVarLong(data, workIntensity);
+            }
+        }
+    }
+}
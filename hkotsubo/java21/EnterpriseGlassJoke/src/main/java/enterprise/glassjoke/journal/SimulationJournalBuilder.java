@@ -0,0 +1,98 @@
+package enterprise.glassjoke.journal;
+
+import enterprise.glassjoke.exception.SimulationJournalException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Builder for simulation journals.
+ *
+ * By default, segments have 64MB, blocks have 4096 events, and the events are on the current day until a working day
+ * starts.
+ *
+ * @author hkotsubo
+ */
+public class SimulationJournalBuilder {
+
+    private static final int MIN_SEGMENT_SIZE = 4096;
+
+    private final Path directory;
+    private int segmentSize;
+    private int blockSize;
+    private LocalDate firstDay;
+
+    /**
+     * Create a builder
+     *
+     * @param directory The directory where the journal is saved (it's created if it doesn't exist, and it must not
+     * have another journal)
+     */
+    public SimulationJournalBuilder(Path directory) {
+        this.directory = Objects.requireNonNull(directory, "directory can't be null");
+        this.segmentSize = 64 * 1024 * 1024;
+        this.blockSize = 4096;
+        this.firstDay = null;
+    }
+
+    /**
+     * Set the size of each segment file
+     *
+     * @param segmentSize The size in bytes
+     *
+     * @return This builder
+     */
+    public SimulationJournalBuilder withSegmentSize(int segmentSize) {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segment size must be at least " + MIN_SEGMENT_SIZE + " bytes");
+        }
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    /**
+     * Set how many events each block has. Smaller blocks mean a larger index, but seeking reads less events.
+     *
+     * @param blockSize The number of events
+     *
+     * @return This builder
+     */
+    public SimulationJournalBuilder withBlockSize(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size must be positive");
+        }
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Set the day of the events written before any working day starts
+     *
+     * @param firstDay The day
+     *
+     * @return This builder
+     */
+    public SimulationJournalBuilder withFirstDay(LocalDate firstDay) {
+        this.firstDay = Objects.requireNonNull(firstDay, "first day can't be null");
+        return this;
+    }
+
+    /**
+     * Create the journal
+     *
+     * @return The journal, ready to receive events
+     */
+    public SimulationJournal build() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new SimulationJournalException("Can't create the journal directory " + directory, e);
+        }
+        if (Files.exists(directory.resolve(JournalCodec.segmentFileName(0)))) {
+            throw new SimulationJournalException("There's already a journal in " + directory);
+        }
+        return new SimulationJournal(directory, segmentSize, blockSize, firstDay != null ? firstDay : LocalDate.now());
+    }
+}
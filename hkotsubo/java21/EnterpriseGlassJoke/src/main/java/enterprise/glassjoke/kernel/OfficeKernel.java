@@ -0,0 +1,436 @@
+package enterprise.glassjoke.kernel;
+
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.work.WorkingDayReport;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.random.RandomGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Simulates a working day for a huge office, keeping the state of all employees in primitive arrays.
+ *
+ * Instead of an object for each employee, liquid container and thirsty factor (each one with their own logger, maps,
+ * etc), the state of employee i is at position i of each array: thirsty status, container's capacity and current
+ * volume, amount of each liquid type, working schedule, room temperature and work intensity. The simulation is done by
+ * "systems" that iterate over those arrays in tight loops, one moment of the working day at a time. Thirsty levels are
+ * computed for all employees at once by a {@link BatchThirstyEvaluator}.
+ *
+ * The rules are exactly the same of {@link enterprise.glassjoke.work.WorkingDaySimulator} (drink, call the intern when
+ * the container is empty, get thirsty again, change conditions), and so are the results: given the same initial state
+ * and the same random generators, the report is identical. But nobody logs anything, and interns are just counted,
+ * not created (nobody cares about them anyway).
+ *
+ * Use {@link OfficeKernelBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class OfficeKernel {
+
+    private static final Logger logger = LogManager.getLogger(OfficeKernel.class.getSimpleName());
+
+    // how many tasks per thread the population is split into (more tasks = better load balancing)
+    private static final int TASKS_PER_THREAD = 8;
+
+    static final int LIQUID_TYPES = LiquidType.values().length;
+    static final int WATER = LiquidType.WATER.ordinal();
+
+    // which thirsty factors each employee has
+    static final byte ROOM_TEMPERATURE = 1;
+    static final byte WORK_INTENSITY = 2;
+    // set if work intensity comes before room temperature (the order in which conditions change, and random numbers are used)
+    static final byte INTENSITY_FIRST = 4;
+
+    private final int size;
+
+    // entity components
+    private final boolean[] thirsty;
+    private final int[] capacity;
+    private final int[] volume;
+    // amount of each liquid type: employee i's amount of liquid type t is at [i * LIQUID_TYPES + t.ordinal()]
+    private final int[] amounts;
+    private final int[] schedule;
+    private final byte[] factors;
+    // employees not affected by a factor have BatchThirstyEvaluator.NO_ROOM_TEMPERATURE or NO_WORK_INTENSITY
+    private final double[] celsius;
+    private final int[] intensity;
+    private final RandomGenerator[] rand;
+
+    // the thirsty level of each employee at the current moment
+    private final int[] levels;
+    private final BatchThirstyEvaluator evaluator;
+
+    // how many moments each schedule has in a working day
+    private final int[] momentsPerSchedule;
+
+    private final int parallelism;
+
+    OfficeKernel(int size, boolean[] thirsty, int[] capacity, int[] volume, int[] amounts, int[] schedule,
+            byte[] factors, double[] celsius, int[] intensity, RandomGenerator[] rand, int[] momentsPerSchedule,
+            int parallelism) {
+        this.size = size;
+        this.thirsty = thirsty;
+        this.capacity = capacity;
+        this.volume = volume;
+        this.amounts = amounts;
+        this.schedule = schedule;
+        this.factors = factors;
+        this.celsius = celsius;
+        this.intensity = intensity;
+        this.rand = rand;
+        this.levels = new int[size];
+        this.evaluator = BatchThirstyEvaluator.getInstance();
+        this.momentsPerSchedule = momentsPerSchedule;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the number of employees in this office
+     *
+     * @return The number of employees
+     */
+    public int getPopulationSize() {
+        return size;
+    }
+
+    /**
+     * Check if an employee is thirsty
+     *
+     * @param employee The employee's index (the order in which they were added to the builder)
+     *
+     * @return true if the employee is thirsty, false otherwise
+     */
+    public boolean isThirsty(int employee) {
+        return thirsty[employee];
+    }
+
+    /**
+     * Get the current volume of an employee's liquid container
+     *
+     * @param employee The employee's index
+     *
+     * @return The current volume in milliliters
+     */
+    public int getCurrentVolume(int employee) {
+        return volume[employee];
+    }
+
+    /**
+     * Get the amount of a liquid type in an employee's liquid container
+     *
+     * @param employee The employee's index
+     * @param liquidType The liquid type
+     *
+     * @return The amount in milliliters
+     */
+    public int getAmount(int employee, LiquidType liquidType) {
+        return amounts[employee * LIQUID_TYPES + liquidType.ordinal()];
+    }
+
+    /**
+     * Get the room temperature of an employee
+     *
+     * @param employee The employee's index
+     *
+     * @return The temperature in celsius (NaN if the employee isn't affected by room temperature)
+     */
+    public double getCelsius(int employee) {
+        return (factors[employee] & ROOM_TEMPERATURE) != 0 ? celsius[employee] : Double.NaN;
+    }
+
+    /**
+     * Get the work intensity of an employee
+     *
+     * @param employee The employee's index
+     *
+     * @return The work intensity (zero if the employee isn't affected by work intensity)
+     */
+    public int getWorkIntensity(int employee) {
+        return (factors[employee] & WORK_INTENSITY) != 0 ? intensity[employee] : 0;
+    }
+
+    /**
+     * Simulates a working day for all employees in the office.
+     *
+     * @return The office-level report, with the totals of all employees
+     */
+    public WorkingDayReport simulateWorkingDay() {
+        if (parallelism == 1) {
+            // no need for a pool
+            return simulateRange(0, size);
+        }
+        if (parallelism == 0) {
+            return simulateWorkingDay(ForkJoinPool.commonPool());
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return simulateWorkingDay(pool);
+        }
+    }
+
+    private WorkingDayReport simulateWorkingDay(ForkJoinPool pool) {
+        int threshold = Math.max(1, size / (pool.getParallelism() * TASKS_PER_THREAD));
+        logger.debug("Simulating {} employees using {} threads", size, pool.getParallelism());
+        WorkingDayReport report = pool.invoke(new SimulationTask(0, size, threshold));
+        logger.debug("Office totals: {}", report);
+        return report;
+    }
+
+    /**
+     * Start a working day that is simulated one moment at a time, in the caller's thread.
+     *
+     * Use it when the number of refills the interns can do in each moment is limited by something outside the kernel
+     * (such as an intern pool shared by many kernels).
+     *
+     * @return The working day
+     */
+    public SteppedWorkingDay startSteppedWorkingDay() {
+        return new SteppedWorkingDay();
+    }
+
+    /**
+     * Simulates the working day of a range of employees, running all the systems at each moment.
+     *
+     * @param from The first employee (inclusive)
+     * @param to The last employee (exclusive)
+     *
+     * @return The report of those employees
+     */
+    private WorkingDayReport simulateRange(int from, int to) {
+        Tally tally = new Tally();
+        int moments = 0;
+        for (int i = from; i < to; i++) {
+            moments = Math.max(moments, momentsPerSchedule[schedule[i]]);
+        }
+        for (int moment = 0; moment < moments; moment++) {
+            simulateMoment(from, to, moment, Integer.MAX_VALUE, tally);
+        }
+        return tally.toReport(to - from);
+    }
+
+    /**
+     * Runs all the systems for a range of employees, at a single moment.
+     *
+     * @param refills How many refills the interns can do (employees beyond that must wait for the next moment)
+     */
+    private void simulateMoment(int from, int to, int moment, int refills, Tally tally) {
+        evaluator.evaluate(celsius, intensity, levels, from, to);
+        hydrationSystem(from, to, moment, refills, tally);
+        workSystem(from, to, moment);
+        conditionsSystem(from, to, moment, tally);
+    }
+
+    /**
+     * Thirsty employees drink, calling the intern first if their container is empty. If there are no refills left,
+     * employees with empty containers don't drink at all.
+     */
+    private void hydrationSystem(int from, int to, int moment, int refills, Tally tally) {
+        for (int i = from; i < to; i++) {
+            if (moment >= momentsPerSchedule[schedule[i]] || !thirsty[i]) {
+                continue;
+            }
+            if (volume[i] == 0) {
+                if (refills == 0) {
+                    continue;
+                }
+                refills--;
+                // the intern fills it with water
+                amounts[i * LIQUID_TYPES + WATER] += capacity[i];
+                volume[i] = capacity[i];
+                tally.internCalls++;
+                tally.milliLitersRefilled += capacity[i];
+            }
+            tally.milliLitersConsumed += consume(i, levels[i]);
+            tally.drinks++;
+        }
+    }
+
+    /**
+     * Whatever employees do (work or enjoy the interval), they always get thirsty.
+     */
+    private void workSystem(int from, int to, int moment) {
+        for (int i = from; i < to; i++) {
+            if (moment < momentsPerSchedule[schedule[i]]) {
+                thirsty[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Thirsty factors might change (same rules of {@link enterprise.glassjoke.thirsty.ThirstyFactorManager}).
+     */
+    private void conditionsSystem(int from, int to, int moment, Tally tally) {
+        for (int i = from; i < to; i++) {
+            if (moment >= momentsPerSchedule[schedule[i]]) {
+                continue;
+            }
+            switch (factors[i]) {
+                case ROOM_TEMPERATURE ->
+                    changeTemperature(i);
+                case WORK_INTENSITY ->
+                    changeWorkIntensity(i);
+                case ROOM_TEMPERATURE | WORK_INTENSITY -> {
+                    changeTemperature(i);
+                    changeWorkIntensity(i);
+                }
+                case ROOM_TEMPERATURE | WORK_INTENSITY | INTENSITY_FIRST -> {
+                    changeWorkIntensity(i);
+                    changeTemperature(i);
+                }
+                default -> {
+                }
+            }
+            tally.iterations++;
+        }
+    }
+
+    private void changeTemperature(int i) {
+        if (rand[i].nextBoolean()) {
+            celsius[i] += rand[i].nextInt(-10, 11);
+        }
+    }
+
+    private void changeWorkIntensity(int i) {
+        if (rand[i].nextBoolean()) {
+            intensity[i] = rand[i].nextInt(20, 1000) * 100;
+        }
+    }
+
+    /**
+     * Drink from an employee's container (same rules of {@link enterprise.glassjoke.container.LiquidContainer}: liquid
+     * types are drank in order, and if the amount is greater or equal the current volume, it drinks everything - but
+     * the employee remains thirsty).
+     *
+     * @return How much was drank
+     */
+    private int consume(int i, int amount) {
+        int base = i * LIQUID_TYPES;
+        int currentVolume = volume[i];
+        if (amount >= currentVolume) {
+            Arrays.fill(amounts, base, base + LIQUID_TYPES, 0);
+            volume[i] = 0;
+            return currentVolume;
+        }
+        int remaining = amount;
+        for (int t = base; t < base + LIQUID_TYPES && remaining > 0; t++) {
+            int consumed = Math.min(amounts[t], remaining);
+            amounts[t] -= consumed;
+            remaining -= consumed;
+        }
+        volume[i] = currentVolume - amount;
+        thirsty[i] = false;
+        return amount;
+    }
+
+    /**
+     * A working day simulated one moment at a time.
+     */
+    public class SteppedWorkingDay {
+
+        private final int moments;
+        private final Tally tally;
+        private int moment;
+
+        private SteppedWorkingDay() {
+            int max = 0;
+            for (int s : momentsPerSchedule) {
+                max = Math.max(max, s);
+            }
+            this.moments = max;
+            this.tally = new Tally();
+            this.moment = 0;
+        }
+
+        /**
+         * Check if there are moments left
+         *
+         * @return true if the working day is over, false otherwise
+         */
+        public boolean isOver() {
+            return moment >= moments;
+        }
+
+        /**
+         * Count how many employees need a refill at the current moment (they're thirsty and their container is empty)
+         *
+         * @return The number of refills needed
+         */
+        public int countRefillsNeeded() {
+            int needed = 0;
+            for (int i = 0; i < size; i++) {
+                if (moment < momentsPerSchedule[schedule[i]] && thirsty[i] && volume[i] == 0) {
+                    needed++;
+                }
+            }
+            return needed;
+        }
+
+        /**
+         * Simulate the current moment and advance to the next one.
+         *
+         * @param refills How many refills the interns can do: the employees that need a refill get it in order (the
+         * first employee first), and the others don't drink in this moment
+         */
+        public void simulateMoment(int refills) {
+            if (isOver()) {
+                throw new IllegalStateException("The working day is over");
+            }
+            OfficeKernel.this.simulateMoment(0, size, moment, refills, tally);
+            moment++;
+        }
+
+        /**
+         * Get the report of the moments simulated so far
+         *
+         * @return The report
+         */
+        public WorkingDayReport getReport() {
+            return tally.toReport(size);
+        }
+    }
+
+    /**
+     * Splits the population in halves until the range is small enough, then simulates it.
+     */
+    private class SimulationTask extends RecursiveTask<WorkingDayReport> {
+
+        private final int start, end, threshold;
+
+        SimulationTask(int start, int end, int threshold) {
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected WorkingDayReport compute() {
+            if (end - start <= threshold) {
+                return simulateRange(start, end);
+            }
+            int middle = (start + end) >>> 1;
+            SimulationTask left = new SimulationTask(start, middle, threshold);
+            left.fork();
+            WorkingDayReport right = new SimulationTask(middle, end, threshold).compute();
+            return left.join().combine(right);
+        }
+    }
+
+    /**
+     * Counters of a range of employees.
+     */
+    private static class Tally {
+
+        long iterations;
+        long drinks;
+        long internCalls;
+        long milliLitersConsumed;
+        long milliLitersRefilled;
+
+        WorkingDayReport toReport(int employees) {
+            return new WorkingDayReport(employees, iterations, drinks, internCalls, milliLitersConsumed,
+                                        milliLitersRefilled);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package enterprise.glassjoke.kernel;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.factory.TimePassageManagerFactory;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.thirsty.RoomTemperature;
+import enterprise.glassjoke.thirsty.ThirstyFactor;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.thirsty.WorkIntensity;
+import enterprise.glassjoke.time.TimePassageManager;
+import enterprise.glassjoke.work.WorkingSchedule;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+/**
+ * Builder for office kernels.
+ *
+ * Employees can be added from existing objects (their state is copied to the kernel's arrays, so the objects can be
+ * discarded afterwards), or in bulk, copying the state of prototypes - which is the way to go for offices with millions
+ * of employees, as no object is created for them.
+ *
+ * Only thirsty factor managers of class {@link ThirstyFactorManager} (not subclasses), with at most one room
+ * temperature and one work intensity, are supported.
+ *
+ * @author hkotsubo
+ */
+public class OfficeKernelBuilder {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private boolean[] thirsty;
+    private int[] capacity;
+    private int[] volume;
+    private int[] amounts;
+    private int[] schedule;
+    private byte[] factors;
+    private double[] celsius;
+    private int[] intensity;
+    private RandomGenerator[] rand;
+
+    // all the different schedules, and their indexes
+    private final Map<WorkingSchedule, Integer> schedules;
+
+    private TimePassageManager<LocalTime> timePassageManager;
+
+    // how many threads (zero means "use the common fork-join pool")
+    private int parallelism;
+
+    // if set, each employee gets a random stream (the employee's index is the stream number)
+    private RandomnessProvider randomnessProvider;
+    private long firstStreamId;
+
+    public OfficeKernelBuilder() {
+        this.schedules = new IdentityHashMap<>();
+        reset();
+        this.timePassageManager = TimePassageManagerFactory.newFactory().createOneHourTimePassageManager();
+        this.parallelism = 0;
+        this.randomnessProvider = null;
+        this.firstStreamId = 0;
+    }
+
+    /**
+     * Add an employee, copying the state of their objects.
+     *
+     * The kernel uses the thirsty factor manager's random generator (not a copy of it), unless a randomness provider
+     * is set.
+     *
+     * @param employee The employee
+     * @param liquidContainer The employee's liquid container
+     * @param workingSchedule The employee's working schedule
+     * @param thirstyFactorManager The employee's thirsty factor manager
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder addEmployee(Employee employee, LiquidContainer liquidContainer,
+            WorkingSchedule workingSchedule, ThirstyFactorManager thirstyFactorManager) {
+        Objects.requireNonNull(employee, "employee can't be null");
+        Objects.requireNonNull(liquidContainer, "liquid container can't be null");
+        Objects.requireNonNull(workingSchedule, "working schedule can't be null");
+        Objects.requireNonNull(thirstyFactorManager, "thirsty factor manager can't be null");
+        int i = add(liquidContainer, workingSchedule, thirstyFactorManager);
+        thirsty[i] = employee.isQuietlyThirsty();
+        rand[i] = thirstyFactorManager.getRandomGenerator();
+        return this;
+    }
+
+    /**
+     * Add many employees, all of them starting with the same state of the prototypes.
+     *
+     * The employees start thirsty (as new employees always do). Each one gets their own random generator: a stream of
+     * the randomness provider (if it's set), or an unseeded one.
+     *
+     * @param count How many employees to add
+     * @param liquidContainer The prototype of the liquid containers
+     * @param workingSchedule The working schedule
+     * @param thirstyFactorManager The prototype of the thirsty factor managers
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder addEmployees(int count, LiquidContainer liquidContainer, WorkingSchedule workingSchedule,
+            ThirstyFactorManager thirstyFactorManager) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+        Objects.requireNonNull(liquidContainer, "liquid container can't be null");
+        Objects.requireNonNull(workingSchedule, "working schedule can't be null");
+        Objects.requireNonNull(thirstyFactorManager, "thirsty factor manager can't be null");
+        if (count == 0) {
+            return this;
+        }
+        int first = add(liquidContainer, workingSchedule, thirstyFactorManager);
+        int end = first + count;
+        ensureCapacity(end);
+        Arrays.fill(capacity, first + 1, end, capacity[first]);
+        Arrays.fill(volume, first + 1, end, volume[first]);
+        Arrays.fill(schedule, first + 1, end, schedule[first]);
+        Arrays.fill(factors, first + 1, end, factors[first]);
+        Arrays.fill(celsius, first + 1, end, celsius[first]);
+        Arrays.fill(intensity, first + 1, end, intensity[first]);
+        for (int i = first + 1; i < end; i++) {
+            System.arraycopy(amounts, first * OfficeKernel.LIQUID_TYPES, amounts, i * OfficeKernel.LIQUID_TYPES,
+                             OfficeKernel.LIQUID_TYPES);
+        }
+        Arrays.fill(thirsty, first, end, true);
+        // the random generators are assigned when the kernel is built
+        Arrays.fill(rand, first, end, null);
+        size = end;
+        return this;
+    }
+
+    /**
+     * Set how time passes during the working day (default: one hour at a time)
+     *
+     * @param timePassageManager The time passage manager
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder withTimePassageManager(TimePassageManager<LocalTime> timePassageManager) {
+        this.timePassageManager = Objects.requireNonNull(timePassageManager, "time passage manager can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many threads are used (default: zero, which means "use the common fork-join pool"). If it's 1, the
+     * kernel runs in the caller's thread (useful when many kernels run in parallel).
+     *
+     * @param parallelism The number of threads
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder withParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism can't be negative");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the randomness provider. If set, each employee gets the random stream whose number is the employee's index,
+     * so the results don't depend on anything else (including the number of threads).
+     *
+     * @param randomnessProvider The randomness provider
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder withRandomnessProvider(RandomnessProvider randomnessProvider) {
+        return withRandomnessProvider(randomnessProvider, 0);
+    }
+
+    /**
+     * Set the randomness provider, and the stream number of the first employee (the next ones get the following
+     * streams). Use it when the kernel has just a part of a larger population, so each employee gets the same stream
+     * they'd get if the whole population was in the same kernel.
+     *
+     * @param randomnessProvider The randomness provider
+     * @param firstStreamId The stream number of the first employee
+     *
+     * @return This builder
+     */
+    public OfficeKernelBuilder withRandomnessProvider(RandomnessProvider randomnessProvider, long firstStreamId) {
+        this.randomnessProvider = Objects.requireNonNull(randomnessProvider, "randomness provider can't be null");
+        this.firstStreamId = firstStreamId;
+        return this;
+    }
+
+    /**
+     * Build the office kernel. Afterwards, this builder is empty again.
+     *
+     * @return The office kernel
+     */
+    public OfficeKernel build() {
+        WorkingSchedule[] scheduleTable = new WorkingSchedule[schedules.size()];
+        schedules.forEach((workingSchedule, index) -> scheduleTable[index] = workingSchedule);
+        int[] momentsPerSchedule = new int[scheduleTable.length];
+        for (int s = 0; s < scheduleTable.length; s++) {
+            LocalTime currentTime = scheduleTable[s].getStart();
+            while (scheduleTable[s].inWorkingHours(currentTime)) {
+                momentsPerSchedule[s]++;
+                currentTime = timePassageManager.nextMoment(currentTime);
+            }
+        }
+        if (randomnessProvider != null) {
+            for (int i = 0; i < size; i++) {
+                rand[i] = randomnessProvider.streamFor(firstStreamId + i);
+            }
+        } else {
+            RandomnessProvider unseeded = null;
+            for (int i = 0; i < size; i++) {
+                if (rand[i] == null) {
+                    unseeded = unseeded != null ? unseeded : RandomnessProvider.unseeded();
+                    rand[i] = unseeded.nextStream();
+                }
+            }
+        }
+        OfficeKernel kernel = new OfficeKernel(size, trim(thirsty), trim(capacity), trim(volume),
+                Arrays.copyOf(amounts, size * OfficeKernel.LIQUID_TYPES), trim(schedule), Arrays.copyOf(factors, size),
+                Arrays.copyOf(celsius, size), trim(intensity), Arrays.copyOf(rand, size), momentsPerSchedule,
+                parallelism);
+        reset();
+        return kernel;
+    }
+
+    /**
+     * Add an employee's container, schedule and thirsty factors to the arrays.
+     *
+     * @return The employee's index
+     */
+    private int add(LiquidContainer liquidContainer, WorkingSchedule workingSchedule,
+            ThirstyFactorManager thirstyFactorManager) {
+        if (thirstyFactorManager.getClass() != ThirstyFactorManager.class) {
+            throw new IllegalOfficePopulationException("The kernel can't simulate thirsty factor manager "
+                    + thirstyFactorManager.getClass().getName());
+        }
+        ensureCapacity(size + 1);
+        int i = size;
+        byte flags = 0;
+        celsius[i] = BatchThirstyEvaluator.NO_ROOM_TEMPERATURE;
+        intensity[i] = BatchThirstyEvaluator.NO_WORK_INTENSITY;
+        for (ThirstyFactor factor : thirstyFactorManager.getFactors()) {
+            if (factor instanceof RoomTemperature roomTemperature && (flags & OfficeKernel.ROOM_TEMPERATURE) == 0) {
+                flags |= OfficeKernel.ROOM_TEMPERATURE;
+                celsius[i] = roomTemperature.getCelsius();
+            } else if (factor instanceof WorkIntensity workIntensity && (flags & OfficeKernel.WORK_INTENSITY) == 0) {
+                // if there's no room temperature yet, work intensity comes first
+                flags |= (flags & OfficeKernel.ROOM_TEMPERATURE) == 0
+                        ? OfficeKernel.WORK_INTENSITY | OfficeKernel.INTENSITY_FIRST : OfficeKernel.WORK_INTENSITY;
+                intensity[i] = workIntensity.getIntensity();
+            } else {
+                throw new IllegalOfficePopulationException("The kernel can't simulate thirsty factor "
+                        + factor.getClass().getSimpleName() + " (or more than one of them)");
+            }
+        }
+        if (flags != (OfficeKernel.ROOM_TEMPERATURE | OfficeKernel.WORK_INTENSITY | OfficeKernel.INTENSITY_FIRST)) {
+            // the order only matters if there are both factors
+            flags &= ~OfficeKernel.INTENSITY_FIRST;
+        }
+        factors[i] = flags;
+        capacity[i] = liquidContainer.getCapacity();
+        volume[i] = liquidContainer.getCurrentVolume();
+        for (Map.Entry<LiquidType, Integer> content : liquidContainer.getContents().entrySet()) {
+            amounts[i * OfficeKernel.LIQUID_TYPES + content.getKey().ordinal()] = content.getValue();
+        }
+        schedule[i] = schedules.computeIfAbsent(workingSchedule, s -> schedules.size());
+        size++;
+        return i;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > capacity.length) {
+            grow(Math.max(minCapacity, capacity.length + (capacity.length >> 1)));
+        }
+    }
+
+    private void reset() {
+        size = 0;
+        schedules.clear();
+        thirsty = new boolean[INITIAL_CAPACITY];
+        capacity = new int[INITIAL_CAPACITY];
+        volume = new int[INITIAL_CAPACITY];
+        amounts = new int[INITIAL_CAPACITY * OfficeKernel.LIQUID_TYPES];
+        schedule = new int[INITIAL_CAPACITY];
+        factors = new byte[INITIAL_CAPACITY];
+        celsius = new double[INITIAL_CAPACITY];
+        intensity = new int[INITIAL_CAPACITY];
+        rand = new RandomGenerator[INITIAL_CAPACITY];
+    }
+
+    private void grow(int newCapacity) {
+        thirsty = Arrays.copyOf(thirsty, newCapacity);
+        capacity = Arrays.copyOf(capacity, newCapacity);
+        volume = Arrays.copyOf(volume, newCapacity);
+        amounts = Arrays.copyOf(amounts, newCapacity * OfficeKernel.LIQUID_TYPES);
+        schedule = Arrays.copyOf(schedule, newCapacity);
+        factors = Arrays.copyOf(factors, newCapacity);
+        celsius = Arrays.copyOf(celsius, newCapacity);
+        intensity = Arrays.copyOf(intensity, newCapacity);
+        rand = Arrays.copyOf(rand, newCapacity);
+    }
+
+    private boolean[] trim(boolean[] array) {
+        return Arrays.copyOf(array, size);
+    }
+
+    private int[] trim(int[] array) {
+        return Arrays.copyOf(array, size);
+    }
+}
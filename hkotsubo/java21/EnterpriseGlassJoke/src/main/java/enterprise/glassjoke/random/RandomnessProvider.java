@@ -0,0 +1,84 @@
+package enterprise.glassjoke.random;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides independent random streams, all derived from a single seed.
+ *
+ * Each office entity (or shard of the population) should use its own stream, identified by a number. The stream with
+ * a given number is always the same, no matter which thread asks for it or in which order the streams are requested. So
+ * a simulation that runs in parallel produces exactly the same results as a sequential one with the same seed.
+ *
+ * The stream number N is the same generator obtained by calling {@link SplitMixRandom#split()} N + 1 times on a
+ * {@link SplitMixRandom} created with the provider's seed - but it's computed directly, without creating all the
+ * previous ones.
+ *
+ * This class is thread-safe, but the generators it returns are not.
+ *
+ * @author hkotsubo
+ */
+public class RandomnessProvider {
+
+    private final long seed;
+
+    // next stream returned by nextStream()
+    private final AtomicLong nextStreamId;
+
+    /**
+     * Create a provider with the specified seed
+     *
+     * @param seed The seed
+     */
+    public RandomnessProvider(long seed) {
+        this.seed = seed;
+        this.nextStreamId = new AtomicLong();
+    }
+
+    /**
+     * Create a provider with a random seed (use it when you don't care about reproducing the results)
+     *
+     * @return The provider
+     */
+    public static RandomnessProvider unseeded() {
+        return new RandomnessProvider(new SecureRandom().nextLong());
+    }
+
+    /**
+     * Get the seed from which all streams are derived
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the random stream with the specified number.
+     *
+     * Each call returns a new generator, always starting at the same state.
+     *
+     * @param streamId The stream's number (for example, the index of the entity in the population)
+     *
+     * @return The random generator
+     */
+    public SplitMixRandom streamFor(long streamId) {
+        // a split consumes two values from the source: the first one is the seed, the second defines the gamma
+        long sourceSeed = this.seed + 2 * streamId * SplitMixRandom.GOLDEN_GAMMA;
+        long newSeed = SplitMixRandom.mix64(sourceSeed + SplitMixRandom.GOLDEN_GAMMA);
+        long newGamma = SplitMixRandom.mixGamma(SplitMixRandom.mix64(sourceSeed + 2 * SplitMixRandom.GOLDEN_GAMMA));
+        return new SplitMixRandom(newSeed, newGamma);
+    }
+
+    /**
+     * Get the next stream that wasn't returned by this method yet (the first call returns the stream zero, then one,
+     * and so on).
+     *
+     * Only use it when the order of the calls is deterministic, otherwise use {@link #streamFor(long)}.
+     *
+     * @return The random generator
+     */
+    public SplitMixRandom nextStream() {
+        return streamFor(nextStreamId.getAndIncrement());
+    }
+}
@@ -0,0 +1,124 @@
+package enterprise.glassjoke.random;
+
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+
+/**
+ * A splittable random number generator, using the same algorithm (SplitMix64) as {@link java.util.SplittableRandom}.
+ *
+ * Unlike {@link java.util.SplittableRandom}, the generator's state (seed and gamma) is available, so it can be saved and
+ * restored later.
+ *
+ * Instances are not thread-safe: each thread (or better, each office entity) must have its own generator. Use
+ * {@link #split()} or {@link RandomnessProvider} to create independent generators.
+ *
+ * @author hkotsubo
+ */
+public class SplitMixRandom implements RandomGenerator.SplittableGenerator {
+
+    // the default gamma, also used to derive generators from a seed
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    // the increment added to the seed at each step, it's always odd
+    private final long gamma;
+
+    /**
+     * Create a generator with the specified seed
+     *
+     * @param seed The seed
+     */
+    public SplitMixRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Create a generator with the specified state, as returned by {@link #getSeed()} and {@link #getGamma()}
+     *
+     * @param seed The seed
+     * @param gamma The gamma, it must be odd
+     */
+    public SplitMixRandom(long seed, long gamma) {
+        if ((gamma & 1L) == 0) {
+            throw new IllegalArgumentException("gamma must be odd");
+        }
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Get the current seed (part of the generator's state)
+     *
+     * @return The current seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the gamma (part of the generator's state)
+     *
+     * @return The gamma
+     */
+    public long getGamma() {
+        return gamma;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(seed += gamma);
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(seed += gamma);
+    }
+
+    @Override
+    public SplitMixRandom split() {
+        return split(this);
+    }
+
+    @Override
+    public SplitMixRandom split(SplittableGenerator source) {
+        return new SplitMixRandom(source.nextLong(), mixGamma(source.nextLong()));
+    }
+
+    @Override
+    public Stream<SplittableGenerator> splits(long streamSize) {
+        return splits(streamSize, this);
+    }
+
+    @Override
+    public Stream<SplittableGenerator> splits(SplittableGenerator source) {
+        return splits(Long.MAX_VALUE, source);
+    }
+
+    @Override
+    public Stream<SplittableGenerator> splits(long streamSize, SplittableGenerator source) {
+        if (streamSize < 0) {
+            throw new IllegalArgumentException("stream size can't be negative");
+        }
+        return Stream.<SplittableGenerator>generate(() -> split(source)).limit(streamSize);
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        // avoid gammas with too few bit transitions, they generate poor sequences
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -0,0 +1,120 @@
+package enterprise.glassjoke.repository;
+
+import enterprise.glassjoke.exception.InvalidOfficeEntityNameException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The first and last names that can be combined to create the office entities names.
+ *
+ * Names are interned, and each table has no duplicates. The number of combinations (first names times last names)
+ * can't be greater than {@link Integer#MAX_VALUE}, which is a lot more than any office needs.
+ *
+ * Each name must be a single word (only letters): the generated names are words separated by spaces, so a name such as
+ * "Mary Ann" could be confused with the first name "Mary" followed by the middle name "Ann".
+ *
+ * Tables are immutable.
+ *
+ * @author hkotsubo
+ */
+public class NameTable {
+
+    private final String[] firstNames;
+    private final String[] lastNames;
+
+    /**
+     * Create a table with the specified names (duplicates are ignored)
+     *
+     * @param firstNames The first names
+     * @param lastNames The last names
+     *
+     * @throws InvalidOfficeEntityNameException If any name is not a single word
+     */
+    public NameTable(Collection<String> firstNames, Collection<String> lastNames) {
+        this.firstNames = toTable(firstNames, "first");
+        this.lastNames = toTable(lastNames, "last");
+        if ((long) this.firstNames.length * this.lastNames.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many combinations of first and last names");
+        }
+    }
+
+    /**
+     * Load the names from text files, with one name (a single word) per line (blank lines and lines starting with # are
+     * ignored)
+     *
+     * @param firstNamesFile The file with the first names
+     * @param lastNamesFile The file with the last names
+     *
+     * @return The table
+     *
+     * @throws IOException If any of the files can't be read
+     * @throws InvalidOfficeEntityNameException If any name is not a single word
+     */
+    public static NameTable load(Path firstNamesFile, Path lastNamesFile) throws IOException {
+        return new NameTable(readNames(firstNamesFile), readNames(lastNamesFile));
+    }
+
+    private static Set<String> readNames(Path file) throws IOException {
+        Set<String> names = new LinkedHashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String name = line.strip();
+                if (!name.isEmpty() && !name.startsWith("#")) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String[] toTable(Collection<String> names, String kind) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String name : names) {
+            if (!isValidName(name)) {
+                throw new InvalidOfficeEntityNameException("Invalid " + kind + " name: " + name);
+            }
+            unique.add(name.intern());
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one " + kind + " name");
+        }
+        return unique.toArray(String[]::new);
+    }
+
+    // the same rules of the office entities names, but without spaces (so names made of them are never ambiguous)
+    private static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && name.codePoints().allMatch(Character::isLetter);
+    }
+
+    public int getFirstNamesCount() {
+        return firstNames.length;
+    }
+
+    public int getLastNamesCount() {
+        return lastNames.length;
+    }
+
+    public String getFirstName(int index) {
+        return firstNames[index];
+    }
+
+    public String getLastName(int index) {
+        return lastNames[index];
+    }
+
+    /**
+     * Get how many different names can be made with the first and last names
+     *
+     * @return The number of combinations
+     */
+    public int getCombinations() {
+        return firstNames.length * lastNames.length;
+    }
+}
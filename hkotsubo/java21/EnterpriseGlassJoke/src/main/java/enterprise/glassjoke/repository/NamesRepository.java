@@ -2,7 +2,8 @@ package enterprise.glassjoke.repository;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Repository that stores all possible office entities names.
@@ -19,13 +20,43 @@ public class NamesRepository {
                                                                  "Williams", "Smith", "Jones", "Davis", "Jackson", "Moore",
                                                                  "Taylor", "Miller", "Garcia", "Rodriguez", "Martinez");
 
-    private static final Random RAND = new Random();
+    // the lists never change, so the table can be shared
+    private static final NameTable NAME_TABLE = new NameTable(FIRST_NAMES, LAST_NAMES);
 
+    /**
+     * Get a random name, using the current thread's random generator (so it can be called by many threads without
+     * contention).
+     *
+     * @return The name
+     */
     public static String getRandomName() {
-        return String.format("%s %s", getRandomElement(FIRST_NAMES), getRandomElement(LAST_NAMES));
+        return getRandomName(ThreadLocalRandom.current());
     }
 
-    private static String getRandomElement(List<String> list) {
-        return list.get(RAND.nextInt(list.size()));
+    /**
+     * Get a random name, using the specified random generator (use a seeded one to get reproducible names).
+     *
+     * @param rand The random generator
+     *
+     * @return The name
+     */
+    public static String getRandomName(RandomGenerator rand) {
+        return getRandomElement(FIRST_NAMES, rand) + ' ' + getRandomElement(LAST_NAMES, rand);
+    }
+
+    /**
+     * Get a table with all the first and last names, to generate unique names (there are only a few hundred random
+     * names, so they repeat a lot in large offices).
+     *
+     * @return The name table
+     *
+     * @see UniqueNameGenerator
+     */
+    public static NameTable getNameTable() {
+        return NAME_TABLE;
+    }
+
+    private static String getRandomElement(List<String> list, RandomGenerator rand) {
+        return list.get(rand.nextInt(list.size()));
     }
 }
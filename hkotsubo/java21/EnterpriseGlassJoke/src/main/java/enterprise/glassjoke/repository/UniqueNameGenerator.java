@@ -0,0 +1,195 @@
+package enterprise.glassjoke.repository;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates names that are never repeated, for offices with millions of employees (as the names in the {@link NameTable}
+ * are single words, each name can be made in only one way).
+ *
+ * Each name is identified by a number, and that's all that needs to be stored: the first and last names are
+ * calculated from it (as indexes in the {@link NameTable}), and the string is built only when the name is read (see
+ * {@link #getName(long)}). When all combinations of first and last names are used, they're used again with middle
+ * names (taken from the first names), such as "Alice Bob Smith" or "Bob Carol Eve Jones": the more names, the more
+ * middle names, but it grows slowly (with 100 first names, a million generations need only three middle names).
+ *
+ * The combinations are used in a shuffled order (each identifier is multiplied by a number that has no common factors
+ * with the number of combinations, so there are no repetitions), so consecutive names don't look alike.
+ *
+ * Threads take blocks of identifiers at once, so they don't compete for each name. Therefore, with many threads, some
+ * identifiers are skipped (and the middle names appear earlier). With a single thread and the same random
+ * generator, the names are always the same.
+ *
+ * The generator is thread-safe.
+ *
+ * @author hkotsubo
+ */
+public class UniqueNameGenerator {
+
+    // identifiers taken at once by each thread
+    private static final int BLOCK_SIZE = 1024;
+
+    private final NameTable table;
+    private final long combinations;
+    private final long stride;
+    private final long offset;
+
+    private final AtomicLong nextBlock;
+    // the next identifier of the current thread's block, and the end of the block
+    private final ThreadLocal<long[]> blocks;
+
+    /**
+     * Create a generator that uses the combinations in a random order
+     *
+     * @param table The first and last names
+     */
+    public UniqueNameGenerator(NameTable table) {
+        this(table, RandomGenerator.getDefault());
+    }
+
+    /**
+     * Create a generator that uses the combinations in an order chosen by the random generator (use a seeded one to
+     * get reproducible names)
+     *
+     * @param table The first and last names
+     * @param rand The random generator (used only here, not when the names are generated)
+     */
+    public UniqueNameGenerator(NameTable table, RandomGenerator rand) {
+        this.table = Objects.requireNonNull(table, "name table can't be null");
+        Objects.requireNonNull(rand, "random generator can't be null");
+        this.combinations = table.getCombinations();
+        long chosen = 1 + rand.nextLong(Math.max(1, combinations - 1));
+        while (gcd(chosen, combinations) != 1) {
+            chosen++;
+        }
+        this.stride = chosen;
+        this.offset = rand.nextLong(combinations);
+        this.nextBlock = new AtomicLong();
+        this.blocks = ThreadLocal.withInitial(() -> new long[2]);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Get a new name
+     *
+     * @return The name
+     */
+    public String nextName() {
+        return getName(nextId());
+    }
+
+    /**
+     * Get the identifier of a new name (store it instead of the name, and build the name with {@link #getName(long)}
+     * only when needed)
+     *
+     * @return The identifier, never used before
+     */
+    public long nextId() {
+        long[] block = blocks.get();
+        if (block[0] == block[1]) {
+            block[0] = nextBlock.getAndAdd(BLOCK_SIZE);
+            block[1] = block[0] + BLOCK_SIZE;
+        }
+        return block[0]++;
+    }
+
+    /**
+     * Reserve identifiers for many names at once (they won't be returned by {@link #nextId()})
+     *
+     * @param count How many identifiers
+     *
+     * @return The first identifier (the others are the next {@code count - 1} numbers)
+     */
+    public long reserve(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count can't be negative");
+        }
+        return nextBlock.getAndAdd(count);
+    }
+
+    /**
+     * Build the name of an identifier
+     *
+     * @param id The identifier
+     *
+     * @return The name
+     */
+    public String getName(long id) {
+        requireValid(id);
+        int combination = combination(id);
+        String first = table.getFirstName(combination % table.getFirstNamesCount());
+        String last = table.getLastName(combination / table.getFirstNamesCount());
+        long generation = id / combinations;
+        if (generation == 0) {
+            return first + ' ' + last;
+        }
+        StringBuilder sb = new StringBuilder(first.length() + last.length() + 32).append(first);
+        appendMiddleNames(sb, generation);
+        return sb.append(' ').append(last).toString();
+    }
+
+    /**
+     * Write the number as digits in base "number of first names" (without a zero, so "Adam" and "Adam Adam" are
+     * different), each digit being a first name
+     */
+    private void appendMiddleNames(StringBuilder sb, long number) {
+        int base = table.getFirstNamesCount();
+        // the least significant digit comes first, so they're written backwards
+        int[] digits = new int[64];
+        int count = 0;
+        while (number > 0) {
+            digits[count++] = (int) ((number - 1) % base);
+            number = (number - 1) / base;
+        }
+        while (count > 0) {
+            sb.append(' ').append(table.getFirstName(digits[--count]));
+        }
+    }
+
+    public int getFirstNameIndex(long id) {
+        requireValid(id);
+        return combination(id) % table.getFirstNamesCount();
+    }
+
+    public int getLastNameIndex(long id) {
+        requireValid(id);
+        return combination(id) / table.getFirstNamesCount();
+    }
+
+    /**
+     * Get the generation of a name: the first one that uses each combination of first and last names is the first
+     * generation (without middle names), and so on
+     *
+     * @param id The identifier
+     *
+     * @return The generation, starting at 1
+     */
+    public long getGeneration(long id) {
+        requireValid(id);
+        return id / combinations + 1;
+    }
+
+    public NameTable getTable() {
+        return table;
+    }
+
+    private int combination(long id) {
+        // both are smaller than 2^31, so the product doesn't overflow
+        return (int) (((id % combinations) * stride + offset) % combinations);
+    }
+
+    private static void requireValid(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("invalid name identifier: " + id);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package enterprise.glassjoke.shard;
+
+import enterprise.glassjoke.work.WorkingDayReport;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Messages exchanged by the coordinator and the workers.
+ *
+ * When a worker connects, it sends its id, and the coordinator replies with {@link #SPEC} followed by the worker's
+ * {@link ShardSpec}. The worker creates its kernel and replies {@link #READY}. Then, for each working day:
+ *
+ * - the coordinator sends {@link #START_DAY}, and the worker replies with the number of refills its employees need at
+ * the first moment (or {@link #DAY_OVER} if there are no moments at all)
+ *
+ * - for each moment, the coordinator sends {@link #MOMENT} with the number of refills granted to the worker (the
+ * interns are shared by the whole office). The worker simulates the moment and replies with the number of refills
+ * needed at the next one (or {@link #DAY_OVER})
+ *
+ * - the coordinator sends {@link #END_DAY}, and the worker replies with its report of the day
+ *
+ * Finally, the coordinator sends {@link #SHUTDOWN}.
+ *
+ * @author hkotsubo
+ */
+final class ShardProtocol {
+
+    static final byte SPEC = 1;
+    static final byte START_DAY = 2;
+    static final byte MOMENT = 3;
+    static final byte END_DAY = 4;
+    static final byte SHUTDOWN = 5;
+
+    static final int READY = 0;
+    static final int DAY_OVER = -1;
+
+    private ShardProtocol() {
+    }
+
+    static void writeReport(DataOutputStream out, WorkingDayReport report) throws IOException {
+        out.writeInt(report.getEmployees());
+        out.writeLong(report.getIterations());
+        out.writeLong(report.getDrinks());
+        out.writeLong(report.getInternCalls());
+        out.writeLong(report.getMilliLitersConsumed());
+        out.writeLong(report.getMilliLitersRefilled());
+    }
+
+    static WorkingDayReport readReport(DataInputStream in) throws IOException {
+        return new WorkingDayReport(in.readInt(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                                    in.readLong());
+    }
+}
@@ -0,0 +1,129 @@
+package enterprise.glassjoke.shard;
+
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.factory.TimePassageManagerFactory;
+import enterprise.glassjoke.kernel.OfficeKernel;
+import enterprise.glassjoke.kernel.OfficeKernelBuilder;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.thirsty.ThirstyFactorBuilder;
+import enterprise.glassjoke.work.Interval;
+import enterprise.glassjoke.work.WorkingSchedule;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Describes the part of the office population that a worker simulates: employees from "from" (inclusive) to "to"
+ * (exclusive), all of them with the same liquid container, working schedule and thirsty factors.
+ *
+ * It's sent by the coordinator to each worker, and the worker creates its kernel from it.
+ *
+ * @author hkotsubo
+ */
+class ShardSpec {
+
+    private static final int NO_TIME = -1;
+
+    final int from, to;
+    final int capacity, initialVolume;
+    final LiquidContainerType containerType;
+    final int scheduleStart, scheduleEnd, intervalStart, intervalEnd;
+    // BatchThirstyEvaluator.NO_ROOM_TEMPERATURE and NO_WORK_INTENSITY if the employees aren't affected by the factor
+    final double celsius;
+    final int intensity;
+    final long seed;
+    final long timeStepSeconds;
+
+    ShardSpec(int from, int to, int capacity, int initialVolume, LiquidContainerType containerType,
+            WorkingSchedule schedule, double celsius, int intensity, long seed, long timeStepSeconds) {
+        this(from, to, capacity, initialVolume, containerType, schedule.getStart().toSecondOfDay(),
+             schedule.getEnd().toSecondOfDay(),
+             schedule.getInterval() == null ? NO_TIME : schedule.getInterval().getStart().toSecondOfDay(),
+             schedule.getInterval() == null ? NO_TIME : schedule.getInterval().getEnd().toSecondOfDay(),
+             celsius, intensity, seed, timeStepSeconds);
+    }
+
+    private ShardSpec(int from, int to, int capacity, int initialVolume, LiquidContainerType containerType,
+            int scheduleStart, int scheduleEnd, int intervalStart, int intervalEnd, double celsius, int intensity,
+            long seed, long timeStepSeconds) {
+        this.from = from;
+        this.to = to;
+        this.capacity = capacity;
+        this.initialVolume = initialVolume;
+        this.containerType = containerType;
+        this.scheduleStart = scheduleStart;
+        this.scheduleEnd = scheduleEnd;
+        this.intervalStart = intervalStart;
+        this.intervalEnd = intervalEnd;
+        this.celsius = celsius;
+        this.intensity = intensity;
+        this.seed = seed;
+        this.timeStepSeconds = timeStepSeconds;
+    }
+
+    /**
+     * Create the same spec for another range of employees
+     */
+    ShardSpec withRange(int from, int to) {
+        return new ShardSpec(from, to, capacity, initialVolume, containerType, scheduleStart, scheduleEnd,
+                             intervalStart, intervalEnd, celsius, intensity, seed, timeStepSeconds);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(from);
+        out.writeInt(to);
+        out.writeInt(capacity);
+        out.writeInt(initialVolume);
+        out.writeByte(containerType.ordinal());
+        out.writeInt(scheduleStart);
+        out.writeInt(scheduleEnd);
+        out.writeInt(intervalStart);
+        out.writeInt(intervalEnd);
+        out.writeDouble(celsius);
+        out.writeInt(intensity);
+        out.writeLong(seed);
+        out.writeLong(timeStepSeconds);
+    }
+
+    static ShardSpec read(DataInputStream in) throws IOException {
+        return new ShardSpec(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                             LiquidContainerType.values()[in.readByte()], in.readInt(), in.readInt(), in.readInt(),
+                             in.readInt(), in.readDouble(), in.readInt(), in.readLong(), in.readLong());
+    }
+
+    /**
+     * Create the kernel with this part of the population. Each employee gets the random stream of their position in
+     * the whole population, so the results are the same no matter how the population is split.
+     */
+    OfficeKernel buildKernel() {
+        LiquidContainerBuilder containerBuilder = new LiquidContainerBuilder()
+                .withCapacity(capacity)
+                .withType(containerType);
+        if (initialVolume != 0) {
+            containerBuilder.addContent(LiquidType.WATER, initialVolume);
+        }
+        ThirstyFactorBuilder factorBuilder = new ThirstyFactorBuilder();
+        if (!Double.isNaN(celsius)) {
+            factorBuilder.addRoomTemperatureCelsius(celsius);
+        }
+        if (intensity != BatchThirstyEvaluator.NO_WORK_INTENSITY) {
+            factorBuilder.addWorkIntensity(intensity);
+        }
+        Interval interval = intervalStart == NO_TIME ? null
+                : new Interval(LocalTime.ofSecondOfDay(intervalStart), LocalTime.ofSecondOfDay(intervalEnd));
+        WorkingSchedule schedule = new WorkingSchedule(LocalTime.ofSecondOfDay(scheduleStart),
+                                                       LocalTime.ofSecondOfDay(scheduleEnd), interval);
+        return new OfficeKernelBuilder()
+                .withParallelism(1)
+                .withTimePassageManager(TimePassageManagerFactory.newFactory()
+                        .createTimePassageManager(timeStepSeconds, ChronoUnit.SECONDS))
+                .withRandomnessProvider(new RandomnessProvider(seed), from)
+                .addEmployees(to - from, containerBuilder.build(), schedule, factorBuilder.build())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package enterprise.glassjoke.shard;
+
+import enterprise.glassjoke.exception.ShardedSimulationException;
+import enterprise.glassjoke.kernel.OfficeKernel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A worker process of a sharded simulation: it simulates a part of the office population, following the
+ * coordinator's orders (see {@link ShardProtocol}).
+ *
+ * Workers are started by {@link ShardedOfficeSimulator}, there's no need to start them by hand.
+ *
+ * @author hkotsubo
+ */
+public class ShardWorker {
+
+    private static final Logger logger = LogManager.getLogger(ShardWorker.class.getSimpleName());
+
+    private ShardWorker() {
+    }
+
+    /**
+     * Run the worker
+     *
+     * @param args The coordinator's socket path and the worker's id
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardWorker <coordinator socket path> <worker id>");
+            System.exit(2);
+        }
+        try {
+            run(args[0], Integer.parseInt(args[1]));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Worker {} failed", args[1], e);
+            System.exit(1);
+        }
+    }
+
+    private static void run(String socketPath, int workerId) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(workerId);
+            out.flush();
+
+            if (in.readByte() != ShardProtocol.SPEC) {
+                throw new ShardedSimulationException("Expected the shard spec from the coordinator");
+            }
+            ShardSpec spec = ShardSpec.read(in);
+            OfficeKernel kernel = spec.buildKernel();
+            logger.info("Worker {} is ready with employees {} to {}", workerId, spec.from, spec.to - 1);
+            out.writeInt(ShardProtocol.READY);
+            out.flush();
+
+            OfficeKernel.SteppedWorkingDay day = null;
+            while (true) {
+                byte command = in.readByte();
+                switch (command) {
+                    case ShardProtocol.START_DAY -> {
+                        day = kernel.startSteppedWorkingDay();
+                        out.writeInt(day.isOver() ? ShardProtocol.DAY_OVER : day.countRefillsNeeded());
+                    }
+                    case ShardProtocol.MOMENT -> {
+                        day.simulateMoment(in.readInt());
+                        out.writeInt(day.isOver() ? ShardProtocol.DAY_OVER : day.countRefillsNeeded());
+                    }
+                    case ShardProtocol.END_DAY ->
+                        ShardProtocol.writeReport(out, day.getReport());
+                    case ShardProtocol.SHUTDOWN -> {
+                        logger.info("Worker {} is going home", workerId);
+                        return;
+                    }
+                    default ->
+                        throw new ShardedSimulationException("Unknown command from the coordinator: " + command);
+                }
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package enterprise.glassjoke.shard;
+
+import enterprise.glassjoke.exception.ShardedSimulationException;
+import enterprise.glassjoke.work.MultiDayReport;
+import enterprise.glassjoke.work.WorkingDayReport;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Simulates an office that doesn't fit in a single JVM, splitting the population across many worker processes.
+ *
+ * This simulator is the coordinator: it starts the workers as local processes (using the same Java installation and
+ * the classpath that has these classes), gives each one a part of the population, and then moves them all through the
+ * working day one moment at a time, over Unix-domain sockets. At each moment, the workers tell how many refills their
+ * employees need, and the coordinator shares the interns among them: if there aren't enough interns, the first
+ * employees (in the population's order) get the refills, and the others wait for the next moment. At the end of each
+ * day, the workers' reports are merged.
+ *
+ * Each employee has the random stream of their position in the whole population, so with unlimited interns the
+ * results are exactly the same of a single {@link enterprise.glassjoke.kernel.OfficeKernel} with the whole population,
+ * no matter how many workers there are.
+ *
+ * All employees are alike (same liquid container, working schedule and thirsty factors), see
+ * {@link ShardedOfficeSimulatorBuilder}.
+ *
+ * The workers log the same way of this JVM: they get all its Log4j system properties (such as
+ * "log4j2.configurationFile", set by the async-logging profile). Configurations that log to a file write each worker's
+ * logs to its own "worker-N" subdirectory of the log directory.
+ *
+ * Use {@link ShardedOfficeSimulatorBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class ShardedOfficeSimulator {
+
+    private static final Logger logger = LogManager.getLogger(ShardedOfficeSimulator.class.getSimpleName());
+
+    private static final long CONNECT_TIMEOUT_MILLIS = 60_000;
+
+    // where the file-based logging configurations write their logs
+    private static final String LOG_DIR_PROPERTY = "glassjoke.logDir";
+
+    private final ShardSpec spec;
+    private final int population;
+    private final int workers;
+    private final int numberOfInterns;
+    private final List<String> workerJvmOptions;
+    private final String workerClasspath;
+
+    ShardedOfficeSimulator(ShardSpec spec, int population, int workers, int numberOfInterns,
+            List<String> workerJvmOptions, String workerClasspath) {
+        this.spec = spec;
+        this.population = population;
+        this.workers = workers;
+        this.numberOfInterns = numberOfInterns;
+        this.workerJvmOptions = List.copyOf(workerJvmOptions);
+        this.workerClasspath = workerClasspath;
+    }
+
+    /**
+     * Start the workers, simulate some working days, and shut the workers down.
+     *
+     * @param workingDays How many working days to simulate
+     *
+     * @return The merged report of all workers
+     */
+    public MultiDayReport simulate(int workingDays) {
+        if (workingDays < 0) {
+            throw new IllegalArgumentException("working days can't be negative");
+        }
+        Path directory = null;
+        List<Process> processes = new ArrayList<>(workers);
+        Connection[] connections = new Connection[workers];
+        try {
+            directory = Files.createTempDirectory("glassjoke-shards");
+            Path socketPath = directory.resolve("coordinator.sock");
+            try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+                server.bind(UnixDomainSocketAddress.of(socketPath));
+                for (int w = 0; w < workers; w++) {
+                    processes.add(startWorker(socketPath, w));
+                }
+                acceptWorkers(server, processes, connections);
+            }
+            for (int w = 0; w < workers; w++) {
+                connections[w].out.writeByte(ShardProtocol.SPEC);
+                spec.withRange(firstEmployee(w), firstEmployee(w + 1)).write(connections[w].out);
+                connections[w].out.flush();
+            }
+            for (Connection connection : connections) {
+                if (connection.in.readInt() != ShardProtocol.READY) {
+                    throw new ShardedSimulationException("Worker " + connection.workerId + " is not ready");
+                }
+            }
+            logger.info("{} workers ready, simulating {} employees", workers, population);
+
+            MultiDayReport report = MultiDayReport.empty();
+            for (int day = 0; day < workingDays; day++) {
+                report = report.addDay(simulateWorkingDay(connections));
+            }
+            for (Connection connection : connections) {
+                connection.out.writeByte(ShardProtocol.SHUTDOWN);
+                connection.out.flush();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+            logger.info("Office totals: {}", report);
+            return report;
+        } catch (IOException e) {
+            throw new ShardedSimulationException("Communication with the workers failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardedSimulationException("Interrupted while waiting for the workers", e);
+        } finally {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+            processes.forEach(Process::destroy);
+            deleteDirectory(directory);
+        }
+    }
+
+    private WorkingDayReport simulateWorkingDay(Connection[] connections) throws IOException {
+        int[] refillsNeeded = new int[workers];
+        for (Connection connection : connections) {
+            connection.out.writeByte(ShardProtocol.START_DAY);
+            connection.out.flush();
+        }
+        for (int w = 0; w < workers; w++) {
+            refillsNeeded[w] = connections[w].in.readInt();
+        }
+        boolean anyMomentLeft = true;
+        while (anyMomentLeft) {
+            // all workers simulate the moment at the same time, then the coordinator waits for all of them
+            int internsLeft = numberOfInterns > 0 ? numberOfInterns : Integer.MAX_VALUE;
+            for (int w = 0; w < workers; w++) {
+                if (refillsNeeded[w] != ShardProtocol.DAY_OVER) {
+                    int granted = Math.min(refillsNeeded[w], internsLeft);
+                    internsLeft -= granted;
+                    connections[w].out.writeByte(ShardProtocol.MOMENT);
+                    connections[w].out.writeInt(granted);
+                    connections[w].out.flush();
+                }
+            }
+            anyMomentLeft = false;
+            for (int w = 0; w < workers; w++) {
+                if (refillsNeeded[w] != ShardProtocol.DAY_OVER) {
+                    refillsNeeded[w] = connections[w].in.readInt();
+                    anyMomentLeft |= refillsNeeded[w] != ShardProtocol.DAY_OVER;
+                }
+            }
+        }
+        WorkingDayReport report = WorkingDayReport.empty();
+        for (Connection connection : connections) {
+            connection.out.writeByte(ShardProtocol.END_DAY);
+            connection.out.flush();
+        }
+        for (Connection connection : connections) {
+            report = report.combine(ShardProtocol.readReport(connection.in));
+        }
+        logger.debug("Day totals: {}", report);
+        return report;
+    }
+
+    /**
+     * The first employee of a worker (the population is split in parts of almost the same size)
+     */
+    private int firstEmployee(int worker) {
+        return (int) ((long) population * worker / workers);
+    }
+
+    private Process startWorker(Path socketPath, int workerId) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(workerJvmOptions);
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            command.add("--add-modules=jdk.incubator.vector");
+        }
+        // Log4j's settings, whatever their names are ("log4j.configurationFile", "log4j2.configurationFile",
+        // "Log4jContextSelector", etc), so the workers log the same way
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.regionMatches(true, 0, "log4j", 0, "log4j".length())) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        // configurations that log to a file (such as log4j2-async.xml) use this directory: each worker gets its own, so
+        // they don't write to the same file of this JVM ("logs" is the default of log4j2-async.xml)
+        command.add("-D" + LOG_DIR_PROPERTY + "="
+                + Paths.get(System.getProperty(LOG_DIR_PROPERTY, "logs"), "worker-" + workerId));
+        command.add("-cp");
+        command.add(workerClasspath);
+        command.add(ShardWorker.class.getName());
+        command.add(socketPath.toString());
+        command.add(Integer.toString(workerId));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private void acceptWorkers(ServerSocketChannel server, List<Process> processes, Connection[] connections)
+            throws IOException, InterruptedException {
+        // don't wait forever for a worker that died before connecting
+        server.configureBlocking(false);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        int connected = 0;
+        while (connected < workers) {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                for (int w = 0; w < workers; w++) {
+                    if (connections[w] == null && !processes.get(w).isAlive()) {
+                        throw new ShardedSimulationException("Worker " + w + " exited with code "
+                                + processes.get(w).exitValue() + " before connecting");
+                    }
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new ShardedSimulationException("Timeout waiting for the workers to connect");
+                }
+                Thread.sleep(10);
+                continue;
+            }
+            channel.configureBlocking(true);
+            Connection connection = new Connection(channel);
+            int workerId = connection.in.readInt();
+            if (workerId < 0 || workerId >= workers || connections[workerId] != null) {
+                connection.close();
+                throw new ShardedSimulationException("Unexpected worker id: " + workerId);
+            }
+            connection.workerId = workerId;
+            connections[workerId] = connection;
+            connected++;
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory.resolve("coordinator.sock"));
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            logger.warn("Can't delete {}", directory, e);
+        }
+    }
+
+    /**
+     * The connection with a worker.
+     */
+    private static class Connection {
+
+        final SocketChannel channel;
+        final DataInputStream in;
+        final DataOutputStream out;
+        int workerId;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Can't close the connection with worker {}", workerId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package enterprise.glassjoke.shard;
+
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.entity.factory.IntervalFactory;
+import enterprise.glassjoke.entity.factory.WorkingScheduleFactory;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import enterprise.glassjoke.exception.ShardedSimulationException;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.thirsty.RoomTemperature;
+import enterprise.glassjoke.thirsty.ThirstyFactor;
+import enterprise.glassjoke.thirsty.ThirstyFactorBuilder;
+import enterprise.glassjoke.thirsty.WorkIntensity;
+import enterprise.glassjoke.time.TimeProvider;
+import enterprise.glassjoke.work.WorkingSchedule;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Builder for sharded office simulations.
+ *
+ * By default, 2 workers simulate an office of 1000 employees, working 9-to-5 (with lunch at noon), time passes one hour
+ * at a time, and each employee has a 750ml glass that starts with 500ml of water. There are no thirsty factors, and
+ * the number of interns is unlimited.
+ *
+ * The population is homogeneous: all employees have the same kind of liquid container, the same working schedule and
+ * the same thirsty factors (only their random streams are different). That's what keeps the spec sent to each worker
+ * small, and it's enough for the big offices this simulator is for. Offices with different kinds of employees must be
+ * simulated in a single JVM, by {@link enterprise.glassjoke.work.OfficeSimulatorBuilder}.
+ *
+ * Workers use the same classpath of the current JVM, unless another one is set. If the classes were loaded by some
+ * other class loader (such as the one of {@code mvn exec:java}, whose {@code java.class.path} is just Maven's
+ * launcher), the classpath comes from that class loader instead.
+ *
+ * @author hkotsubo
+ */
+public class ShardedOfficeSimulatorBuilder {
+
+    private int workers;
+    private int population;
+    private int capacity;
+    private int initialVolume;
+    private LiquidContainerType containerType;
+    private WorkingSchedule workingSchedule;
+    private ThirstyFactorBuilder thirstyFactorBuilder;
+    private Duration timeStep;
+    private int numberOfInterns;
+    private RandomnessProvider randomnessProvider;
+    private final List<String> workerJvmOptions;
+    // null means "find out where the classes came from"
+    private String workerClasspath;
+
+    public ShardedOfficeSimulatorBuilder() {
+        this.workers = 2;
+        this.population = 1000;
+        this.capacity = 750;
+        this.initialVolume = 500;
+        this.containerType = LiquidContainerType.GLASS;
+        this.workingSchedule = WorkingScheduleFactory.newFactory().createNineToFiveSchedule(
+                IntervalFactory.newFactory().createIntervalWithMaxDuration(new TimeProvider().middleOfDay()));
+        this.thirstyFactorBuilder = new ThirstyFactorBuilder();
+        this.timeStep = Duration.ofHours(1);
+        this.numberOfInterns = 0;
+        this.randomnessProvider = null;
+        this.workerJvmOptions = new ArrayList<>();
+        this.workerClasspath = null;
+    }
+
+    /**
+     * Set how many worker processes are started
+     *
+     * @param workers The number of workers
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withWorkers(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("there must be at least one worker");
+        }
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Set how many employees the office has
+     *
+     * @param population The number of employees
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withPopulation(int population) {
+        if (population <= 0) {
+            throw new IllegalArgumentException("population must be positive");
+        }
+        this.population = population;
+        return this;
+    }
+
+    /**
+     * Set the capacity of the liquid containers, in milliliters
+     *
+     * @param capacity The capacity
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Set how much water the liquid containers have when the simulation starts, in milliliters
+     *
+     * @param initialVolume The initial volume
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withInitialVolume(int initialVolume) {
+        this.initialVolume = initialVolume;
+        return this;
+    }
+
+    /**
+     * Set the type of the liquid containers
+     *
+     * @param containerType The liquid container type
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withContainerType(LiquidContainerType containerType) {
+        this.containerType = Objects.requireNonNull(containerType, "container type can't be null");
+        return this;
+    }
+
+    /**
+     * Set the working schedule of all employees
+     *
+     * @param workingSchedule The working schedule
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withWorkingSchedule(WorkingSchedule workingSchedule) {
+        this.workingSchedule = Objects.requireNonNull(workingSchedule, "working schedule can't be null");
+        return this;
+    }
+
+    /**
+     * Set the thirsty factors of all employees. Only the factors are used, the builder's random generator is ignored
+     * (each employee gets their own random stream).
+     *
+     * @param thirstyFactorBuilder The builder with the thirsty factors
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withThirstyFactors(ThirstyFactorBuilder thirstyFactorBuilder) {
+        this.thirstyFactorBuilder = Objects.requireNonNull(thirstyFactorBuilder, "thirsty factor builder can't be null");
+        return this;
+    }
+
+    /**
+     * Set how much time passes between each moment of the working day (the workers synchronize at every moment)
+     *
+     * @param timeStep The time step (whole seconds)
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withTimeStep(Duration timeStep) {
+        Objects.requireNonNull(timeStep, "time step can't be null");
+        if (timeStep.getSeconds() <= 0 || timeStep.getNano() != 0) {
+            throw new IllegalArgumentException("time step must be a positive number of seconds");
+        }
+        this.timeStep = timeStep;
+        return this;
+    }
+
+    /**
+     * Set how many interns the whole office has (default: zero, which means "unlimited"). Each intern refills one
+     * liquid container per moment.
+     *
+     * @param numberOfInterns The number of interns
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withNumberOfInterns(int numberOfInterns) {
+        if (numberOfInterns < 0) {
+            throw new IllegalArgumentException("number of interns can't be negative");
+        }
+        this.numberOfInterns = numberOfInterns;
+        return this;
+    }
+
+    /**
+     * Set the randomness provider (if not set, it uses an unseeded one). The workers get only its seed.
+     *
+     * @param randomnessProvider The randomness provider
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withRandomnessProvider(RandomnessProvider randomnessProvider) {
+        this.randomnessProvider = Objects.requireNonNull(randomnessProvider, "randomness provider can't be null");
+        return this;
+    }
+
+    /**
+     * Add options to the workers' JVM (such as "-Xmx2g")
+     *
+     * @param options The JVM options
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withWorkerJvmOptions(String... options) {
+        for (String option : Objects.requireNonNull(options, "options can't be null")) {
+            this.workerJvmOptions.add(Objects.requireNonNull(option, "option can't be null"));
+        }
+        return this;
+    }
+
+    /**
+     * Set the workers' classpath, when the classes and their dependencies (such as Log4j) can't be found by the
+     * builder (for example, if they were loaded by a class loader that doesn't tell where its classes come from)
+     *
+     * @param workerClasspath The classpath, in the format of the "-cp" option of the java command
+     *
+     * @return This builder
+     */
+    public ShardedOfficeSimulatorBuilder withWorkerClasspath(String workerClasspath) {
+        this.workerClasspath = Objects.requireNonNull(workerClasspath, "worker classpath can't be null");
+        return this;
+    }
+
+    /**
+     * Build the simulator. The thirsty factors are read right now, so changes made to the thirsty factor builder
+     * afterwards don't affect the simulator.
+     *
+     * If the workers' classpath wasn't set and it can't be found, it throws a ShardedSimulationException.
+     *
+     * @return The sharded office simulator
+     */
+    public ShardedOfficeSimulator build() {
+        if (workers > population) {
+            throw new IllegalArgumentException("there can't be more workers than employees");
+        }
+        double celsius = BatchThirstyEvaluator.NO_ROOM_TEMPERATURE;
+        int intensity = BatchThirstyEvaluator.NO_WORK_INTENSITY;
+        // the thirsty factor builder always puts the room temperature first, and so do the workers
+        for (ThirstyFactor factor : thirstyFactorBuilder.build().getFactors()) {
+            if (factor instanceof RoomTemperature roomTemperature && Double.isNaN(celsius)) {
+                celsius = roomTemperature.getCelsius();
+            } else if (factor instanceof WorkIntensity workIntensity
+                    && intensity == BatchThirstyEvaluator.NO_WORK_INTENSITY) {
+                intensity = workIntensity.getIntensity();
+            } else {
+                throw new IllegalOfficePopulationException("The workers can't simulate thirsty factor "
+                        + factor.getClass().getSimpleName() + " (or more than one of them)");
+            }
+        }
+        RandomnessProvider provider = randomnessProvider != null ? randomnessProvider : RandomnessProvider.unseeded();
+        ShardSpec spec = new ShardSpec(0, population, capacity, initialVolume, containerType, workingSchedule,
+                                       celsius, intensity, provider.getSeed(), timeStep.getSeconds());
+        return new ShardedOfficeSimulator(spec, population, workers, numberOfInterns, workerJvmOptions,
+                                          workerClasspath != null ? workerClasspath : findWorkerClasspath());
+    }
+
+    /**
+     * Find the classpath that has the worker's class: the JVM's classpath, if it's there, or else the URLs of the class
+     * loader that loaded it (with the parent loaders' URLs, so the dependencies are there too)
+     */
+    private static String findWorkerClasspath() {
+        String classpath = System.getProperty("java.class.path", "");
+        Path workerLocation = locationOf(ShardWorker.class.getProtectionDomain().getCodeSource());
+        if (workerLocation == null) {
+            throw new ShardedSimulationException("Can't find where " + ShardWorker.class.getName()
+                    + " was loaded from, set the workers' classpath with withWorkerClasspath");
+        }
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (!entry.isEmpty() && Paths.get(entry).toAbsolutePath().normalize().equals(workerLocation)) {
+                return classpath;
+            }
+        }
+        StringJoiner joiner = new StringJoiner(File.pathSeparator);
+        for (ClassLoader loader = ShardWorker.class.getClassLoader(); loader instanceof URLClassLoader urlLoader;
+                loader = loader.getParent()) {
+            for (URL url : urlLoader.getURLs()) {
+                Path path = toPath(url);
+                if (path != null) {
+                    joiner.add(path.toString());
+                }
+            }
+        }
+        if (joiner.length() == 0) {
+            throw new ShardedSimulationException(ShardWorker.class.getName() + " was loaded from " + workerLocation
+                    + ", which isn't in the classpath (" + classpath + "), and its class loader doesn't tell where"
+                    + " the dependencies are: set the workers' classpath with withWorkerClasspath");
+        }
+        return joiner.toString();
+    }
+
+    private static Path locationOf(CodeSource codeSource) {
+        return codeSource == null || codeSource.getLocation() == null ? null : toPath(codeSource.getLocation());
+    }
+
+    // only local files and directories can be in a classpath
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
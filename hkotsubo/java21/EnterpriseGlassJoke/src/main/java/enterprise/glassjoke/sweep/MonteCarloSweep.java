@@ -0,0 +1,154 @@
+package enterprise.glassjoke.sweep;
+
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.work.WorkingDayReport;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs many scenarios many times, to get the distributions of the metrics (see {@link SweepMetric}).
+ *
+ * All scenarios run in parallel, and so do the runs of each scenario: they're executed in batches, and after each batch
+ * the statistics are updated. A scenario stops as soon as the confidence intervals of the metrics are narrower than the
+ * configured widths (after a minimum number of runs), or when it reaches the maximum number of runs.
+ *
+ * Each run of each scenario has its own random streams, derived from the sweep's randomness provider. The results of a
+ * batch are always added in the same order, so the results depend only on the seed and the batch size - not on the
+ * number of threads.
+ *
+ * Use {@link MonteCarloSweepBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class MonteCarloSweep {
+
+    private static final Logger logger = LogManager.getLogger(MonteCarloSweep.class.getSimpleName());
+
+    private final List<Scenario> scenarios;
+    private final RandomnessProvider randomnessProvider;
+    private final int parallelism;
+    private final int minRuns, maxRuns, batchSize;
+    private final double confidenceLevel;
+    private final Map<SweepMetric, Double> maxIntervalWidths;
+
+    MonteCarloSweep(List<Scenario> scenarios, RandomnessProvider randomnessProvider, int parallelism, int minRuns,
+            int maxRuns, int batchSize, double confidenceLevel, Map<SweepMetric, Double> maxIntervalWidths) {
+        this.scenarios = List.copyOf(scenarios);
+        this.randomnessProvider = randomnessProvider;
+        this.parallelism = parallelism;
+        this.minRuns = minRuns;
+        this.maxRuns = maxRuns;
+        this.batchSize = batchSize;
+        this.confidenceLevel = confidenceLevel;
+        this.maxIntervalWidths = new EnumMap<>(maxIntervalWidths);
+    }
+
+    /**
+     * Run all scenarios.
+     *
+     * @return The results, in the same order the scenarios were added
+     */
+    public List<ScenarioResult> run() {
+        if (parallelism == 0) {
+            return run(ForkJoinPool.commonPool());
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return run(pool);
+        }
+    }
+
+    private List<ScenarioResult> run(ForkJoinPool pool) {
+        logger.info("Running {} scenarios using {} threads", scenarios.size(), pool.getParallelism());
+        List<ScenarioTask> tasks = new ArrayList<>(scenarios.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            tasks.add(new ScenarioTask(scenarios.get(i), new RandomnessProvider(randomnessProvider.streamFor(i).nextLong())));
+        }
+        return pool.invoke(new RecursiveTask<List<ScenarioResult>>() {
+            @Override
+            protected List<ScenarioResult> compute() {
+                List<ScenarioResult> results = new ArrayList<>(tasks.size());
+                for (ScenarioTask task : ForkJoinTask.invokeAll(tasks)) {
+                    results.add(task.join());
+                }
+                return results;
+            }
+        });
+    }
+
+    private boolean converged(Map<SweepMetric, RunningStatistics> statistics) {
+        for (Map.Entry<SweepMetric, Double> maxWidth : maxIntervalWidths.entrySet()) {
+            if (statistics.get(maxWidth.getKey()).getConfidenceIntervalWidth(confidenceLevel) > maxWidth.getValue()) {
+                return false;
+            }
+        }
+        return !maxIntervalWidths.isEmpty();
+    }
+
+    /**
+     * Runs a scenario in batches until it converges.
+     */
+    private class ScenarioTask extends RecursiveTask<ScenarioResult> {
+
+        private final Scenario scenario;
+        // the random streams of each run come from here (run N uses stream N)
+        private final RandomnessProvider runs;
+
+        ScenarioTask(Scenario scenario, RandomnessProvider runs) {
+            this.scenario = scenario;
+            this.runs = runs;
+        }
+
+        @Override
+        protected ScenarioResult compute() {
+            Map<SweepMetric, RunningStatistics> statistics = new EnumMap<>(SweepMetric.class);
+            for (SweepMetric metric : SweepMetric.values()) {
+                statistics.put(metric, new RunningStatistics());
+            }
+            int done = 0;
+            boolean converged = false;
+            while (done < maxRuns && !converged) {
+                // the first batch already has the minimum number of runs
+                int size = Math.min(Math.max(batchSize, minRuns - done), maxRuns - done);
+                List<RunTask> batch = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    batch.add(new RunTask(scenario, new RandomnessProvider(runs.streamFor(done + i).nextLong())));
+                }
+                for (RunTask run : ForkJoinTask.invokeAll(batch)) {
+                    WorkingDayReport report = run.join();
+                    statistics.forEach((metric, stats) -> stats.add(metric.valueOf(report)));
+                }
+                done += size;
+                converged = done >= minRuns && converged(statistics);
+            }
+            ScenarioResult result = new ScenarioResult(scenario, done, converged, statistics);
+            logger.info("{}", result);
+            return result;
+        }
+    }
+
+    /**
+     * A single run of a scenario.
+     */
+    private static class RunTask extends RecursiveTask<WorkingDayReport> {
+
+        private final Scenario scenario;
+        private final RandomnessProvider randomnessProvider;
+
+        RunTask(Scenario scenario, RandomnessProvider randomnessProvider) {
+            this.scenario = scenario;
+            this.randomnessProvider = randomnessProvider;
+        }
+
+        @Override
+        protected WorkingDayReport compute() {
+            return scenario.run(randomnessProvider);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package enterprise.glassjoke.sweep;
+
+import enterprise.glassjoke.random.RandomnessProvider;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builder for Monte Carlo sweeps.
+ *
+ * By default, each scenario runs at least 30 times and at most 10000 times, in batches of 16 runs, and the confidence
+ * level is 95%. There are no maximum widths for the confidence intervals, so all scenarios run the maximum number of
+ * times: set the width of at least one metric to stop earlier.
+ *
+ * @author hkotsubo
+ */
+public class MonteCarloSweepBuilder {
+
+    private final List<Scenario> scenarios;
+    private RandomnessProvider randomnessProvider;
+    private int parallelism;
+    private int minRuns, maxRuns, batchSize;
+    private double confidenceLevel;
+    private final Map<SweepMetric, Double> maxIntervalWidths;
+
+    public MonteCarloSweepBuilder() {
+        this.scenarios = new ArrayList<>();
+        this.randomnessProvider = null;
+        this.parallelism = 0;
+        this.minRuns = 30;
+        this.maxRuns = 10_000;
+        this.batchSize = 16;
+        this.confidenceLevel = 0.95;
+        this.maxIntervalWidths = new EnumMap<>(SweepMetric.class);
+    }
+
+    /**
+     * Add a scenario
+     *
+     * @param scenario The scenario
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder addScenario(Scenario scenario) {
+        this.scenarios.add(Objects.requireNonNull(scenario, "scenario can't be null"));
+        return this;
+    }
+
+    /**
+     * Set the randomness provider (if not set, it uses an unseeded one)
+     *
+     * @param randomnessProvider The randomness provider
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withRandomnessProvider(RandomnessProvider randomnessProvider) {
+        this.randomnessProvider = Objects.requireNonNull(randomnessProvider, "randomness provider can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many threads are used (default: zero, which means "use the common fork-join pool")
+     *
+     * @param parallelism The number of threads
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withParallelism(int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("parallelism can't be negative");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the minimum and maximum number of runs of each scenario
+     *
+     * @param minRuns The minimum number of runs
+     * @param maxRuns The maximum number of runs
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withRuns(int minRuns, int maxRuns) {
+        if (minRuns < 2 || maxRuns < minRuns) {
+            throw new IllegalArgumentException("there must be at least 2 runs, and the maximum can't be less than the minimum");
+        }
+        this.minRuns = minRuns;
+        this.maxRuns = maxRuns;
+        return this;
+    }
+
+    /**
+     * Set how many runs are executed between each convergence check
+     *
+     * @param batchSize The batch size
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Set the confidence level of the confidence intervals
+     *
+     * @param confidenceLevel The confidence level, between zero and one (exclusive)
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withConfidenceLevel(double confidenceLevel) {
+        if (!(confidenceLevel > 0 && confidenceLevel < 1)) {
+            throw new IllegalArgumentException("confidence level must be between 0 and 1");
+        }
+        this.confidenceLevel = confidenceLevel;
+        return this;
+    }
+
+    /**
+     * Set the maximum width of the confidence interval of a metric. A scenario stops when all metrics with a maximum
+     * width have narrower intervals.
+     *
+     * @param metric The metric
+     * @param width The maximum width (in the metric's unit)
+     *
+     * @return This builder
+     */
+    public MonteCarloSweepBuilder withMaxIntervalWidth(SweepMetric metric, double width) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("width must be positive");
+        }
+        this.maxIntervalWidths.put(Objects.requireNonNull(metric, "metric can't be null"), width);
+        return this;
+    }
+
+    /**
+     * Build the sweep
+     *
+     * @return The Monte Carlo sweep
+     */
+    public MonteCarloSweep build() {
+        return new MonteCarloSweep(scenarios, randomnessProvider != null ? randomnessProvider : RandomnessProvider.unseeded(),
+                                   parallelism, minRuns, maxRuns, batchSize, confidenceLevel, maxIntervalWidths);
+    }
+}
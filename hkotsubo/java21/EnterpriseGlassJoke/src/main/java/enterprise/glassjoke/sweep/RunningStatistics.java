@@ -0,0 +1,149 @@
+package enterprise.glassjoke.sweep;
+
+/**
+ * Statistics of a sequence of values, updated as each value arrives (the values themselves are not kept).
+ *
+ * Mean and variance are computed with Welford's algorithm, which doesn't lose precision when there are lots of values
+ * (unlike summing the values and their squares).
+ *
+ * This class is not thread-safe.
+ *
+ * @author hkotsubo
+ */
+public class RunningStatistics {
+
+    private long count;
+    private double mean;
+    // sum of squared differences from the mean
+    private double m2;
+    private double min, max;
+
+    public RunningStatistics() {
+        this.count = 0;
+        this.mean = 0;
+        this.m2 = 0;
+        this.min = Double.NaN;
+        this.max = Double.NaN;
+    }
+
+    /**
+     * Add a value
+     *
+     * @param value The value
+     */
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    /**
+     * Get how many values were added
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the mean of the values
+     *
+     * @return The mean (zero if there are no values)
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Get the sample variance of the values
+     *
+     * @return The variance (NaN if there are less than 2 values)
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /**
+     * Get the sample standard deviation of the values
+     *
+     * @return The standard deviation (NaN if there are less than 2 values)
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Get the smallest value
+     *
+     * @return The smallest value (NaN if there are no values)
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Get the largest value
+     *
+     * @return The largest value (NaN if there are no values)
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Get the width of the confidence interval of the mean.
+     *
+     * It uses the normal approximation, so it's only accurate when there are enough values (at least 30 or so).
+     *
+     * @param confidenceLevel The confidence level, between zero and one (exclusive), such as 0.95
+     *
+     * @return The width of the interval (infinity if there are less than 2 values)
+     */
+    public double getConfidenceIntervalWidth(double confidenceLevel) {
+        if (!(confidenceLevel > 0 && confidenceLevel < 1)) {
+            throw new IllegalArgumentException("confidence level must be between 0 and 1");
+        }
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double z = normalQuantile(1 - (1 - confidenceLevel) / 2);
+        return 2 * z * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    /**
+     * Inverse of the standard normal cumulative distribution (Acklam's approximation, relative error below 1.2e-9).
+     */
+    static double normalQuantile(double p) {
+        final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                             1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+        final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                             6.680131188771972e+01, -1.328068155288572e+01 };
+        final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                             -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+        final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                             3.754408661907416e+00 };
+        final double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RunningStatistics{count=%d, mean=%.3f, stdDev=%.3f, min=%.3f, max=%.3f}", count, mean,
+                             getStandardDeviation(), min, max);
+    }
+}
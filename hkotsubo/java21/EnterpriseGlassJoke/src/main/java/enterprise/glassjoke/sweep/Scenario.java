@@ -0,0 +1,85 @@
+package enterprise.glassjoke.sweep;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.kernel.OfficeKernel;
+import enterprise.glassjoke.kernel.OfficeKernelBuilder;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.time.TimePassageManager;
+import enterprise.glassjoke.work.MultiDayReport;
+import enterprise.glassjoke.work.WorkingDayReport;
+import enterprise.glassjoke.work.WorkingSchedule;
+import java.time.LocalTime;
+
+/**
+ * A scenario of a Monte Carlo sweep: an office where all employees start with the same liquid container and the same
+ * thirsty factors, and work for some days.
+ *
+ * Scenarios are immutable, use {@link ScenarioBuilder} to create them.
+ *
+ * @author hkotsubo
+ */
+public class Scenario {
+
+    private final String name;
+    private final int population;
+    private final int workingDays;
+    private final LiquidContainer liquidContainer;
+    private final WorkingSchedule workingSchedule;
+    private final ThirstyFactorManager thirstyFactorManager;
+    private final TimePassageManager<LocalTime> timePassageManager;
+
+    Scenario(String name, int population, int workingDays, LiquidContainer liquidContainer,
+            WorkingSchedule workingSchedule, ThirstyFactorManager thirstyFactorManager,
+            TimePassageManager<LocalTime> timePassageManager) {
+        this.name = name;
+        this.population = population;
+        this.workingDays = workingDays;
+        this.liquidContainer = liquidContainer;
+        this.workingSchedule = workingSchedule;
+        this.thirstyFactorManager = thirstyFactorManager;
+        this.timePassageManager = timePassageManager;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPopulation() {
+        return population;
+    }
+
+    public int getWorkingDays() {
+        return workingDays;
+    }
+
+    /**
+     * Run the scenario once.
+     *
+     * The office is simulated by an {@link OfficeKernel}, in the caller's thread.
+     *
+     * @param randomnessProvider Where the random streams of the employees come from
+     *
+     * @return The totals of all working days (the number of employees is the population, not the sum of all days)
+     */
+    WorkingDayReport run(RandomnessProvider randomnessProvider) {
+        OfficeKernel kernel = new OfficeKernelBuilder()
+                .withParallelism(1)
+                .withTimePassageManager(timePassageManager)
+                .withRandomnessProvider(randomnessProvider)
+                .addEmployees(population, liquidContainer, workingSchedule, thirstyFactorManager)
+                .build();
+        MultiDayReport report = MultiDayReport.empty();
+        for (int day = 0; day < workingDays; day++) {
+            report = report.addDay(kernel.simulateWorkingDay());
+        }
+        return report.getTotals();
+    }
+
+    @Override
+    public String toString() {
+        return "Scenario{" + "name=" + name + ", population=" + population + ", workingDays=" + workingDays
+                + ", capacity=" + liquidContainer.getCapacity() + ", initialVolume=" + liquidContainer.getCurrentVolume()
+                + ", factors=" + thirstyFactorManager.getFactors().size() + '}';
+    }
+}
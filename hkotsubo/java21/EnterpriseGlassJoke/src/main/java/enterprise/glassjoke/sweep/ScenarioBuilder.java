@@ -0,0 +1,176 @@
+package enterprise.glassjoke.sweep;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.factory.IntervalFactory;
+import enterprise.glassjoke.entity.factory.TimePassageManagerFactory;
+import enterprise.glassjoke.entity.factory.WorkingScheduleFactory;
+import enterprise.glassjoke.thirsty.ThirstyFactorBuilder;
+import enterprise.glassjoke.time.TimePassageManager;
+import enterprise.glassjoke.time.TimeProvider;
+import enterprise.glassjoke.work.WorkingSchedule;
+import java.time.LocalTime;
+import java.util.Objects;
+
+/**
+ * Builder for Monte Carlo scenarios.
+ *
+ * By default, 100 employees work for a single 9-to-5 day (with lunch at noon), time passes one hour at a time, and each
+ * one has a 750ml glass that starts with 500ml of water. There are no thirsty factors, so set them to have a
+ * meaningful scenario.
+ *
+ * @author hkotsubo
+ */
+public class ScenarioBuilder {
+
+    private final String name;
+    private int population;
+    private int workingDays;
+    private int capacity;
+    private int initialVolume;
+    private LiquidContainerType containerType;
+    private WorkingSchedule workingSchedule;
+    private ThirstyFactorBuilder thirstyFactorBuilder;
+    private TimePassageManager<LocalTime> timePassageManager;
+
+    /**
+     * Create a builder
+     *
+     * @param name The scenario's name
+     */
+    public ScenarioBuilder(String name) {
+        this.name = Objects.requireNonNull(name, "name can't be null");
+        this.population = 100;
+        this.workingDays = 1;
+        this.capacity = 750;
+        this.initialVolume = 500;
+        this.containerType = LiquidContainerType.GLASS;
+        this.workingSchedule = WorkingScheduleFactory.newFactory().createNineToFiveSchedule(
+                IntervalFactory.newFactory().createIntervalWithMaxDuration(new TimeProvider().middleOfDay()));
+        this.thirstyFactorBuilder = new ThirstyFactorBuilder();
+        this.timePassageManager = TimePassageManagerFactory.newFactory().createOneHourTimePassageManager();
+    }
+
+    /**
+     * Set how many employees the office has
+     *
+     * @param population The number of employees
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withPopulation(int population) {
+        if (population <= 0) {
+            throw new IllegalArgumentException("population must be positive");
+        }
+        this.population = population;
+        return this;
+    }
+
+    /**
+     * Set how many days each run lasts
+     *
+     * @param workingDays The number of working days
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withWorkingDays(int workingDays) {
+        if (workingDays <= 0) {
+            throw new IllegalArgumentException("working days must be positive");
+        }
+        this.workingDays = workingDays;
+        return this;
+    }
+
+    /**
+     * Set the capacity of the liquid containers, in milliliters
+     *
+     * @param capacity The capacity
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Set how much water the liquid containers have when the simulation starts, in milliliters
+     *
+     * @param initialVolume The initial volume
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withInitialVolume(int initialVolume) {
+        this.initialVolume = initialVolume;
+        return this;
+    }
+
+    /**
+     * Set the type of the liquid containers
+     *
+     * @param containerType The liquid container type
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withContainerType(LiquidContainerType containerType) {
+        this.containerType = Objects.requireNonNull(containerType, "container type can't be null");
+        return this;
+    }
+
+    /**
+     * Set the working schedule of all employees
+     *
+     * @param workingSchedule The working schedule
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withWorkingSchedule(WorkingSchedule workingSchedule) {
+        this.workingSchedule = Objects.requireNonNull(workingSchedule, "working schedule can't be null");
+        return this;
+    }
+
+    /**
+     * Set the thirsty factors of all employees. Only the factors are used, the builder's random generator is ignored
+     * (each employee of each run gets their own random stream).
+     *
+     * @param thirstyFactorBuilder The builder with the thirsty factors
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withThirstyFactors(ThirstyFactorBuilder thirstyFactorBuilder) {
+        this.thirstyFactorBuilder = Objects.requireNonNull(thirstyFactorBuilder, "thirsty factor builder can't be null");
+        return this;
+    }
+
+    /**
+     * Set how time passes during the working day
+     *
+     * @param timePassageManager The time passage manager
+     *
+     * @return This builder
+     */
+    public ScenarioBuilder withTimePassageManager(TimePassageManager<LocalTime> timePassageManager) {
+        this.timePassageManager = Objects.requireNonNull(timePassageManager, "time passage manager can't be null");
+        return this;
+    }
+
+    /**
+     * Build the scenario. The liquid container and the thirsty factors are created right now, so changes made to the
+     * thirsty factor builder afterwards don't affect the scenario.
+     *
+     * @return The scenario
+     */
+    public Scenario build() {
+        LiquidContainerBuilder containerBuilder = new LiquidContainerBuilder()
+                .withCapacity(capacity)
+                .withType(containerType);
+        if (initialVolume != 0) {
+            containerBuilder.addContent(LiquidType.WATER, initialVolume);
+        }
+        LiquidContainer liquidContainer = containerBuilder.build();
+        return new Scenario(name, population, workingDays, liquidContainer, workingSchedule,
+                            thirstyFactorBuilder.build(), timePassageManager);
+    }
+}
@@ -0,0 +1,62 @@
+package enterprise.glassjoke.sweep;
+
+import java.util.Map;
+
+/**
+ * The results of all runs of a scenario.
+ *
+ * @author hkotsubo
+ */
+public class ScenarioResult {
+
+    private final Scenario scenario;
+    private final int runs;
+    private final boolean converged;
+    private final Map<SweepMetric, RunningStatistics> statistics;
+
+    ScenarioResult(Scenario scenario, int runs, boolean converged, Map<SweepMetric, RunningStatistics> statistics) {
+        this.scenario = scenario;
+        this.runs = runs;
+        this.converged = converged;
+        this.statistics = statistics;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    /**
+     * Get how many times the scenario was run
+     *
+     * @return The number of runs
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Check if the confidence intervals got narrow enough before the maximum number of runs was reached
+     *
+     * @return true if the scenario converged, false otherwise
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Get the statistics of a metric
+     *
+     * @param metric The metric
+     *
+     * @return The statistics of all runs
+     */
+    public RunningStatistics getStatistics(SweepMetric metric) {
+        return statistics.get(metric);
+    }
+
+    @Override
+    public String toString() {
+        return "ScenarioResult{" + "scenario=" + scenario.getName() + ", runs=" + runs + ", converged=" + converged
+                + ", statistics=" + statistics + '}';
+    }
+}
@@ -0,0 +1,40 @@
+package enterprise.glassjoke.sweep;
+
+import enterprise.glassjoke.work.WorkingDayReport;
+
+/**
+ * What is measured in each run of a scenario.
+ *
+ * @author hkotsubo
+ */
+public enum SweepMetric {
+
+    /**
+     * How many times the interns were called
+     */
+    INTERN_CALLS {
+        @Override
+        public double valueOf(WorkingDayReport report) {
+            return report.getInternCalls();
+        }
+    },
+
+    /**
+     * How many liters were drank
+     */
+    LITERS_CONSUMED {
+        @Override
+        public double valueOf(WorkingDayReport report) {
+            return report.getMilliLitersConsumed() / 1000.0;
+        }
+    };
+
+    /**
+     * Get the value of this metric in a report
+     *
+     * @param report The report of a run
+     *
+     * @return The value
+     */
+    public abstract double valueOf(WorkingDayReport report);
+}
@@ -0,0 +1,99 @@
+package enterprise.glassjoke.thirsty;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Computes the thirsty levels of a whole array of office entities at once.
+ *
+ * Each entity i is affected by the room temperature celsius[i] and the work intensity intensity[i], and its thirsty
+ * level is the sum of the levels of both factors (the same levels of {@link RoomTemperature} and {@link WorkIntensity}).
+ * Entities that are not affected by one of the factors must have {@link #NO_ROOM_TEMPERATURE} or
+ * {@link #NO_WORK_INTENSITY} in the respective array, so that factor adds nothing to their level.
+ *
+ * It's meant for employees only: interns always have the same level, so there's no point in computing it.
+ *
+ * If the incubator module jdk.incubator.vector is available at runtime (use the JVM option
+ * "--add-modules jdk.incubator.vector"), the levels are computed by SIMD instructions, many entities at a time, using
+ * masks instead of if-chains. Otherwise (or if the system property "enterprise.glassjoke.thirsty.vectorized" is set to
+ * false, or if the vectorized levels don't match the factors), a plain loop is used. The results are the same either
+ * way.
+ *
+ * @author hkotsubo
+ */
+public abstract class BatchThirstyEvaluator {
+
+    private static final Logger logger = LogManager.getLogger(BatchThirstyEvaluator.class.getSimpleName());
+
+    /**
+     * The room temperature of entities that are not affected by room temperature
+     */
+    public static final double NO_ROOM_TEMPERATURE = Double.NaN;
+
+    /**
+     * The work intensity of entities that are not affected by work intensity
+     */
+    public static final int NO_WORK_INTENSITY = Integer.MIN_VALUE;
+
+    private static final BatchThirstyEvaluator INSTANCE = createInstance();
+
+    private static BatchThirstyEvaluator createInstance() {
+        if (!"false".equalsIgnoreCase(System.getProperty("enterprise.glassjoke.thirsty.vectorized"))) {
+            try {
+                // loaded by name: if the incubator module isn't available, the class can't be loaded
+                return (BatchThirstyEvaluator) Class.forName("enterprise.glassjoke.thirsty.VectorBatchThirstyEvaluator")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.debug("Vectorized evaluator not available, using scalar evaluator: {}", e.toString());
+            }
+        }
+        return new ScalarBatchThirstyEvaluator();
+    }
+
+    /**
+     * Get the best evaluator available
+     *
+     * @return The evaluator
+     */
+    public static BatchThirstyEvaluator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get an evaluator that uses a plain loop (useful to compare results and performance)
+     *
+     * @return The scalar evaluator
+     */
+    public static BatchThirstyEvaluator getScalarInstance() {
+        return INSTANCE instanceof ScalarBatchThirstyEvaluator ? INSTANCE : new ScalarBatchThirstyEvaluator();
+    }
+
+    /**
+     * Check if this evaluator uses SIMD instructions
+     *
+     * @return true if it's vectorized, false otherwise
+     */
+    public abstract boolean isVectorized();
+
+    /**
+     * Compute the thirsty levels of a range of entities.
+     *
+     * @param celsius The room temperature of each entity, in celsius
+     * @param intensity The work intensity of each entity
+     * @param levels Where the thirsty levels are stored (the level of entity i is stored at levels[i])
+     * @param from The first entity (inclusive)
+     * @param to The last entity (exclusive)
+     */
+    public abstract void evaluate(double[] celsius, int[] intensity, int[] levels, int from, int to);
+
+    /**
+     * Compute the thirsty levels of all entities.
+     *
+     * @param celsius The room temperature of each entity, in celsius
+     * @param intensity The work intensity of each entity
+     * @param levels Where the thirsty levels are stored
+     */
+    public void evaluate(double[] celsius, int[] intensity, int[] levels) {
+        evaluate(celsius, intensity, levels, 0, levels.length);
+    }
+}
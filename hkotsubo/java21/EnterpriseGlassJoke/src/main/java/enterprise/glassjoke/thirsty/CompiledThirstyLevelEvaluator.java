@@ -0,0 +1,46 @@
+package enterprise.glassjoke.thirsty;
+
+import enterprise.glassjoke.entity.OfficeEntity;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the compiled evaluators: this class is never loaded as it is, its bytes are used to define a hidden class
+ * for each set of factor types, with a different method handle tree as class data (see {@link ThirstyFactorCompiler}).
+ *
+ * As the tree is a constant in each hidden class, the JIT compiles it together with {@link #evaluate}, as if the
+ * factors' code had been written right there.
+ *
+ * @author hkotsubo
+ */
+final class CompiledThirstyLevelEvaluator implements ThirstyLevelEvaluator {
+
+    // (ThirstyFactor[], OfficeEntity) -> int
+    private static final MethodHandle TREE;
+
+    static {
+        try {
+            TREE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ThirstyFactor[] factors;
+
+    CompiledThirstyLevelEvaluator(ThirstyFactor[] factors) {
+        this.factors = factors;
+    }
+
+    @Override
+    public int evaluate(OfficeEntity entity) {
+        try {
+            return (int) TREE.invokeExact(factors, entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -97,7 +97,17 @@ public class RoomTemperature implements ThirstyFactor {
             // interns can't drink as much as they want, return always the same level
             return 10;
         }
+        return thirstyLevelOf(celsius);
+    }
 
+    /**
+     * Get the thirsty level generated by a room temperature, for anyone who isn't an intern
+     *
+     * @param celsius The temperature in celsius
+     *
+     * @return The amount of milliliters someone wants to drink
+     */
+    public static int thirstyLevelOf(double celsius) {
         if (celsius <= 0) {
             return 1;
         } else if (celsius <= 10) {
@@ -0,0 +1,28 @@
+package enterprise.glassjoke.thirsty;
+
+/**
+ * Computes the thirsty levels of many entities with a plain loop.
+ *
+ * @author hkotsubo
+ */
+class ScalarBatchThirstyEvaluator extends BatchThirstyEvaluator {
+
+    @Override
+    public boolean isVectorized() {
+        return false;
+    }
+
+    @Override
+    public void evaluate(double[] celsius, int[] intensity, int[] levels, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int level = 0;
+            if (!Double.isNaN(celsius[i])) {
+                level += RoomTemperature.thirstyLevelOf(celsius[i]);
+            }
+            if (intensity[i] != NO_WORK_INTENSITY) {
+                level += WorkIntensity.thirstyLevelOf(intensity[i]);
+            }
+            levels[i] = level;
+        }
+    }
+}
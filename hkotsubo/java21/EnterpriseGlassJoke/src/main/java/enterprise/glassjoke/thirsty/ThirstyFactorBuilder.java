@@ -1,25 +1,43 @@
 package enterprise.glassjoke.thirsty;
 
+import enterprise.glassjoke.random.SplitMixRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Builds a list of thirsty factors
  *
+ * As the list can't change after it's built, the manager compiles the factors into a single evaluator (see
+ * {@link ThirstyFactorCompiler}), unless the system property {@value #COMPILED_PROPERTY} is set to {@code false}.
+ *
  * @author hkotsubo
  */
 public class ThirstyFactorBuilder {
 
+    /**
+     * System property that turns the compiled evaluator on and off (it's on by default)
+     */
+    public static final String COMPILED_PROPERTY = "enterprise.glassjoke.thirsty.compiled";
+
+    private static final boolean COMPILED = !"false".equalsIgnoreCase(System.getProperty(COMPILED_PROPERTY));
+
     // it can have just one of each type
     private RoomTemperature roomTemperature;
     private WorkIntensity workIntensity;
 
+    // random generator used by the manager (null means "unseeded")
+    private RandomGenerator randomGenerator;
+
     /**
      * Creates a new builder
      */
     public ThirstyFactorBuilder() {
         this.roomTemperature = null;
         this.workIntensity = null;
+        this.randomGenerator = null;
     }
 
     /**
@@ -59,7 +77,19 @@ public class ThirstyFactorBuilder {
     }
 
     /**
-     * Build a thirsty factor manager
+     * Set the random generator used by the manager to change the conditions (if not set, it uses an unseeded one)
+     *
+     * @param randomGenerator The random generator
+     *
+     * @return This builder
+     */
+    public ThirstyFactorBuilder withRandomGenerator(RandomGenerator randomGenerator) {
+        this.randomGenerator = Objects.requireNonNull(randomGenerator, "random generator can't be null");
+        return this;
+    }
+
+    /**
+     * Build a thirsty factor manager (its list of factors can't be changed)
      *
      * @return The thirsty factor manager
      */
@@ -71,6 +101,8 @@ public class ThirstyFactorBuilder {
         if (this.workIntensity != null) {
             list.add(this.workIntensity);
         }
-        return new ThirstyFactorManager(list);
+        RandomGenerator rand = this.randomGenerator != null ? this.randomGenerator
+                : new SplitMixRandom(ThreadLocalRandom.current().nextLong());
+        return new ThirstyFactorManager(list, rand, COMPILED);
     }
 }
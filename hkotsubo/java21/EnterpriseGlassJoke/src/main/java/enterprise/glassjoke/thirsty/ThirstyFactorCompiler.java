@@ -0,0 +1,270 @@
+package enterprise.glassjoke.thirsty;
+
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.OfficeEntity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Compiles a fixed set of thirsty factors into a single evaluator, instead of adding their levels one by one.
+ *
+ * The factors become a tree of method handles: each room temperature and work intensity reads its current value and
+ * finds the level in a lookup table, the levels are added, and a single check at the top says if the entity is an
+ * intern (who always gets the same levels). Other types of factors are just called. The tree goes into a hidden class
+ * (see {@link CompiledThirstyLevelEvaluator}), so the JIT sees a constant and inlines everything: there are no loops
+ * over the factors, nor calls to different implementations.
+ *
+ * There's one hidden class for each combination of factor types (such as "room temperature, then work intensity"),
+ * shared by all evaluators with that combination. The factors are still read when the levels are computed, so changes
+ * in the conditions are seen.
+ *
+ * The lookup tables are filled with the levels of {@link RoomTemperature#thirstyLevelOf(double)} and
+ * {@link WorkIntensity#thirstyLevelOf(int)} (and the interns' levels with what the factors give to an intern), and
+ * checked against them when this class is loaded. If the hidden classes can't be created, or if the factors changed and
+ * the tables don't match anymore, the evaluator just adds the levels of the factors.
+ *
+ * @author hkotsubo
+ */
+final class ThirstyFactorCompiler {
+
+    private static final Logger logger = LogManager.getLogger(ThirstyFactorCompiler.class.getSimpleName());
+
+    // where the levels change: room temperature in steps of 10 degrees (up to 0, up to 10, ..., up to 40, and hotter),
+    // and work intensity up to 5000, and more
+    private static final int DEGREES_PER_STEP = 10;
+    private static final int LAST_TEMPERATURE_STEP = 4;
+    private static final int INTENSITY_LIMIT = 5000;
+
+    // the levels of each step, taken from the factors themselves (so they're never out of date)
+    private static final int[] TEMPERATURE_LEVELS = temperatureLevels();
+    private static final int[] INTENSITY_LEVELS = { WorkIntensity.thirstyLevelOf(INTENSITY_LIMIT),
+                                                    WorkIntensity.thirstyLevelOf(Integer.MAX_VALUE) };
+
+    // what interns get from room temperature and work intensity, whatever the conditions are
+    private static final int TEMPERATURE_INTERN_LEVEL = RoomTemperature.ofCelsius(0).getThirstyLevel(new Intern());
+    private static final int INTENSITY_INTERN_LEVEL = new WorkIntensity(0).getThirstyLevel(new Intern());
+
+    // if the factors' limits (or what they give to interns) changed, the tables are wrong, and nothing is compiled
+    private static final boolean TABLES_MATCH = tablesMatch();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final byte[] TEMPLATE = readTemplate();
+
+    // the constructors of the hidden classes, by combination of factor types
+    private static final Map<List<Class<?>>, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private ThirstyFactorCompiler() {
+    }
+
+    private static byte[] readTemplate() {
+        String resource = CompiledThirstyLevelEvaluator.class.getSimpleName() + ".class";
+        try (InputStream in = ThirstyFactorCompiler.class.getResourceAsStream(resource)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            logger.debug("Can't read the evaluator template: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Compile the factors (they must not be added or removed afterwards)
+     *
+     * @param factors The factors
+     *
+     * @return The evaluator
+     */
+    static ThirstyLevelEvaluator compile(List<ThirstyFactor> factors) {
+        ThirstyFactor[] array = factors.toArray(ThirstyFactor[]::new);
+        if (TEMPLATE != null && TABLES_MATCH) {
+            try {
+                MethodHandle constructor = CONSTRUCTORS.computeIfAbsent(shapeOf(array), ThirstyFactorCompiler::define);
+                return (ThirstyLevelEvaluator) constructor.invoke(array);
+            } catch (Throwable e) {
+                logger.debug("Can't compile the thirsty factors, they'll be evaluated one by one: {}", e.toString());
+            }
+        }
+        return entity -> {
+            int level = 0;
+            for (ThirstyFactor factor : array) {
+                level += factor.getThirstyLevel(entity);
+            }
+            return level;
+        };
+    }
+
+    private static List<Class<?>> shapeOf(ThirstyFactor[] factors) {
+        List<Class<?>> shape = new ArrayList<>(factors.length);
+        for (ThirstyFactor factor : factors) {
+            shape.add(switch (factor) {
+                case RoomTemperature roomTemperature -> RoomTemperature.class;
+                case WorkIntensity workIntensity -> WorkIntensity.class;
+                default -> ThirstyFactor.class;
+            });
+        }
+        return List.copyOf(shape);
+    }
+
+    private static MethodHandle define(List<Class<?>> shape) {
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, treeOf(shape), true);
+            logger.debug("Thirsty factors {} compiled into {}", shape.stream().map(Class::getSimpleName).toList(),
+                         hidden.lookupClass().getName());
+            return hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class, ThirstyFactor[].class))
+                         .asType(MethodType.methodType(ThirstyLevelEvaluator.class, ThirstyFactor[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Build the tree (ThirstyFactor[], OfficeEntity) -> int, for a combination of factor types
+     */
+    private static MethodHandle treeOf(List<Class<?>> shape) throws ReflectiveOperationException {
+        MethodHandle employee = constant(0);
+        MethodHandle intern = constant(0);
+        boolean knownFactors = false;
+        for (int i = 0; i < shape.size(); i++) {
+            Class<?> type = shape.get(i);
+            MethodHandle factor = MethodHandles.insertArguments(
+                    MethodHandles.arrayElementGetter(ThirstyFactor[].class), 1, i);
+            if (type == ThirstyFactor.class) {
+                MethodHandle level = LOOKUP.findVirtual(ThirstyFactor.class, "getThirstyLevel",
+                                                        MethodType.methodType(int.class, OfficeEntity.class));
+                MethodHandle generic = MethodHandles.filterArguments(level, 0, factor);
+                employee = add(employee, generic);
+                intern = add(intern, generic);
+                continue;
+            }
+            MethodHandle level;
+            int internLevel;
+            if (type == RoomTemperature.class) {
+                level = MethodHandles.filterReturnValue(
+                        LOOKUP.findVirtual(RoomTemperature.class, "getCelsius", MethodType.methodType(double.class)),
+                        LOOKUP.findStatic(ThirstyFactorCompiler.class, "temperatureLevel",
+                                          MethodType.methodType(int.class, double.class)));
+                internLevel = TEMPERATURE_INTERN_LEVEL;
+            } else {
+                level = MethodHandles.filterReturnValue(
+                        LOOKUP.findVirtual(WorkIntensity.class, "getIntensity", MethodType.methodType(int.class)),
+                        LOOKUP.findStatic(ThirstyFactorCompiler.class, "intensityLevel",
+                                          MethodType.methodType(int.class, int.class)));
+                internLevel = INTENSITY_INTERN_LEVEL;
+            }
+            MethodHandle known = MethodHandles.filterReturnValue(
+                    factor.asType(MethodType.methodType(type, ThirstyFactor[].class)), level);
+            employee = add(employee, MethodHandles.dropArguments(known, 1, OfficeEntity.class));
+            intern = add(intern, constant(internLevel));
+            knownFactors = true;
+        }
+        if (!knownFactors) {
+            return employee;
+        }
+        MethodHandle isIntern = MethodHandles.dropArguments(
+                MethodHandles.insertArguments(LOOKUP.findVirtual(Class.class, "isInstance",
+                                                                 MethodType.methodType(boolean.class, Object.class)),
+                                              0, Intern.class)
+                             .asType(MethodType.methodType(boolean.class, OfficeEntity.class)),
+                0, ThirstyFactor[].class);
+        return MethodHandles.guardWithTest(isIntern, intern, employee);
+    }
+
+    private static MethodHandle constant(int value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(int.class, value), 0, ThirstyFactor[].class,
+                                           OfficeEntity.class);
+    }
+
+    /**
+     * Both handles are (ThirstyFactor[], OfficeEntity) -> int, and so is their sum
+     */
+    private static MethodHandle add(MethodHandle a, MethodHandle b) throws ReflectiveOperationException {
+        MethodHandle sum = LOOKUP.findStatic(Integer.class, "sum",
+                                             MethodType.methodType(int.class, int.class, int.class));
+        // (int, int) -> (ThirstyFactor[], OfficeEntity, int) -> (ThirstyFactor[], OfficeEntity, ThirstyFactor[], OfficeEntity)
+        MethodHandle both = MethodHandles.collectArguments(MethodHandles.collectArguments(sum, 0, a), 2, b);
+        return MethodHandles.permuteArguments(both, a.type(), 0, 1, 0, 1);
+    }
+
+    /**
+     * The same of {@link RoomTemperature#thirstyLevelOf(double)}, with a lookup table
+     */
+    static int temperatureLevel(double celsius) {
+        if (!(celsius <= LAST_TEMPERATURE_STEP * DEGREES_PER_STEP)) {
+            // hotter (or not a number, which is also the last level in the if-chain)
+            return TEMPERATURE_LEVELS[LAST_TEMPERATURE_STEP + 1];
+        }
+        // the step is ceil(celsius / 10), but the division might round, so it's checked against the exact limits
+        int step = (int) Math.max(0, Math.ceil(celsius / DEGREES_PER_STEP));
+        if (step > 0 && celsius <= (step - 1) * DEGREES_PER_STEP) {
+            step--;
+        } else if (celsius > step * DEGREES_PER_STEP) {
+            step++;
+        }
+        return TEMPERATURE_LEVELS[step];
+    }
+
+    /**
+     * The same of {@link WorkIntensity#thirstyLevelOf(int)}, with a lookup table
+     */
+    static int intensityLevel(int intensity) {
+        // 1 if the intensity is greater than the limit, 0 otherwise (without overflow)
+        return INTENSITY_LEVELS[(int) (((long) INTENSITY_LIMIT - intensity) >>> 63)];
+    }
+
+    private static int[] temperatureLevels() {
+        int[] levels = new int[LAST_TEMPERATURE_STEP + 2];
+        for (int step = 0; step <= LAST_TEMPERATURE_STEP; step++) {
+            levels[step] = RoomTemperature.thirstyLevelOf(step * DEGREES_PER_STEP);
+        }
+        levels[LAST_TEMPERATURE_STEP + 1] = RoomTemperature.thirstyLevelOf(Double.POSITIVE_INFINITY);
+        return levels;
+    }
+
+    /**
+     * Check the tables against the factors' if-chains, around all limits (and a bit beyond them), and the interns'
+     * levels against the factors at the same values
+     */
+    private static boolean tablesMatch() {
+        Intern intern = new Intern();
+        List<Double> temperatures = new ArrayList<>(List.of(Double.NaN, Double.NEGATIVE_INFINITY,
+                                                            Double.POSITIVE_INFINITY, -Double.MAX_VALUE,
+                                                            Double.MAX_VALUE));
+        for (int degrees = -DEGREES_PER_STEP; degrees <= (LAST_TEMPERATURE_STEP + 2) * DEGREES_PER_STEP; degrees++) {
+            temperatures.add((double) degrees);
+            temperatures.add(Math.nextDown((double) degrees));
+            temperatures.add(Math.nextUp((double) degrees));
+        }
+        for (double celsius : temperatures) {
+            if (temperatureLevel(celsius) != RoomTemperature.thirstyLevelOf(celsius)) {
+                logger.warn("The compiled room temperature doesn't match the factor at {} celsius", celsius);
+                return false;
+            }
+            if (RoomTemperature.ofCelsius(celsius).getThirstyLevel(intern) != TEMPERATURE_INTERN_LEVEL) {
+                logger.warn("The compiled room temperature doesn't match the factor for interns at {} celsius",
+                            celsius);
+                return false;
+            }
+        }
+        for (int intensity : new int[] { Integer.MIN_VALUE, 0, INTENSITY_LIMIT - 1, INTENSITY_LIMIT,
+                                         INTENSITY_LIMIT + 1, Integer.MAX_VALUE }) {
+            if (intensityLevel(intensity) != WorkIntensity.thirstyLevelOf(intensity)) {
+                logger.warn("The compiled work intensity doesn't match the factor at {}", intensity);
+                return false;
+            }
+            if (new WorkIntensity(intensity).getThirstyLevel(intern) != INTENSITY_INTERN_LEVEL) {
+                logger.warn("The compiled work intensity doesn't match the factor for interns at {}", intensity);
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,10 +1,13 @@
 package enterprise.glassjoke.thirsty;
 
 import enterprise.glassjoke.entity.OfficeEntity;
+import enterprise.glassjoke.random.SplitMixRandom;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,16 +22,47 @@ public class ThirstyFactorManager {
     private static final Logger logger = LogManager.getLogger(ThirstyFactorManager.class.getSimpleName());
 
     private List<ThirstyFactor> factors;
-    private Random rand;
+    private RandomGenerator rand;
+
+    // the factors compiled into a single evaluator (null means they're evaluated one by one)
+    private final ThirstyLevelEvaluator evaluator;
 
     /**
-     * Create a new manager with the specified factors
+     * Create a new manager with the specified factors, and an unseeded random generator.
      *
      * @param factors The list of thirsty factors
      */
     public ThirstyFactorManager(List<ThirstyFactor> factors) {
+        this(factors, new SplitMixRandom(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Create a new manager with the specified factors and random generator.
+     *
+     * Use a seeded generator (such as the ones returned by {@link enterprise.glassjoke.random.RandomnessProvider}) to
+     * get reproducible results.
+     *
+     * @param factors The list of thirsty factors
+     * @param rand The random generator used to change the conditions. It must not be shared with other managers
+     */
+    public ThirstyFactorManager(List<ThirstyFactor> factors, RandomGenerator rand) {
         this.factors = new ArrayList<>(factors);
-        this.rand = new Random();
+        this.rand = Objects.requireNonNull(rand, "random generator can't be null");
+        this.evaluator = null;
+    }
+
+    /**
+     * Create a new manager with a fixed list of factors, compiled into a single evaluator (see
+     * {@link ThirstyFactorCompiler}). The list of factors can't be changed.
+     *
+     * @param factors The list of thirsty factors
+     * @param rand The random generator used to change the conditions. It must not be shared with other managers
+     * @param compiled If false, the factors are evaluated one by one, as usual
+     */
+    ThirstyFactorManager(List<ThirstyFactor> factors, RandomGenerator rand, boolean compiled) {
+        this.factors = List.copyOf(factors);
+        this.rand = Objects.requireNonNull(rand, "random generator can't be null");
+        this.evaluator = compiled ? ThirstyFactorCompiler.compile(this.factors) : null;
     }
 
     /**
@@ -47,6 +81,24 @@ public class ThirstyFactorManager {
         return factors;
     }
 
+    /**
+     * Get the random generator used to change the conditions
+     *
+     * @return The random generator
+     */
+    public RandomGenerator getRandomGenerator() {
+        return rand;
+    }
+
+    /**
+     * Set the random generator used to change the conditions
+     *
+     * @param rand The random generator. It must not be shared with other managers
+     */
+    public void setRandomGenerator(RandomGenerator rand) {
+        this.rand = Objects.requireNonNull(rand, "random generator can't be null");
+    }
+
     /**
      * Creates a manager that always return the same thirsty level
      *
@@ -75,6 +127,9 @@ public class ThirstyFactorManager {
      * @return The total thirsty level, which is the amount of liquid to be drank, in milliliters
      */
     public int getThirstyLevel(OfficeEntity entity) {
+        if (evaluator != null) {
+            return evaluator.evaluate(entity);
+        }
         int level = 0;
         for (ThirstyFactor factor : factors) {
             level += factor.getThirstyLevel(entity);
@@ -0,0 +1,20 @@
+package enterprise.glassjoke.thirsty;
+
+import enterprise.glassjoke.entity.OfficeEntity;
+
+/**
+ * Computes the total thirsty level of a fixed set of thirsty factors (see {@link ThirstyFactorCompiler}).
+ *
+ * @author hkotsubo
+ */
+interface ThirstyLevelEvaluator {
+
+    /**
+     * Get the total thirsty level of the factors, with their current conditions
+     *
+     * @param entity The office entity affected by the factors
+     *
+     * @return The amount of milliliters the entity wants to drink
+     */
+    int evaluate(OfficeEntity entity);
+}
@@ -0,0 +1,145 @@
+package enterprise.glassjoke.thirsty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Computes the thirsty levels of many entities using the Vector API.
+ *
+ * Each threshold of the if-chains becomes a comparison that produces a mask, and the level is chosen by blending with
+ * the mask - so there are no branches, and many entities are handled by each instruction. Temperatures are compared
+ * as doubles, so the int vectors have half the size (in bits) of the double ones, to have the same number of lanes.
+ *
+ * The levels are taken from {@link RoomTemperature#thirstyLevelOf(double)} and
+ * {@link WorkIntensity#thirstyLevelOf(int)}, and the results are checked against them when this class is loaded. If
+ * the factors' limits changed and the results don't match anymore, this class can't be created, and the scalar
+ * evaluator is used instead.
+ *
+ * This class is loaded only if the incubator module jdk.incubator.vector is available.
+ *
+ * @author hkotsubo
+ */
+class VectorBatchThirstyEvaluator extends BatchThirstyEvaluator {
+
+    private static final Logger logger = LogManager.getLogger(VectorBatchThirstyEvaluator.class.getSimpleName());
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    // where the levels change: room temperature up to 0, 10, 20, 30 and 40 degrees, and work intensity up to 5000
+    private static final int INTENSITY_LIMIT = 5000;
+
+    // the levels of each limit, taken from the factors themselves (so they're never out of date). They're constants,
+    // not tables, so the JIT broadcasts them only once
+    private static final int LEVEL_UP_TO_0 = RoomTemperature.thirstyLevelOf(0);
+    private static final int LEVEL_UP_TO_10 = RoomTemperature.thirstyLevelOf(10);
+    private static final int LEVEL_UP_TO_20 = RoomTemperature.thirstyLevelOf(20);
+    private static final int LEVEL_UP_TO_30 = RoomTemperature.thirstyLevelOf(30);
+    private static final int LEVEL_UP_TO_40 = RoomTemperature.thirstyLevelOf(40);
+    private static final int HOTTEST_LEVEL = RoomTemperature.thirstyLevelOf(Double.POSITIVE_INFINITY);
+    private static final int INTENSITY_LEVEL = WorkIntensity.thirstyLevelOf(INTENSITY_LIMIT);
+    private static final int HIGHEST_INTENSITY_LEVEL = WorkIntensity.thirstyLevelOf(Integer.MAX_VALUE);
+
+    // if the factors' limits changed, the levels are wrong, and this class can't be used
+    private static final boolean LEVELS_MATCH = levelsMatch();
+
+    private final ScalarBatchThirstyEvaluator tail = new ScalarBatchThirstyEvaluator();
+
+    VectorBatchThirstyEvaluator() {
+        if (!LEVELS_MATCH) {
+            throw new IllegalStateException("The vectorized thirsty levels don't match the thirsty factors");
+        }
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    public void evaluate(double[] celsius, int[] intensity, int[] levels, int from, int to) {
+        int i = evaluateVectors(celsius, intensity, levels, from, to);
+        tail.evaluate(celsius, intensity, levels, i, to);
+    }
+
+    /**
+     * Compute the levels of as many entities as fit in whole vectors
+     *
+     * @return The first entity that wasn't computed
+     */
+    private static int evaluateVectors(double[] celsius, int[] intensity, int[] levels, int from, int to) {
+        int i = from;
+        int bound = from + DOUBLES.loopBound(to - from);
+        for (; i < bound; i += DOUBLES.length()) {
+            // room temperature: same levels of RoomTemperature, from the highest to the lowest threshold
+            DoubleVector c = DoubleVector.fromArray(DOUBLES, celsius, i);
+            DoubleVector temperatureLevel = DoubleVector.broadcast(DOUBLES, HOTTEST_LEVEL)
+                    .blend(LEVEL_UP_TO_40, c.compare(VectorOperators.LE, 40))
+                    .blend(LEVEL_UP_TO_30, c.compare(VectorOperators.LE, 30))
+                    .blend(LEVEL_UP_TO_20, c.compare(VectorOperators.LE, 20))
+                    .blend(LEVEL_UP_TO_10, c.compare(VectorOperators.LE, 10))
+                    .blend(LEVEL_UP_TO_0, c.compare(VectorOperators.LE, 0))
+                    .blend(0, c.test(VectorOperators.IS_NAN));
+
+            // work intensity: same levels of WorkIntensity
+            IntVector w = IntVector.fromArray(INTS, intensity, i);
+            IntVector intensityLevel = IntVector.broadcast(INTS, HIGHEST_INTENSITY_LEVEL)
+                    .blend(INTENSITY_LEVEL, w.compare(VectorOperators.LE, INTENSITY_LIMIT))
+                    .blend(0, w.compare(VectorOperators.EQ, NO_WORK_INTENSITY));
+
+            ((IntVector) temperatureLevel.convertShape(VectorOperators.D2I, INTS, 0))
+                    .add(intensityLevel)
+                    .intoArray(levels, i);
+        }
+        return i;
+    }
+
+    /**
+     * Check the vectors against the factors' if-chains, around all limits (and a bit beyond them)
+     */
+    private static boolean levelsMatch() {
+        List<Double> temperatures = new ArrayList<>(List.of(Double.NaN, Double.NEGATIVE_INFINITY,
+                                                            Double.POSITIVE_INFINITY, -Double.MAX_VALUE,
+                                                            Double.MAX_VALUE));
+        for (int degrees = -10; degrees <= 60; degrees++) {
+            temperatures.add((double) degrees);
+            temperatures.add(Math.nextDown((double) degrees));
+            temperatures.add(Math.nextUp((double) degrees));
+        }
+        int[] intensities = { NO_WORK_INTENSITY, NO_WORK_INTENSITY + 1, 0, INTENSITY_LIMIT - 1, INTENSITY_LIMIT,
+                              INTENSITY_LIMIT + 1, Integer.MAX_VALUE };
+        // each temperature goes with no intensity, and each intensity with no temperature, all in whole vectors
+        int size = temperatures.size() + intensities.length;
+        size += DOUBLES.length() - 1 - (size - 1) % DOUBLES.length();
+        double[] celsius = new double[size];
+        int[] intensity = new int[size];
+        Arrays.fill(celsius, NO_ROOM_TEMPERATURE);
+        Arrays.fill(intensity, NO_WORK_INTENSITY);
+        for (int i = 0; i < temperatures.size(); i++) {
+            celsius[i] = temperatures.get(i);
+        }
+        System.arraycopy(intensities, 0, intensity, temperatures.size(), intensities.length);
+
+        int[] expected = new int[size];
+        int[] levels = new int[size];
+        new ScalarBatchThirstyEvaluator().evaluate(celsius, intensity, expected);
+        evaluateVectors(celsius, intensity, levels, 0, size);
+        for (int i = 0; i < size; i++) {
+            if (levels[i] != expected[i]) {
+                logger.warn("The vectorized thirsty level doesn't match the factors at {} celsius and intensity {}",
+                            celsius[i], intensity[i]);
+                return false;
+            }
+        }
+        return true;
+    }
+}
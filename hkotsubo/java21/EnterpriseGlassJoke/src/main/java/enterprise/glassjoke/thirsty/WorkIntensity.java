@@ -51,7 +51,17 @@ public class WorkIntensity implements ThirstyFactor {
             // interns can't drink as much as they want, return always the same level
             return 10;
         }
+        return thirstyLevelOf(intensity);
+    }
 
+    /**
+     * Get the thirsty level generated by a work intensity, for anyone who isn't an intern
+     *
+     * @param intensity The work intensity
+     *
+     * @return The amount of milliliters someone wants to drink
+     */
+    public static int thirstyLevelOf(int intensity) {
         // keep it simple for now
         // TODO: define more levels, make them customizable according to job description, etc
         // TODO 2: add support for job descriptions
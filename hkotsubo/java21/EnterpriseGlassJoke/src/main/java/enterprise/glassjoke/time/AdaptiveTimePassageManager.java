@@ -0,0 +1,188 @@
+package enterprise.glassjoke.time;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * A time passage manager whose steps change according to what's happening.
+ *
+ * It has a fine step (the resolution of the simulation) and a maximum step. Used as a regular time passage manager,
+ * it always advances the fine step. But a working day simulator that knows about it (see
+ * {@link enterprise.glassjoke.work.WorkingDaySimulator}) asks a {@link Stepper} how many fine steps it can cover at
+ * once, and then simulates all of them in a single moment (the employee drinks the amount of all of them together, and
+ * the conditions change as many times as they would).
+ *
+ * Steps are always a multiple of the fine step, so the moments are the same of the fine-step simulation, just fewer of
+ * them. A step:
+ *
+ * - starts with the fine step, and doubles after each quiet moment, up to the maximum
+ *
+ * - ends early, before it's committed, as soon as the thirsty level moves more than the tolerance (relative to its
+ * value at the beginning of the moment): the conditions change one fine step at a time, and the simulator checks the
+ * thirsty level after each one (see {@link Stepper#withinTolerance(int, int)}). All fine steps of a moment drink the
+ * thirsty level of its beginning, so this bounds the error: each fine step drinks at most the tolerance more or less
+ * than it would drink on its own, and with zero tolerance the results are the same of the fine-step simulation
+ *
+ * - goes back to the fine step when the intern was called, or when the moment ended early because of the tolerance
+ *
+ * - never covers more than the liquid container has: when it's almost empty, steps get shorter, so the intern is called
+ * at the same moment of the fine-step simulation
+ *
+ * - never goes beyond the next boundary (the start and end of the working hours and of the interval), and goes back to
+ * the fine step when it reaches one
+ *
+ * Use {@link enterprise.glassjoke.entity.factory.TimePassageManagerFactory} to create it.
+ *
+ * @author hkotsubo
+ */
+public class AdaptiveTimePassageManager implements TimePassageManager<LocalTime> {
+
+    private final Duration fineStep;
+    private final int maxFineSteps;
+    private final double tolerance;
+
+    /**
+     * Create an adaptive time passage manager.
+     *
+     * @param fineStep The smallest step
+     * @param maxStep The largest step (it's rounded down to a multiple of the fine step)
+     * @param tolerance How much the thirsty level can change (relative to its value at the beginning of a moment)
+     * before the moment ends. Zero means "any change"
+     */
+    public AdaptiveTimePassageManager(Duration fineStep, Duration maxStep, double tolerance) {
+        if (fineStep.isNegative() || fineStep.isZero()) {
+            throw new IllegalArgumentException("fine step must be positive");
+        }
+        if (maxStep.compareTo(fineStep) < 0) {
+            throw new IllegalArgumentException("max step can't be smaller than the fine step");
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance can't be negative");
+        }
+        this.fineStep = fineStep;
+        this.maxFineSteps = (int) Math.min(Integer.MAX_VALUE, maxStep.toNanos() / fineStep.toNanos());
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Advance the fine step
+     *
+     * @param current The current time
+     *
+     * @return The next time
+     */
+    @Override
+    public LocalTime nextMoment(LocalTime current) {
+        return current.plus(fineStep);
+    }
+
+    public Duration getFineStep() {
+        return fineStep;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Create a stepper for a working day.
+     *
+     * @param boundaries The moments where the step must stop (working hours, interval, etc)
+     *
+     * @return The stepper
+     */
+    public Stepper newStepper(LocalTime... boundaries) {
+        LocalTime[] sorted = boundaries.clone();
+        Arrays.sort(sorted);
+        return new Stepper(sorted);
+    }
+
+    /**
+     * Decides the step of each moment of a single working day. It keeps track of how things are going, so each
+     * employee must have their own.
+     */
+    public class Stepper {
+
+        private final LocalTime[] boundaries;
+        private int fineSteps;
+
+        private Stepper(LocalTime[] boundaries) {
+            this.boundaries = boundaries;
+            this.fineSteps = 1;
+        }
+
+        /**
+         * Get how many fine steps the moment can cover at most (it might end earlier, if the thirsty level moves more
+         * than the tolerance).
+         *
+         * @param current The current time
+         * @param volume How much the liquid container has
+         * @param thirstyLevel How much the employee drinks in each fine step
+         *
+         * @return The number of fine steps (at least one)
+         */
+        public int nextFineSteps(LocalTime current, int volume, int thirstyLevel) {
+            long steps = fineSteps;
+            if (thirstyLevel > 0) {
+                // the container must not get empty before the end of the step (otherwise, the intern would come late)
+                steps = Math.min(steps, volume / thirstyLevel);
+            }
+            for (LocalTime boundary : boundaries) {
+                if (boundary.equals(current)) {
+                    // things might be different from now on, start again with the fine step
+                    fineSteps = 1;
+                    return 1;
+                }
+                if (boundary.isAfter(current)) {
+                    // land on the first fine moment at or after the boundary
+                    long nanos = Duration.between(current, boundary).toNanos();
+                    steps = Math.min(steps, (nanos + fineStep.toNanos() - 1) / fineStep.toNanos());
+                    break;
+                }
+            }
+            return (int) Math.max(1, steps);
+        }
+
+        /**
+         * Check if a moment can go on: if the thirsty level is still within the tolerance of its value at the
+         * beginning of the moment.
+         *
+         * @param thirstyLevelBefore The thirsty level at the beginning of the moment
+         * @param thirstyLevelNow The thirsty level after the conditions changed
+         *
+         * @return true if the moment can cover one more fine step
+         */
+        public boolean withinTolerance(int thirstyLevelBefore, int thirstyLevelNow) {
+            return Math.abs(thirstyLevelNow - thirstyLevelBefore) / (double) Math.max(1, thirstyLevelBefore)
+                   <= tolerance;
+        }
+
+        /**
+         * Tell how the moment went, to decide the next step.
+         *
+         * @param thirstyLevelBefore The thirsty level at the beginning of the moment
+         * @param thirstyLevelAfter The thirsty level at the end of the moment
+         * @param internCalled If the intern was called in the moment
+         */
+        public void momentDone(int thirstyLevelBefore, int thirstyLevelAfter, boolean internCalled) {
+            if (internCalled || !withinTolerance(thirstyLevelBefore, thirstyLevelAfter)) {
+                fineSteps = 1;
+            } else {
+                fineSteps = (int) Math.min(maxFineSteps, 2L * fineSteps);
+            }
+        }
+
+        /**
+         * Get the time after some fine steps
+         *
+         * @param current The current time
+         * @param steps The number of fine steps
+         *
+         * @return The time after the steps
+         */
+        public LocalTime advance(LocalTime current, int steps) {
+            return current.plus(fineStep.multipliedBy(steps));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package enterprise.glassjoke.time;
+
+import java.time.Duration;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalUnit;
+import java.util.Objects;
+
+/**
+ * A time passage manager that always adds the same amount of time.
+ *
+ * As all steps are the same, anyone who knows about it can find the n-th moment after the current one at once, instead
+ * of advancing one moment at a time (see {@link enterprise.glassjoke.work.DiscreteEventSimulator}).
+ *
+ * Use {@link enterprise.glassjoke.entity.factory.TimePassageManagerFactory} to create it.
+ *
+ * @author hkotsubo
+ *
+ * @param <T> The type of the date/time object returned by this manager
+ */
+public class FixedStepTimePassageManager<T extends Temporal> implements TimePassageManager<T> {
+
+    private final long amount;
+    private final TemporalUnit unit;
+
+    /**
+     * Create a time passage manager that adds a specific amount of time.
+     *
+     * @param amount The amount to add
+     * @param unit The unit of time to add
+     */
+    public FixedStepTimePassageManager(long amount, TemporalUnit unit) {
+        this.amount = amount;
+        this.unit = Objects.requireNonNull(unit, "unit can't be null");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T nextMoment(T current) {
+        return (T) current.plus(amount, unit);
+    }
+
+    /**
+     * Get the step as an exact duration
+     *
+     * @return The step, or null if it's not positive or if its unit doesn't have an exact duration (such as months)
+     */
+    public Duration getStep() {
+        if (amount <= 0 || !unit.isTimeBased()) {
+            return null;
+        }
+        try {
+            return unit.getDuration().multipliedBy(amount);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package enterprise.glassjoke.time;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
@@ -13,6 +14,10 @@ public class TimeProvider {
         return LocalTime.now();
     }
 
+    public LocalDate today() {
+        return LocalDate.now();
+    }
+
     public LocalTime middleOfDay() {
         return LocalTime.NOON;
     }
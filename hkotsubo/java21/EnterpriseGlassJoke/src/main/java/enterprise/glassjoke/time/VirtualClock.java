@@ -0,0 +1,158 @@
+package enterprise.glassjoke.time;
+
+import java.time.LocalTime;
+import java.util.Objects;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock shared by many office entities, each one running in its own thread.
+ *
+ * Every entity registers itself as a participant. Time only passes when all participants have finished what they had
+ * to do at the current moment (by calling {@link Participant#awaitNextMoment()}), and then the clock advances according
+ * to the time passage manager's rules.
+ *
+ * Each participant has its own moments, starting at its own start time (by default, the clock's start): if the
+ * participant starts at 09:30 and time passes in steps of 1 hour, its moments are 09:30, 10:30 and so on, even if
+ * another participant's moments are 09:00, 10:00... The clock goes through the moments of all participants, in order,
+ * and each participant only wakes up at its own moments.
+ *
+ * Waiting for the other participants just parks the thread, so it's cheap when using virtual threads.
+ *
+ * Internally, it uses a tree of phasers, as a single phaser can't have more than 65535 participants.
+ *
+ * @author hkotsubo
+ */
+public class VirtualClock {
+
+    // how many participants each leaf phaser can have (a phaser supports at most 65535)
+    private static final int PARTICIPANTS_PER_PHASER = 1000;
+
+    private final TimePassageManager<LocalTime> timePassageManager;
+    private final Phaser root;
+    private volatile LocalTime now;
+
+    // the earliest moment the participants are waiting for, in nanoseconds of the day
+    private final AtomicLong earliestNext;
+
+    // the leaf phaser that receives the new participants
+    private Phaser currentLeaf;
+    private int participantsInCurrentLeaf;
+
+    /**
+     * Create a clock.
+     *
+     * @param start The clock's initial time
+     * @param timePassageManager The time passage manager that defines how time passes
+     */
+    public VirtualClock(LocalTime start, TimePassageManager<LocalTime> timePassageManager) {
+        this.timePassageManager = Objects.requireNonNull(timePassageManager, "time passage manager can't be null");
+        this.now = Objects.requireNonNull(start, "start time can't be null");
+        this.earliestNext = new AtomicLong(Long.MAX_VALUE);
+        this.root = new Phaser() {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                if (registeredParties == 0) {
+                    // everybody left, the clock stops
+                    return true;
+                }
+                long next = earliestNext.getAndSet(Long.MAX_VALUE);
+                now = next == Long.MAX_VALUE ? timePassageManager.nextMoment(now) : LocalTime.ofNanoOfDay(next);
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the current time
+     *
+     * @return The current time
+     */
+    public LocalTime now() {
+        return now;
+    }
+
+    /**
+     * Register a new participant, whose moments start at the clock's current time.
+     *
+     * All participants should be registered before any of them starts waiting for the next moment.
+     *
+     * @return The participant
+     */
+    public Participant register() {
+        return register(now);
+    }
+
+    /**
+     * Register a new participant, whose moments start at the specified time.
+     *
+     * All participants should be registered before any of them starts waiting for the next moment.
+     *
+     * @param start The participant's first moment (it can't be before the clock's current time)
+     *
+     * @return The participant
+     */
+    public synchronized Participant register(LocalTime start) {
+        Objects.requireNonNull(start, "start time can't be null");
+        if (start.isBefore(now)) {
+            throw new IllegalArgumentException("participant can't start at " + start + ", the clock is at " + now);
+        }
+        if (currentLeaf == null || participantsInCurrentLeaf == PARTICIPANTS_PER_PHASER) {
+            currentLeaf = new Phaser(root, 0);
+            participantsInCurrentLeaf = 0;
+        }
+        currentLeaf.register();
+        participantsInCurrentLeaf++;
+        return new Participant(currentLeaf, start);
+    }
+
+    /**
+     * Someone whose actions are synchronized by the clock.
+     */
+    public class Participant {
+
+        private final Phaser phaser;
+        // the participant's latest moment (or the first one, if it didn't come yet)
+        private LocalTime moment;
+
+        private Participant(Phaser phaser, LocalTime start) {
+            this.phaser = phaser;
+            this.moment = start;
+        }
+
+        /**
+         * Get the current time
+         *
+         * @return The current time
+         */
+        public LocalTime now() {
+            return VirtualClock.this.now;
+        }
+
+        /**
+         * Tell the clock this participant is done with the current moment, and wait until the clock reaches the
+         * participant's next moment (the other participants' moments in between pass without waking it up).
+         *
+         * @return The participant's next moment
+         */
+        public LocalTime awaitNextMoment() {
+            LocalTime current = VirtualClock.this.now;
+            LocalTime next = moment.isAfter(current) ? moment : timePassageManager.nextMoment(moment);
+            moment = next;
+            long nanos = next.toNanoOfDay();
+            do {
+                earliestNext.accumulateAndGet(nanos, Math::min);
+                phaser.arriveAndAwaitAdvance();
+                current = VirtualClock.this.now;
+            } while (current.isBefore(next));
+            return current;
+        }
+
+        /**
+         * Leave the clock: time will pass without waiting for this participant.
+         */
+        public void leave() {
+            phaser.arriveAndDeregister();
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.event.SimulationEvent;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.time.AdaptiveTimePassageManager;
+import enterprise.glassjoke.time.FixedStepTimePassageManager;
+import enterprise.glassjoke.time.TimePassageManager;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Simulates a working day for a whole office, driven by events instead of fixed time steps.
+ *
+ * Instead of checking every employee at every moment, it keeps a priority queue of timestamped events (see
+ * {@link ScheduledEventType}) and jumps straight to the next one. Only the moments when something really happens are
+ * events: from the current volume and thirsty level, it calculates the moment the employee will find the glass empty,
+ * and it schedules the next change of conditions that affects the thirsty level. The moments the employee drinks in
+ * between are counted (and the amounts drank at once) when the next event happens, and the plan is made again when
+ * the conditions change or the glass is filled.
+ *
+ * When the moments employees get thirsty are a fixed step apart (the time passage managers created by
+ * {@link enterprise.glassjoke.entity.factory.TimePassageManagerFactory}, and adaptive ones, which are used with their
+ * fine step), the moment the glass gets empty and the number of drinks in between are calculated at once, so they
+ * don't depend on the resolution. With other time passage managers, the moments are still visited one by one (but
+ * nothing else is done on them).
+ *
+ * The conditions, though, are random, and they're drawn for every moment of the conditions' time passage manager, in
+ * the same order of the fixed-step simulation (or the results wouldn't be the same). That's just a few random numbers
+ * per moment, not an event, but it still grows with the resolution: for a cost that depends only on the number of
+ * events, use a coarser time passage manager for the conditions (see {@link #setConditionsPassageManager}). If
+ * there's a listener, every change of temperature or work intensity becomes an event (even if the thirsty level is
+ * the same), and each drink is told separately.
+ *
+ * Each employee gets thirsty and has their conditions changed at the moments defined by a time passage manager. By
+ * default it's the same one used by the employee's {@link WorkingDaySimulator}, and the results are the same as the
+ * fixed-step simulation. But they can be set separately: with a fine time resolution (like minutes or seconds), only
+ * the moments where something actually happens become events.
+ *
+ * Like {@link OfficeSimulator}, use {@link OfficeSimulatorBuilder} to create it.
+ *
+ * @author hkotsubo
+ */
+public class DiscreteEventSimulator {
+
+    private static final Logger logger = LogManager.getLogger(DiscreteEventSimulator.class.getSimpleName());
+
+    private static final Duration ONE_DAY = Duration.ofDays(1);
+    private static final long NANOS_PER_DAY = ONE_DAY.toNanos();
+
+    private final List<WorkingDaySimulator> simulators;
+
+    // null means "use each employee's time passage manager"
+    private TimePassageManager<LocalTime> thirstPassageManager;
+    private TimePassageManager<LocalTime> conditionsPassageManager;
+
+    // how long it takes for the intern to arrive after being called
+    private Duration internTravelTime;
+
+    /**
+     * Create a discrete-event simulator.
+     *
+     * @param simulators The simulators of each employee
+     */
+    DiscreteEventSimulator(List<WorkingDaySimulator> simulators) {
+        this.simulators = List.copyOf(simulators);
+        this.thirstPassageManager = null;
+        this.conditionsPassageManager = null;
+        this.internTravelTime = Duration.ZERO;
+    }
+
+    /**
+     * Set how often employees get thirsty.
+     *
+     * If not set (or set to null), each employee uses the time passage manager of their working day simulator.
+     *
+     * @param thirstPassageManager The time passage manager that defines the moments employees get thirsty
+     */
+    public void setThirstPassageManager(TimePassageManager<LocalTime> thirstPassageManager) {
+        this.thirstPassageManager = thirstPassageManager;
+    }
+
+    /**
+     * Set how often the thirsty factors' conditions might change.
+     *
+     * If not set (or set to null), each employee uses the time passage manager of their working day simulator.
+     *
+     * @param conditionsPassageManager The time passage manager that defines the moments conditions might change
+     */
+    public void setConditionsPassageManager(TimePassageManager<LocalTime> conditionsPassageManager) {
+        this.conditionsPassageManager = conditionsPassageManager;
+    }
+
+    /**
+     * Set how long it takes for the intern to arrive after being called (default: zero, the intern is always ready).
+     *
+     * While the intern doesn't arrive, the employee can't drink.
+     *
+     * @param internTravelTime The intern's travel time
+     */
+    public void setInternTravelTime(Duration internTravelTime) {
+        Objects.requireNonNull(internTravelTime, "travel time can't be null");
+        if (internTravelTime.isNegative()) {
+            throw new IllegalArgumentException("travel time can't be negative");
+        }
+        this.internTravelTime = internTravelTime;
+    }
+
+    /**
+     * Simulates a working day for all employees, handling events in chronological order until there are none left.
+     *
+     * @return The office-level report. Each thirst onset counts as an iteration
+     */
+    public WorkingDayReport simulateWorkingDay() {
+        Run run = new Run();
+        for (int i = 0; i < simulators.size(); i++) {
+            run.scheduleWorkingDay(i);
+        }
+        logger.info("Simulating {} employees, {} events scheduled", simulators.size(), run.queue.size());
+        long events = 0;
+        while (!run.queue.isEmpty()) {
+            run.handle(run.queue.poll());
+            events++;
+        }
+        WorkingDayReport report = WorkingDayReport.empty();
+        for (WorkingDayTally tally : run.tallies) {
+            report = report.combine(tally.toReport());
+        }
+        logger.info("{} events handled. Office totals: {}", events, report);
+        return report;
+    }
+
+    /**
+     * The state of a single simulation run.
+     */
+    private class Run {
+
+        final PriorityQueue<ScheduledEvent> queue = new PriorityQueue<>();
+        final WorkingDayTally[] tallies = new WorkingDayTally[simulators.size()];
+        // the intern each employee is waiting for (null if not waiting)
+        final Intern[] internsOnTheWay = new Intern[simulators.size()];
+        // the next moment each employee gets thirsty (null if there are no more in working hours)
+        final LocalTime[] nextOnsets = new LocalTime[simulators.size()];
+        // the next moment each employee's conditions might change, that wasn't drawn yet (null if there are no more)
+        final LocalTime[] nextConditions = new LocalTime[simulators.size()];
+        // the thirsty level of each employee (how much they drink in each moment)
+        final int[] levels = new int[simulators.size()];
+        // the thirsty level after the scheduled change of conditions
+        final int[] pendingLevels = new int[simulators.size()];
+        // the sequence of the glass empty event that is still valid (the others were planned with old conditions)
+        final long[] plannedEmpty = new long[simulators.size()];
+        long sequence = 0;
+
+        void schedule(LocalTime time, ScheduledEventType type, int member) {
+            queue.add(new ScheduledEvent(time, type, member, sequence++));
+        }
+
+        void scheduleWorkingDay(int member) {
+            tallies[member] = new WorkingDayTally();
+            plannedEmpty[member] = -1;
+            WorkingSchedule schedule = simulators.get(member).getWorkingSchedule();
+            if (!schedule.inWorkingHours(schedule.getStart())) {
+                // no working hours at all
+                return;
+            }
+            schedule(schedule.getStart(), ScheduledEventType.WORKING_HOURS_START, member);
+            if (schedule.getInterval() != null) {
+                schedule(schedule.getInterval().getStart(), ScheduledEventType.INTERVAL_START, member);
+                schedule(schedule.getInterval().getEnd(), ScheduledEventType.INTERVAL_END, member);
+            }
+            schedule(schedule.getEnd(), ScheduledEventType.WORKING_HOURS_END, member);
+        }
+
+        /**
+         * Get the moment after the current one, or null if it's not in working hours
+         */
+        LocalTime next(int member, LocalTime current, TimePassageManager<LocalTime> timePassageManager) {
+            WorkingDaySimulator simulator = simulators.get(member);
+            TimePassageManager<LocalTime> manager = timePassageManager != null ? timePassageManager : simulator.getTimePassageManager();
+            LocalTime next = manager.nextMoment(current);
+            return simulator.getWorkingSchedule().inWorkingHours(next) ? next : null;
+        }
+
+        /**
+         * Get the step of the time passage manager, in nanoseconds, if all of its steps are the same and shorter than
+         * a day (zero otherwise)
+         */
+        long stepOf(int member, TimePassageManager<LocalTime> timePassageManager) {
+            TimePassageManager<LocalTime> manager = timePassageManager != null ? timePassageManager
+                    : simulators.get(member).getTimePassageManager();
+            Duration step = switch (manager) {
+                case FixedStepTimePassageManager<LocalTime> fixed -> fixed.getStep();
+                // used as a regular time passage manager, it always advances the fine step
+                case AdaptiveTimePassageManager adaptive -> adaptive.getFineStep();
+                default -> null;
+            };
+            return step == null || step.compareTo(ONE_DAY) >= 0 ? 0 : step.toNanos();
+        }
+
+        /**
+         * Get the moment that comes a number of moments after the current one, or null if it's not in working hours
+         */
+        LocalTime advance(int member, LocalTime current, long moments,
+                          TimePassageManager<LocalTime> timePassageManager) {
+            long step = stepOf(member, timePassageManager);
+            if (step == 0) {
+                LocalTime time = current;
+                for (long i = 0; i < moments && time != null; i++) {
+                    time = next(member, time, timePassageManager);
+                }
+                return time;
+            }
+            if (current == null || moments == 0) {
+                return current;
+            }
+            // in nanoseconds of the day, so it doesn't go around midnight
+            long nanos = moments >= NANOS_PER_DAY / step ? NANOS_PER_DAY : current.toNanoOfDay() + moments * step;
+            if (nanos >= NANOS_PER_DAY) {
+                return null;
+            }
+            LocalTime time = LocalTime.ofNanoOfDay(nanos);
+            return simulators.get(member).getWorkingSchedule().inWorkingHours(time) ? time : null;
+        }
+
+        /**
+         * Count the moments from the first one until the specified time, that are a fixed step apart and in working
+         * hours
+         */
+        long countMoments(int member, LocalTime first, LocalTime until, boolean inclusive, long step) {
+            if (first == null) {
+                return 0;
+            }
+            long from = first.toNanoOfDay();
+            long bound = Math.min(simulators.get(member).getWorkingSchedule().getEnd().toNanoOfDay(),
+                                  until.toNanoOfDay() + (inclusive ? 1 : 0));
+            return from >= bound ? 0 : (bound - from - 1) / step + 1;
+        }
+
+        /**
+         * Count the moments the employee got thirsty until the specified time, and drink what they wanted (nothing, if
+         * they're waiting for the intern)
+         */
+        void catchUp(int member, LocalTime until, boolean inclusive) {
+            WorkingDaySimulator simulator = simulators.get(member);
+            WorkingDayTally tally = tallies[member];
+            boolean drinking = internsOnTheWay[member] == null;
+            boolean listening = simulator.hasListener();
+            ThirstyFactorManager level = ThirstyFactorManager.createFixedValueManager(levels[member]);
+            long onsets = 0;
+            LocalTime onset = nextOnsets[member];
+            long step = stepOf(member, thirstPassageManager);
+            if (step > 0 && !(drinking && listening)) {
+                // the moments are a fixed step apart, so they're counted at once
+                onsets = countMoments(member, onset, until, inclusive, step);
+                onset = advance(member, onset, onsets, thirstPassageManager);
+            } else {
+                while (onset != null && (onset.isBefore(until) || inclusive && onset.equals(until))) {
+                    if (drinking && listening) {
+                        // the listener is told about each drink, at the moment it happened
+                        simulator.getEmployee().setThirsty(true);
+                        simulator.drink(onset, tally, level, 1);
+                    }
+                    onsets++;
+                    onset = next(member, onset, thirstPassageManager);
+                }
+            }
+            nextOnsets[member] = onset;
+            tally.iterations += onsets;
+            if (drinking && !listening && onsets > 0) {
+                simulator.getEmployee().setThirsty(true);
+                int amount = (int) Math.min(Integer.MAX_VALUE, (long) levels[member] * onsets);
+                simulator.drink(until, tally, ThirstyFactorManager.createFixedValueManager(amount), onsets);
+            }
+        }
+
+        /**
+         * Schedule the moment the employee will find the glass empty, if it's in working hours (it replaces the one
+         * previously scheduled)
+         */
+        void planGlassEmpty(int member) {
+            plannedEmpty[member] = -1;
+            int volume = simulators.get(member).getLiquidContainer().getCurrentVolume();
+            int level = levels[member];
+            if (internsOnTheWay[member] != null || volume > 0 && level <= 0) {
+                // the intern is already on the way, or the glass never gets empty
+                return;
+            }
+            long drinks = volume == 0 ? 0 : (volume + (long) level - 1) / level;
+            LocalTime time = advance(member, nextOnsets[member], drinks, thirstPassageManager);
+            if (time != null) {
+                plannedEmpty[member] = sequence;
+                schedule(time, ScheduledEventType.GLASS_EMPTY, member);
+            }
+        }
+
+        /**
+         * Draw the conditions of the next moments until they really change (the thirsty level changes, or, if there's
+         * a listener, the temperature or the work intensity), and schedule that change. The factors are already
+         * changed, but the employee keeps drinking with the previous level until the event happens.
+         */
+        void planConditionsChange(int member) {
+            WorkingDaySimulator simulator = simulators.get(member);
+            ThirstyFactorManager manager = simulator.getThirstyFactorManager();
+            boolean listening = simulator.hasListener();
+            LocalTime time = nextConditions[member];
+            while (time != null) {
+                double celsius = simulator.getCelsius();
+                int workIntensity = simulator.getWorkIntensity();
+                manager.changeConditions();
+                LocalTime current = time;
+                time = next(member, current, conditionsPassageManager);
+                int level = manager.getThirstyLevel(simulator.getEmployee());
+                if (level != levels[member] || listening && (Double.compare(celsius, simulator.getCelsius()) != 0
+                        || workIntensity != simulator.getWorkIntensity())) {
+                    nextConditions[member] = time;
+                    pendingLevels[member] = level;
+                    schedule(current, ScheduledEventType.CONDITIONS_CHANGE, member);
+                    return;
+                }
+            }
+            nextConditions[member] = null;
+        }
+
+        void handle(ScheduledEvent event) {
+            WorkingDaySimulator simulator = simulators.get(event.member);
+            Employee employee = simulator.getEmployee();
+            LiquidContainer container = simulator.getLiquidContainer();
+            WorkingDayTally tally = tallies[event.member];
+            switch (event.type) {
+                case WORKING_HOURS_START -> {
+                    simulator.notifyArrival(event.time);
+                    employee.work();
+                    nextOnsets[event.member] = event.time;
+                    nextConditions[event.member] = event.time;
+                    levels[event.member] = simulator.getThirstyFactorManager().getThirstyLevel(employee);
+                    planGlassEmpty(event.member);
+                    planConditionsChange(event.member);
+                }
+                case INTERVAL_END -> {
+                    simulator.notify(new SimulationEvent.IntervalLeft(event.time, simulator.getMember()));
+                    employee.work();
+                }
+                case INTERVAL_START -> {
+                    simulator.notify(new SimulationEvent.IntervalEntered(event.time, simulator.getMember()));
+                    employee.enjoyInterval();
+                }
+                case GLASS_EMPTY -> {
+                    if (event.sequence != plannedEmpty[event.member]) {
+                        // planned before the conditions changed
+                        return;
+                    }
+                    catchUp(event.member, event.time, false);
+                    // the moment the employee finds the glass empty
+                    tally.iterations++;
+                    employee.setThirsty(true);
+                    nextOnsets[event.member] = next(event.member, event.time, thirstPassageManager);
+                    simulator.notify(new SimulationEvent.InternSummoned(event.time, simulator.getMember()));
+                    internsOnTheWay[event.member] = employee.callIntern(simulator.getInternFactory());
+                    LocalTime arrival = event.time.plus(internTravelTime);
+                    if (!arrival.isBefore(event.time) && simulator.getWorkingSchedule().inWorkingHours(arrival)) {
+                        schedule(arrival, ScheduledEventType.INTERN_ARRIVAL, event.member);
+                    }
+                }
+                case INTERN_ARRIVAL -> {
+                    catchUp(event.member, event.time, true);
+                    internsOnTheWay[event.member].fill(container, LiquidType.WATER);
+                    internsOnTheWay[event.member] = null;
+                    tally.internCalls++;
+                    tally.milliLitersRefilled += container.getCurrentVolume();
+                    simulator.notify(new SimulationEvent.Filled(event.time, simulator.getMember(), LiquidType.WATER,
+                                                                container.getCurrentVolume()));
+                    simulator.drink(event.time, tally, ThirstyFactorManager.createFixedValueManager(levels[event.member]), 1);
+                    planGlassEmpty(event.member);
+                }
+                case CONDITIONS_CHANGE -> {
+                    catchUp(event.member, event.time, true);
+                    simulator.notify(new SimulationEvent.ConditionsChanged(event.time, simulator.getMember(),
+                                                                           simulator.getCelsius(),
+                                                                           simulator.getWorkIntensity()));
+                    if (levels[event.member] != pendingLevels[event.member]) {
+                        levels[event.member] = pendingLevels[event.member];
+                        planGlassEmpty(event.member);
+                    }
+                    planConditionsChange(event.member);
+                }
+                case WORKING_HOURS_END -> {
+                    catchUp(event.member, LocalTime.MAX, true);
+                    logger.debug("It's {}, employee {} goes home", event.time, event.member);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package enterprise.glassjoke.work;
+
+/**
+ * How the office entities are executed during a simulation.
+ *
+ * @author hkotsubo
+ */
+public enum ExecutionMode {
+    /**
+     * Everything runs in the simulator's thread, one entity after another.
+     */
+    SEQUENTIAL,
+    /**
+     * Each office entity runs their day in their own virtual thread, synchronized by a shared clock.
+     */
+    VIRTUAL_THREADS;
+}
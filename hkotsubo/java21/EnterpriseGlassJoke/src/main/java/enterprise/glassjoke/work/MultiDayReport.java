@@ -0,0 +1,67 @@
+package enterprise.glassjoke.work;
+
+/**
+ * Summary of what happened during many simulated working days.
+ *
+ * Reports are immutable.
+ *
+ * @author hkotsubo
+ */
+public class MultiDayReport {
+
+    private static final MultiDayReport EMPTY = new MultiDayReport(0, WorkingDayReport.empty());
+
+    private final int workingDays;
+    private final WorkingDayReport totals;
+
+    /**
+     * Create a report.
+     *
+     * @param workingDays How many working days were simulated
+     * @param totals The totals of all days. The number of employees is the size of the population, not the sum of all
+     * days
+     */
+    public MultiDayReport(int workingDays, WorkingDayReport totals) {
+        this.workingDays = workingDays;
+        this.totals = totals;
+    }
+
+    /**
+     * Get a report where no days were simulated yet
+     *
+     * @return The empty report
+     */
+    public static MultiDayReport empty() {
+        return EMPTY;
+    }
+
+    public int getWorkingDays() {
+        return workingDays;
+    }
+
+    public WorkingDayReport getTotals() {
+        return totals;
+    }
+
+    /**
+     * Add one more working day to this report.
+     *
+     * @param day The report of the working day
+     *
+     * @return A new report, including the working day
+     */
+    public MultiDayReport addDay(WorkingDayReport day) {
+        WorkingDayReport newTotals = new WorkingDayReport(Math.max(totals.getEmployees(), day.getEmployees()),
+                                                          totals.getIterations() + day.getIterations(),
+                                                          totals.getDrinks() + day.getDrinks(),
+                                                          totals.getInternCalls() + day.getInternCalls(),
+                                                          totals.getMilliLitersConsumed() + day.getMilliLitersConsumed(),
+                                                          totals.getMilliLitersRefilled() + day.getMilliLitersRefilled());
+        return new MultiDayReport(workingDays + 1, newTotals);
+    }
+
+    @Override
+    public String toString() {
+        return "MultiDayReport{workingDays=" + workingDays + ", totals=" + totals + '}';
+    }
+}
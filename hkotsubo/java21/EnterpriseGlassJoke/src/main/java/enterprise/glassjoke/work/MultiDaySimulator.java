@@ -0,0 +1,143 @@
+package enterprise.glassjoke.work;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Simulates many working days of an office, according to a working calendar.
+ *
+ * Each working day is simulated by an {@link OfficeSimulator} that uses the calendar's schedule of that day. Non-working
+ * days (weekends, holidays, etc) are skipped at no cost.
+ *
+ * The employees, their liquid containers and thirsty factor managers are the same in all days, so their state carries
+ * over from one day to the next (if the glass was half empty when someone went home, it's still half empty in the next
+ * morning - or half full, depending on how optimistic you are).
+ *
+ * The simulation can be saved in a checkpoint between working days (see {@link SimulationCheckpoint}), so a long run
+ * can be resumed later from that point. Checkpoints are only taken at day boundaries, never in the middle of a working
+ * day: if the process dies during a day, resuming starts that whole day again, from the state of the last checkpoint.
+ *
+ * Use {@link OfficeSimulatorBuilder#buildMultiDaySimulator(WorkingCalendar)} to create it.
+ *
+ * @author hkotsubo
+ */
+public class MultiDaySimulator {
+
+    private static final Logger logger = LogManager.getLogger(MultiDaySimulator.class.getSimpleName());
+
+    private final WorkingCalendar calendar;
+
+    // the population and settings used to create the office simulator of each day
+    private final OfficeSimulatorBuilder office;
+
+    // the first day that wasn't simulated yet
+    private LocalDate nextDay;
+    private MultiDayReport report;
+
+    // where and how often checkpoints are saved (null means "never")
+    private Path checkpointFile;
+    private int checkpointInterval;
+
+    MultiDaySimulator(WorkingCalendar calendar, OfficeSimulatorBuilder office) {
+        this.calendar = calendar;
+        this.office = office;
+        this.nextDay = calendar.getFirstDay();
+        this.report = MultiDayReport.empty();
+    }
+
+    public WorkingCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Save a checkpoint after every N simulated working days.
+     *
+     * The checkpoint file is always replaced by the most recent one. Checkpoints are saved only after a whole working
+     * day was simulated, so a resumed simulation loses the progress of the day that was interrupted (and of the days
+     * after the last checkpoint, if the interval is more than one day).
+     *
+     * @param workingDays How many working days between checkpoints, it must be positive
+     * @param checkpointFile The file where the checkpoints are saved
+     */
+    public void checkpointEvery(int workingDays, Path checkpointFile) {
+        if (workingDays <= 0) {
+            throw new IllegalArgumentException("number of working days must be positive");
+        }
+        this.checkpointInterval = workingDays;
+        this.checkpointFile = Objects.requireNonNull(checkpointFile, "checkpoint file can't be null");
+    }
+
+    /**
+     * Get the first day that wasn't simulated yet
+     *
+     * @return The next day to be simulated (it might not be a working day)
+     */
+    public LocalDate getNextDay() {
+        return nextDay;
+    }
+
+    /**
+     * Get the report of all days simulated so far
+     *
+     * @return The report
+     */
+    public MultiDayReport getReport() {
+        return report;
+    }
+
+    /**
+     * Simulates all the remaining working days of the calendar.
+     *
+     * @return The report of all simulated days
+     */
+    public MultiDayReport simulate() {
+        while (simulateNextWorkingDay()) {
+            // keep working
+        }
+        logger.info("No more working days. {}", report);
+        return report;
+    }
+
+    /**
+     * Skip all non-working days and simulate the next working day.
+     *
+     * @return true if a working day was simulated, false if there are no more working days in the calendar
+     */
+    public boolean simulateNextWorkingDay() {
+        LocalDate day = nextDay == null ? null : calendar.nextWorkingDay(nextDay);
+        if (day == null) {
+            nextDay = null;
+            return false;
+        }
+        logger.info("Today is {} {}", day.getDayOfWeek(), day);
+        if (office.getSimulationListener() != null) {
+            office.getSimulationListener().workingDayStarted(day);
+        }
+        OfficeSimulator officeSimulator = office.buildOfficeSimulator(calendar.getSchedule(day));
+        report = report.addDay(officeSimulator.simulateWorkingDay());
+        nextDay = day.plusDays(1);
+        if (checkpointFile != null && report.getWorkingDays() % checkpointInterval == 0) {
+            SimulationCheckpoint.save(this, checkpointFile);
+        }
+        return true;
+    }
+
+    /**
+     * Get the employees, with their containers and thirsty factor managers
+     */
+    List<OfficeSimulatorBuilder.Member> getPopulation() {
+        return office.getMembers();
+    }
+
+    /**
+     * Restore the progress of the simulation (used when resuming from a checkpoint)
+     */
+    void restoreProgress(LocalDate nextDay, MultiDayReport report) {
+        this.nextDay = nextDay;
+        this.report = report;
+    }
+}
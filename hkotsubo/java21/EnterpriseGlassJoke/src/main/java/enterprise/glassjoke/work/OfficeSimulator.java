@@ -0,0 +1,134 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.entity.InternDesk;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import enterprise.glassjoke.time.TimePassageManager;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Simulates a working day for a whole office.
+ *
+ * Each employee is simulated by their own {@link WorkingDaySimulator}, and the population is split across the threads
+ * of a fork-join pool. When all employees are done, their reports are combined into the office-level totals.
+ *
+ * As employees are simulated in parallel, they can't share any mutable state: each one must have their own liquid
+ * container and thirsty factor manager (use {@link OfficeSimulatorBuilder} to create simulators that are guaranteed to
+ * follow this rule).
+ *
+ * Alternatively, the office can run in {@link ExecutionMode#VIRTUAL_THREADS} mode: each employee runs their day in
+ * their own virtual thread, all of them synchronized by the same virtual clock, and interns are called from a shared
+ * intern desk.
+ *
+ * @author hkotsubo
+ */
+public class OfficeSimulator {
+
+    private static final Logger logger = LogManager.getLogger(OfficeSimulator.class.getSimpleName());
+
+    // how many tasks per thread the population is split into (more tasks = better load balancing)
+    private static final int TASKS_PER_THREAD = 8;
+
+    private final List<WorkingDaySimulator> simulators;
+    private final int parallelism;
+    private final ExecutionMode executionMode;
+    private final InternFactory internFactory;
+    private final int numberOfInterns;
+    private final TimePassageManager<LocalTime> timePassageManager;
+
+    /**
+     * Create an office simulator.
+     *
+     * @param simulators The simulators of each employee
+     * @param parallelism How many threads will be used. If zero, it uses the common fork-join pool
+     * @param executionMode How the employees are executed
+     * @param internFactory The factory that creates the interns of the intern desk (used only with virtual threads)
+     * @param numberOfInterns How many interns the intern desk has (used only with virtual threads)
+     * @param timePassageManager The time passage manager of the virtual clock (used only with virtual threads)
+     */
+    OfficeSimulator(List<WorkingDaySimulator> simulators, int parallelism, ExecutionMode executionMode,
+            InternFactory internFactory, int numberOfInterns, TimePassageManager<LocalTime> timePassageManager) {
+        this.simulators = List.copyOf(simulators);
+        this.parallelism = parallelism;
+        this.executionMode = executionMode;
+        this.internFactory = internFactory;
+        this.numberOfInterns = numberOfInterns;
+        this.timePassageManager = timePassageManager;
+    }
+
+    /**
+     * Get the number of employees in this office
+     *
+     * @return The number of employees
+     */
+    public int getPopulationSize() {
+        return simulators.size();
+    }
+
+    /**
+     * Simulates a working day for all employees in the office.
+     *
+     * @return The office-level report, with the totals of all employees
+     */
+    public WorkingDayReport simulateWorkingDay() {
+        if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            logger.info("Simulating {} employees and {} interns using virtual threads", simulators.size(), numberOfInterns);
+            try (InternDesk internDesk = new InternDesk(internFactory, numberOfInterns)) {
+                WorkingDayReport report = new VirtualThreadDayRunner(simulators, internDesk, timePassageManager).run();
+                logger.info("Office totals: {}", report);
+                return report;
+            }
+        }
+        if (parallelism == 0) {
+            return simulateWorkingDay(ForkJoinPool.commonPool());
+        }
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return simulateWorkingDay(pool);
+        }
+    }
+
+    private WorkingDayReport simulateWorkingDay(ForkJoinPool pool) {
+        int threshold = Math.max(1, simulators.size() / (pool.getParallelism() * TASKS_PER_THREAD));
+        logger.info("Simulating {} employees using {} threads", simulators.size(), pool.getParallelism());
+        WorkingDayReport report = pool.invoke(new SimulationTask(simulators, 0, simulators.size(), threshold));
+        logger.info("Office totals: {}", report);
+        return report;
+    }
+
+    /**
+     * Splits the population in halves until the chunk is small enough, then simulates each employee of the chunk
+     * sequentially.
+     */
+    private static class SimulationTask extends RecursiveTask<WorkingDayReport> {
+
+        private final List<WorkingDaySimulator> simulators;
+        private final int start, end, threshold;
+
+        SimulationTask(List<WorkingDaySimulator> simulators, int start, int end, int threshold) {
+            this.simulators = simulators;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected WorkingDayReport compute() {
+            if (end - start <= threshold) {
+                WorkingDayReport report = WorkingDayReport.empty();
+                for (int i = start; i < end; i++) {
+                    report = report.combine(simulators.get(i).simulateWorkingDay());
+                }
+                return report;
+            }
+            int middle = (start + end) >>> 1;
+            SimulationTask left = new SimulationTask(simulators, start, middle, threshold);
+            left.fork();
+            WorkingDayReport right = new SimulationTask(simulators, middle, end, threshold).compute();
+            return left.join().combine(right);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.entity.AsyncRefillService;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.entity.InternPool;
+import enterprise.glassjoke.entity.RefillDispatcher;
+import enterprise.glassjoke.entity.factory.InternFactory;
+import enterprise.glassjoke.entity.factory.TimePassageManagerFactory;
+import enterprise.glassjoke.event.SimulationListener;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import enterprise.glassjoke.kernel.OfficeKernel;
+import enterprise.glassjoke.kernel.OfficeKernelBuilder;
+import enterprise.glassjoke.random.RandomnessProvider;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.time.TimePassageManager;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builder for office simulators.
+ *
+ * Each employee is added with their own liquid container, working schedule and thirsty factor manager. The intern
+ * factory and the time passage manager are shared by the whole office (they don't hold any mutable state).
+ *
+ * @author hkotsubo
+ */
+public class OfficeSimulatorBuilder {
+
+    // the population: each employee with their own container, schedule and thirsty factors
+    private final List<Member> members;
+
+    // employees, liquid containers, thirsty factor managers and thirsty factors already in use, they can't be shared
+    private final Set<Object> statefulObjects;
+
+    private InternFactory internFactory;
+    private TimePassageManager<LocalTime> timePassageManager;
+
+    // how many threads (zero means "use the common fork-join pool")
+    private int parallelism;
+
+    private ExecutionMode executionMode;
+
+    // how many interns work in the intern desk (zero means "one for each 100 employees")
+    private int numberOfInterns;
+
+    // where the employees borrow interns when they're not in the intern desk (null means "summon a new one each time")
+    private InternPool internPool;
+
+    // if set, all refills go through it (null means "use the intern desk or the intern pool")
+    private RefillDispatcher refillDispatcher;
+
+    // if set, employees keep doing their things while the interns fill their containers
+    private AsyncRefillService asyncRefillService;
+
+    // if set, each thirsty factor manager gets a random stream (the employee's index is the stream number)
+    private RandomnessProvider randomnessProvider;
+
+    // who is told about what happens to the employees (null if nobody cares)
+    private SimulationListener simulationListener;
+
+    public OfficeSimulatorBuilder() {
+        this.members = new ArrayList<>();
+        this.statefulObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.internFactory = new InternFactory();
+        this.timePassageManager = TimePassageManagerFactory.newFactory().createOneHourTimePassageManager();
+        this.parallelism = 0;
+        this.executionMode = ExecutionMode.SEQUENTIAL;
+        this.numberOfInterns = 0;
+        this.internPool = null;
+        this.refillDispatcher = null;
+        this.asyncRefillService = null;
+        this.randomnessProvider = null;
+        this.simulationListener = null;
+    }
+
+    /**
+     * Add an employee to the office.
+     *
+     * The liquid container and the thirsty factor manager (including its thirsty factors, whose conditions change during
+     * the simulation) can't be shared with other employees, as each employee might be simulated by a different thread.
+     * If that's the case, it throws an IllegalOfficePopulationException.
+     *
+     * @param employee The employee
+     * @param liquidContainer The employee's liquid container
+     * @param workingSchedule The employee's working schedule
+     * @param thirstyFactorManager The thirsty factor manager that affects this employee
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder addEmployee(Employee employee, LiquidContainer liquidContainer,
+            WorkingSchedule workingSchedule, ThirstyFactorManager thirstyFactorManager) {
+        Member member = new Member(Objects.requireNonNull(employee, "employee can't be null"),
+                                   Objects.requireNonNull(liquidContainer, "liquid container can't be null"),
+                                   Objects.requireNonNull(workingSchedule, "working schedule can't be null"),
+                                   Objects.requireNonNull(thirstyFactorManager, "thirsty factor manager can't be null"));
+        List<Object> stateful = new ArrayList<>(List.of(employee, liquidContainer, thirstyFactorManager));
+        stateful.addAll(thirstyFactorManager.getFactors());
+        Set<Object> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object object : stateful) {
+            if (statefulObjects.contains(object)) {
+                throw new IllegalOfficePopulationException(object.getClass().getSimpleName()
+                        + " is already used by another employee of this office");
+            }
+            checked.add(object);
+        }
+        // only after everything was checked, so a rejected employee doesn't leave anything behind
+        statefulObjects.addAll(checked);
+        this.members.add(member);
+        return this;
+    }
+
+    /**
+     * Set the intern factory used by all employees
+     *
+     * @param internFactory The intern factory
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withInternFactory(InternFactory internFactory) {
+        this.internFactory = Objects.requireNonNull(internFactory, "intern factory can't be null");
+        return this;
+    }
+
+    /**
+     * Set the time passage manager used by all employees (default: one hour per iteration)
+     *
+     * @param timePassageManager The time passage manager
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withTimePassageManager(TimePassageManager<LocalTime> timePassageManager) {
+        this.timePassageManager = Objects.requireNonNull(timePassageManager, "time passage manager can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many threads will be used to simulate the office.
+     *
+     * If not set, it uses the common fork-join pool.
+     *
+     * @param parallelism The number of threads, it must be positive
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set how the employees are executed.
+     *
+     * By default, the population is split across the threads of a fork-join pool, and each thread simulates its
+     * employees sequentially. If it's set to VIRTUAL_THREADS, each employee runs in their own virtual thread, and they
+     * call interns from a shared intern desk.
+     *
+     * @param executionMode The execution mode
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = Objects.requireNonNull(executionMode, "execution mode can't be null");
+        return this;
+    }
+
+    /**
+     * Set how many interns work in the intern desk (used only with virtual threads).
+     *
+     * If not set, there will be one intern for each 100 employees.
+     *
+     * @param numberOfInterns The number of interns, it must be positive
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withNumberOfInterns(int numberOfInterns) {
+        if (numberOfInterns <= 0) {
+            throw new IllegalArgumentException("number of interns must be positive");
+        }
+        this.numberOfInterns = numberOfInterns;
+        return this;
+    }
+
+    /**
+     * Set the intern pool shared by all employees.
+     *
+     * It's not used with virtual threads (the interns work in the intern desk), nor by the discrete-event simulator
+     * (interns take some time to arrive, and a single thread can't wait for them). If not set, a new intern is summoned
+     * each time a container is empty.
+     *
+     * @param internPool The intern pool
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withInternPool(InternPool internPool) {
+        this.internPool = Objects.requireNonNull(internPool, "intern pool can't be null");
+        return this;
+    }
+
+    /**
+     * Set the refill dispatcher shared by all employees: their requests are grouped in the interns' trips, and the
+     * most intense workers are served first.
+     *
+     * It's used in all execution modes (instead of the intern desk or the intern pool), but not by the discrete-event
+     * simulator. The dispatcher is not closed by the simulators.
+     *
+     * @param refillDispatcher The refill dispatcher
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withRefillDispatcher(RefillDispatcher refillDispatcher) {
+        this.refillDispatcher = Objects.requireNonNull(refillDispatcher, "refill dispatcher can't be null");
+        return this;
+    }
+
+    /**
+     * Set the asynchronous refill service shared by all employees: when the container is empty, the employee requests
+     * a refill and keeps working while the intern is on the way. The results are the same of waiting for the intern.
+     *
+     * The refill doesn't outlive the moment in which it was requested: the employee does what they should be doing,
+     * and then waits for the intern before the moment ends (so they can drink in that same moment, as they would if
+     * they had waited). So each employee has at most one refill in flight, and what runs concurrently are the refills
+     * of different employees. How many of them can be outstanding depends on how many employees run at the same time:
+     * with virtual threads, each employee has their own, and thousands of refills can be outstanding, handled by a few
+     * threads (use {@link enterprise.glassjoke.entity.ExecutorRefillService} or a refill dispatcher). In the default
+     * execution mode, each thread of the pool waits for the refills of its employees one at a time, so there are never
+     * more outstanding refills than threads.
+     *
+     * It's used instead of the refill dispatcher, the intern desk or the intern pool, but not by the discrete-event
+     * simulator. The service is not closed by the simulators.
+     *
+     * @param asyncRefillService The asynchronous refill service
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withAsyncRefillService(AsyncRefillService asyncRefillService) {
+        this.asyncRefillService = Objects.requireNonNull(asyncRefillService, "async refill service can't be null");
+        return this;
+    }
+
+    /**
+     * Set the provider of random streams for the thirsty factor managers.
+     *
+     * When the simulator is built, each employee's thirsty factor manager gets the random stream whose number is the
+     * employee's index (the order in which they were added). Therefore, the results are always the same for the same
+     * seed, no matter how many threads are used (or if the office is simulated sequentially).
+     *
+     * If not set, each manager keeps its own random generator.
+     *
+     * @param randomnessProvider The randomness provider
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withRandomnessProvider(RandomnessProvider randomnessProvider) {
+        this.randomnessProvider = Objects.requireNonNull(randomnessProvider, "randomness provider can't be null");
+        return this;
+    }
+
+    /**
+     * Set a listener that is told about everything that happens to the employees (see
+     * {@link enterprise.glassjoke.event.SimulationEvent}). Each event has the employee's index (the order in which
+     * they were added).
+     *
+     * If the employees are simulated by many threads, the listener is called by all of them.
+     *
+     * @param simulationListener The listener
+     *
+     * @return This builder
+     */
+    public OfficeSimulatorBuilder withSimulationListener(SimulationListener simulationListener) {
+        this.simulationListener = Objects.requireNonNull(simulationListener, "simulation listener can't be null");
+        return this;
+    }
+
+    /**
+     * Build the office simulator
+     *
+     * @return The office simulator
+     */
+    public OfficeSimulator build() {
+        assignRandomStreams();
+        return buildOfficeSimulator(null);
+    }
+
+    /**
+     * Build a simulator that runs the office during many days, according to a working calendar.
+     *
+     * In each working day, all employees follow the calendar's schedule of that day (the schedules used when adding
+     * the employees are ignored). Everything else (parallelism, execution mode, etc) is configured by this builder.
+     *
+     * @param calendar The working calendar
+     *
+     * @return The multi-day simulator
+     */
+    public MultiDaySimulator buildMultiDaySimulator(WorkingCalendar calendar) {
+        assignRandomStreams();
+        return buildMultiDaySimulatorWithoutNewRandomStreams(calendar);
+    }
+
+    /**
+     * Build a multi-day simulator keeping the random generators of the thirsty factor managers as they are (used when
+     * resuming from a checkpoint, as the generators have been restored to their saved state).
+     */
+    MultiDaySimulator buildMultiDaySimulatorWithoutNewRandomStreams(WorkingCalendar calendar) {
+        // changes made to this builder after this method is called must not affect the simulator
+        return new MultiDaySimulator(Objects.requireNonNull(calendar, "calendar can't be null"), copy());
+    }
+
+    /**
+     * Get the employees added so far
+     */
+    List<Member> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Get the listener (null if not set)
+     */
+    SimulationListener getSimulationListener() {
+        return simulationListener;
+    }
+
+    private OfficeSimulatorBuilder copy() {
+        OfficeSimulatorBuilder copy = new OfficeSimulatorBuilder();
+        copy.members.addAll(this.members);
+        copy.statefulObjects.addAll(this.statefulObjects);
+        copy.internFactory = this.internFactory;
+        copy.timePassageManager = this.timePassageManager;
+        copy.parallelism = this.parallelism;
+        copy.executionMode = this.executionMode;
+        copy.numberOfInterns = this.numberOfInterns;
+        copy.internPool = this.internPool;
+        copy.refillDispatcher = this.refillDispatcher;
+        copy.asyncRefillService = this.asyncRefillService;
+        copy.randomnessProvider = this.randomnessProvider;
+        copy.simulationListener = this.simulationListener;
+        return copy;
+    }
+
+    /**
+     * Build an office simulator for the population.
+     *
+     * @param schedule The schedule used by all employees. If null, each employee uses their own schedule
+     */
+    OfficeSimulator buildOfficeSimulator(WorkingSchedule schedule) {
+        List<WorkingDaySimulator> simulators = buildWorkingDaySimulators(members, schedule);
+        int interns = numberOfInterns > 0 ? numberOfInterns : Math.max(1, members.size() / 100);
+        return new OfficeSimulator(simulators, parallelism, executionMode, internFactory, interns, timePassageManager);
+    }
+
+    /**
+     * Build a discrete-event simulator for the office.
+     *
+     * Parallelism and execution mode are ignored, as the events are handled in chronological order by a single thread.
+     *
+     * @return The discrete-event simulator
+     */
+    public DiscreteEventSimulator buildDiscreteEventSimulator() {
+        assignRandomStreams();
+        return new DiscreteEventSimulator(buildWorkingDaySimulators(members, null));
+    }
+
+    /**
+     * Build an office kernel with this office's population: the state of each employee's objects is copied to the
+     * kernel's arrays.
+     *
+     * The kernel gives the same results of the office simulator. The execution mode and the number of interns are
+     * ignored, and the intern factory isn't used (interns are just counted, and there are always enough of them).
+     *
+     * The kernel doesn't tell anyone what happens, and doesn't share interns, so it can't have a simulation listener, an
+     * intern pool, a refill dispatcher or an asynchronous refill service.
+     *
+     * @return The office kernel
+     *
+     * @throws IllegalStateException If any of the options the kernel can't use is set
+     */
+    public OfficeKernel buildOfficeKernel() {
+        rejectInKernel(simulationListener, "simulation listener");
+        rejectInKernel(internPool, "intern pool");
+        rejectInKernel(refillDispatcher, "refill dispatcher");
+        rejectInKernel(asyncRefillService, "async refill service");
+        assignRandomStreams();
+        OfficeKernelBuilder builder = new OfficeKernelBuilder()
+                .withTimePassageManager(timePassageManager)
+                .withParallelism(parallelism);
+        for (Member member : members) {
+            builder.addEmployee(member.employee, member.liquidContainer, member.workingSchedule,
+                                member.thirstyFactorManager);
+        }
+        return builder.build();
+    }
+
+    private static void rejectInKernel(Object option, String name) {
+        if (option != null) {
+            throw new IllegalStateException("The office kernel can't use a " + name);
+        }
+    }
+
+    private void assignRandomStreams() {
+        if (randomnessProvider != null) {
+            for (int i = 0; i < members.size(); i++) {
+                members.get(i).thirstyFactorManager.setRandomGenerator(randomnessProvider.streamFor(i));
+            }
+        }
+    }
+
+    private List<WorkingDaySimulator> buildWorkingDaySimulators(List<Member> population, WorkingSchedule schedule) {
+        List<WorkingDaySimulator> simulators = new ArrayList<>(population.size());
+        for (Member member : population) {
+            WorkingDaySimulator simulator = new WorkingDaySimulator(schedule != null ? schedule : member.workingSchedule,
+                                                                    member.employee, member.liquidContainer,
+                                                                    internFactory, member.thirstyFactorManager,
+                                                                    timePassageManager);
+            simulator.setListener(simulators.size(), simulationListener);
+            simulator.setInternPool(internPool);
+            simulator.setRefillDispatcher(refillDispatcher);
+            simulator.setAsyncRefillService(asyncRefillService);
+            simulators.add(simulator);
+        }
+        return simulators;
+    }
+
+    /**
+     * An employee and everything that belongs only to them.
+     */
+    static class Member {
+
+        final Employee employee;
+        final LiquidContainer liquidContainer;
+        final WorkingSchedule workingSchedule;
+        final ThirstyFactorManager thirstyFactorManager;
+
+        Member(Employee employee, LiquidContainer liquidContainer, WorkingSchedule workingSchedule,
+                ThirstyFactorManager thirstyFactorManager) {
+            this.employee = employee;
+            this.liquidContainer = liquidContainer;
+            this.workingSchedule = workingSchedule;
+            this.thirstyFactorManager = thirstyFactorManager;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package enterprise.glassjoke.work;
+
+import java.time.LocalTime;
+
+/**
+ * An event that will happen to an employee at a specific time.
+ *
+ * Events are ordered by time, then by type, and then by the order they were scheduled.
+ *
+ * @author hkotsubo
+ */
+class ScheduledEvent implements Comparable<ScheduledEvent> {
+
+    final LocalTime time;
+    final ScheduledEventType type;
+    // index of the employee in the simulated population
+    final int member;
+    // the order in which the event was scheduled, used to break ties
+    final long sequence;
+
+    ScheduledEvent(LocalTime time, ScheduledEventType type, int member, long sequence) {
+        this.time = time;
+        this.type = type;
+        this.member = member;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(ScheduledEvent other) {
+        int result = this.time.compareTo(other.time);
+        if (result == 0) {
+            result = this.type.compareTo(other.type);
+        }
+        if (result == 0) {
+            result = Long.compare(this.sequence, other.sequence);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package enterprise.glassjoke.work;
+
+/**
+ * Types of events handled by the discrete-event simulator.
+ *
+ * When two events happen at the same time, they're handled in the order they're declared here.
+ *
+ * @author hkotsubo
+ */
+public enum ScheduledEventType {
+    /**
+     * The employee's working hours begin.
+     */
+    WORKING_HOURS_START,
+    /**
+     * The interval of the employee's working schedule begins.
+     */
+    INTERVAL_START,
+    /**
+     * The interval of the employee's working schedule ends, so it's time to get back to work.
+     */
+    INTERVAL_END,
+    /**
+     * A thirsty employee finds out the liquid container is empty (the moments they get thirsty and drink before that
+     * are not events, they're counted when something else happens).
+     */
+    GLASS_EMPTY,
+    /**
+     * The intern arrives to fill the liquid container.
+     */
+    INTERN_ARRIVAL,
+    /**
+     * The thirsty factors' conditions change (the moments they might change, but don't, are not events).
+     */
+    CONDITIONS_CHANGE,
+    /**
+     * The employee's working hours end.
+     */
+    WORKING_HOURS_END;
+}
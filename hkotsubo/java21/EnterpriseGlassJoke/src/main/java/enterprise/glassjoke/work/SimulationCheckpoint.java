@@ -0,0 +1,432 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.container.ArrayLiquidContainer;
+import enterprise.glassjoke.container.LiquidContainer;
+import enterprise.glassjoke.container.LiquidContainerBuilder;
+import enterprise.glassjoke.container.LiquidContainerType;
+import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.Employee;
+import enterprise.glassjoke.exception.IllegalOfficePopulationException;
+import enterprise.glassjoke.exception.SimulationCheckpointException;
+import enterprise.glassjoke.random.SplitMixRandom;
+import enterprise.glassjoke.thirsty.RoomTemperature;
+import enterprise.glassjoke.thirsty.ThirstyFactor;
+import enterprise.glassjoke.thirsty.ThirstyFactorBuilder;
+import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.thirsty.WorkIntensity;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Saves the state of a multi-day simulation to a binary file, and resumes the simulation from it.
+ *
+ * Checkpoints are taken between working days (and only then: "resume" always means "from the start of a working
+ * day", a day that was interrupted is simulated again from its beginning), and contain everything needed to continue
+ * the simulation exactly from that point: the next day to be simulated, the report so far, and for each employee their
+ * name, thirsty status, working schedule, liquid container (capacity, type, contents and how they're stored), thirsty
+ * factors (room temperature and work intensity) and the state of the thirsty factor manager's random generator.
+ *
+ * Only plain thirsty factor managers (not subclasses), using a {@link SplitMixRandom} generator (the default), can be
+ * saved. Their factors are saved in the same order of the manager's list, as that's the order in which they use the
+ * random generator. Managers whose factors are in the order of {@link ThirstyFactorBuilder} (room temperature first,
+ * and at most one of each) are restored by the builder, any other ones by
+ * {@link ThirstyFactorManager#ThirstyFactorManager(List, java.util.random.RandomGenerator)}.
+ *
+ * The file is written through a file channel, in a compact format that doesn't use Java serialization. It starts with
+ * a magic number and a format version. Working schedules are usually shared by many employees, so they're saved once in
+ * a table, and each employee just refers to its index.
+ *
+ * @author hkotsubo
+ */
+public class SimulationCheckpoint {
+
+    private static final Logger logger = LogManager.getLogger(SimulationCheckpoint.class.getSimpleName());
+
+    // "EGJC" (Enterprise Glass Joke Checkpoint)
+    private static final int MAGIC = 0x45474A43;
+    private static final int VERSION = 3;
+
+    // version 1 didn't have the containers' storage (they were all map-backed)
+    private static final int VERSION_WITHOUT_STORAGE = 1;
+    // versions 1 and 2 saved the number of thirsty factors in a single byte
+    private static final int VERSION_WITH_BYTE_FACTOR_COUNT = 2;
+
+    // marks the absence of a date or time
+    private static final long NO_DAY = Long.MIN_VALUE;
+    private static final int NO_TIME = -1;
+
+    // how the liquid containers store their contents
+    private static final byte MAP_STORAGE = 0;
+    private static final byte ARRAY_STORAGE = 1;
+
+    // kinds of thirsty factors
+    private static final byte ROOM_TEMPERATURE = 0;
+    private static final byte WORK_INTENSITY = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SimulationCheckpoint() {
+    }
+
+    /**
+     * Save the state of a multi-day simulation.
+     *
+     * The file is first written to a temporary file and then moved to the destination, so a crash while saving never
+     * destroys the previous checkpoint.
+     *
+     * @param simulator The simulator
+     * @param file The checkpoint file
+     */
+    public static void save(MultiDaySimulator simulator, Path file) {
+        long start = System.nanoTime();
+        List<OfficeSimulatorBuilder.Member> population = simulator.getPopulation();
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.buffer.putInt(MAGIC).putInt(VERSION);
+            LocalDate nextDay = simulator.getNextDay();
+            out.buffer.putLong(nextDay == null ? NO_DAY : nextDay.toEpochDay());
+            writeReport(out, simulator.getReport());
+
+            // the schedules' table
+            Map<WorkingSchedule, Integer> schedules = new IdentityHashMap<>();
+            for (OfficeSimulatorBuilder.Member member : population) {
+                schedules.putIfAbsent(member.workingSchedule, schedules.size());
+            }
+            WorkingSchedule[] scheduleTable = new WorkingSchedule[schedules.size()];
+            schedules.forEach((schedule, index) -> scheduleTable[index] = schedule);
+            out.ensure(4);
+            out.buffer.putInt(scheduleTable.length);
+            for (WorkingSchedule schedule : scheduleTable) {
+                out.ensure(16);
+                writeSchedule(out.buffer, schedule);
+            }
+
+            out.ensure(4);
+            out.buffer.putInt(population.size());
+            for (OfficeSimulatorBuilder.Member member : population) {
+                byte[] name = member.employee.getName().getBytes(StandardCharsets.UTF_8);
+                out.ensure(4 + name.length);
+                out.buffer.putInt(name.length).put(name);
+                out.ensure(1 + 4);
+                out.buffer.put((byte) (member.employee.isQuietlyThirsty() ? 1 : 0));
+                out.buffer.putInt(schedules.get(member.workingSchedule));
+                writeContainer(out, member.liquidContainer);
+                writeThirstyFactorManager(out, member.thirstyFactorManager);
+            }
+            out.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            throw new SimulationCheckpointException("Can't save checkpoint to " + file, e);
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SimulationCheckpointException("Can't save checkpoint to " + file, e);
+        }
+        logger.info("Checkpoint of {} employees saved to {} in {}ms", population.size(), file,
+                    (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Resume a multi-day simulation from a checkpoint.
+     *
+     * The employees and everything that belongs to them are recreated from the checkpoint, and added to the builder
+     * (which must not have any employees). All the other settings (parallelism, execution mode, etc) are taken from the
+     * builder - they don't affect the results, so they can be different from the original simulation.
+     *
+     * @param file The checkpoint file
+     * @param builder The builder with the simulation settings
+     * @param calendar The working calendar (it should be the same used by the original simulation)
+     *
+     * @return The simulator, ready to continue from the day after the last one saved in the checkpoint
+     */
+    public static MultiDaySimulator resume(Path file, OfficeSimulatorBuilder builder, WorkingCalendar calendar) {
+        Objects.requireNonNull(builder, "builder can't be null");
+        if (!builder.getMembers().isEmpty()) {
+            throw new IllegalOfficePopulationException("The office must be empty to be restored from a checkpoint");
+        }
+        long start = System.nanoTime();
+        LocalDate nextDay;
+        MultiDayReport report;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            in.require(8);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new SimulationCheckpointException(file + " is not a checkpoint file");
+            }
+            int version = in.buffer.getInt();
+            if (version < VERSION_WITHOUT_STORAGE || version > VERSION) {
+                throw new SimulationCheckpointException("Unsupported checkpoint version: " + version);
+            }
+            in.require(8 + 4 + 4 + 5 * 8);
+            long epochDay = in.buffer.getLong();
+            nextDay = epochDay == NO_DAY ? null : LocalDate.ofEpochDay(epochDay);
+            report = readReport(in.buffer);
+
+            in.require(4);
+            WorkingSchedule[] scheduleTable = new WorkingSchedule[in.buffer.getInt()];
+            for (int i = 0; i < scheduleTable.length; i++) {
+                in.require(16);
+                scheduleTable[i] = readSchedule(in.buffer);
+            }
+
+            in.require(4);
+            int populationSize = in.buffer.getInt();
+            for (int i = 0; i < populationSize; i++) {
+                in.require(4);
+                byte[] name = new byte[in.buffer.getInt()];
+                in.require(name.length);
+                in.buffer.get(name);
+                Employee employee = new Employee(new String(name, StandardCharsets.UTF_8));
+                in.require(1 + 4);
+                employee.setThirsty(in.buffer.get() == 1);
+                WorkingSchedule schedule = scheduleTable[in.buffer.getInt()];
+                LiquidContainer container = readContainer(in, version != VERSION_WITHOUT_STORAGE);
+                ThirstyFactorManager manager = readThirstyFactorManager(in, version > VERSION_WITH_BYTE_FACTOR_COUNT);
+                builder.addEmployee(employee, container, schedule, manager);
+            }
+        } catch (IOException e) {
+            throw new SimulationCheckpointException("Can't read checkpoint from " + file, e);
+        }
+        MultiDaySimulator simulator = builder.buildMultiDaySimulatorWithoutNewRandomStreams(calendar);
+        simulator.restoreProgress(nextDay, report);
+        logger.info("Checkpoint of {} employees restored from {} in {}ms", builder.getMembers().size(), file,
+                    (System.nanoTime() - start) / 1_000_000);
+        return simulator;
+    }
+
+    private static void writeReport(Output out, MultiDayReport report) throws IOException {
+        WorkingDayReport totals = report.getTotals();
+        out.ensure(4 + 4 + 5 * 8);
+        out.buffer.putInt(report.getWorkingDays()).putInt(totals.getEmployees())
+                .putLong(totals.getIterations()).putLong(totals.getDrinks()).putLong(totals.getInternCalls())
+                .putLong(totals.getMilliLitersConsumed()).putLong(totals.getMilliLitersRefilled());
+    }
+
+    private static MultiDayReport readReport(ByteBuffer buffer) {
+        int workingDays = buffer.getInt();
+        WorkingDayReport totals = new WorkingDayReport(buffer.getInt(), buffer.getLong(), buffer.getLong(),
+                                                       buffer.getLong(), buffer.getLong(), buffer.getLong());
+        return new MultiDayReport(workingDays, totals);
+    }
+
+    private static void writeSchedule(ByteBuffer buffer, WorkingSchedule schedule) {
+        buffer.putInt(schedule.getStart().toSecondOfDay()).putInt(schedule.getEnd().toSecondOfDay());
+        Interval interval = schedule.getInterval();
+        buffer.putInt(interval == null ? NO_TIME : interval.getStart().toSecondOfDay());
+        buffer.putInt(interval == null ? NO_TIME : interval.getEnd().toSecondOfDay());
+    }
+
+    private static WorkingSchedule readSchedule(ByteBuffer buffer) {
+        LocalTime start = LocalTime.ofSecondOfDay(buffer.getInt());
+        LocalTime end = LocalTime.ofSecondOfDay(buffer.getInt());
+        int intervalStart = buffer.getInt(), intervalEnd = buffer.getInt();
+        Interval interval = intervalStart == NO_TIME ? null
+                : new Interval(LocalTime.ofSecondOfDay(intervalStart), LocalTime.ofSecondOfDay(intervalEnd));
+        return new WorkingSchedule(start, end, interval);
+    }
+
+    private static void writeContainer(Output out, LiquidContainer container) throws IOException {
+        out.ensure(1 + 1 + 4 + 1 + 4 * LiquidType.values().length);
+        ByteBuffer buffer = out.buffer;
+        if (container.getClass() == LiquidContainer.class) {
+            buffer.put(MAP_STORAGE);
+        } else if (container.getClass() == ArrayLiquidContainer.class) {
+            buffer.put(ARRAY_STORAGE);
+        } else {
+            throw new SimulationCheckpointException("Can't save liquid container " + container.getClass().getName());
+        }
+        buffer.put((byte) container.getType().ordinal());
+        buffer.putInt(container.getCapacity());
+        Map<LiquidType, Integer> contents = container.getContents();
+        buffer.put((byte) LiquidType.values().length);
+        for (LiquidType liquidType : LiquidType.values()) {
+            buffer.putInt(contents.getOrDefault(liquidType, 0));
+        }
+    }
+
+    private static LiquidContainer readContainer(Input in, boolean hasStorage) throws IOException {
+        in.require(1 + 1 + 4 + 1);
+        byte storage = hasStorage ? in.buffer.get() : MAP_STORAGE;
+        LiquidContainerBuilder builder = new LiquidContainerBuilder()
+                .withType(LiquidContainerType.values()[in.buffer.get()])
+                .withCapacity(in.buffer.getInt());
+        if (storage == ARRAY_STORAGE) {
+            builder.withArrayStorage();
+        } else if (storage != MAP_STORAGE) {
+            throw new SimulationCheckpointException("Unknown container storage in checkpoint: " + storage);
+        }
+        int liquidTypes = in.buffer.get();
+        if (liquidTypes > LiquidType.values().length) {
+            throw new SimulationCheckpointException("Checkpoint has unknown liquid types");
+        }
+        in.require(4 * liquidTypes);
+        for (int i = 0; i < liquidTypes; i++) {
+            int amount = in.buffer.getInt();
+            if (amount > 0) {
+                builder.addContent(LiquidType.values()[i], amount);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void writeThirstyFactorManager(Output out, ThirstyFactorManager manager) throws IOException {
+        if (manager.getClass() != ThirstyFactorManager.class) {
+            throw new SimulationCheckpointException("Can't save thirsty factor manager "
+                    + manager.getClass().getName());
+        }
+        if (!(manager.getRandomGenerator() instanceof SplitMixRandom rand)) {
+            throw new SimulationCheckpointException("Can't save the state of random generator "
+                    + manager.getRandomGenerator().getClass().getName());
+        }
+        List<ThirstyFactor> factors = manager.getFactors();
+        out.ensure(8 + 8 + 4);
+        out.buffer.putLong(rand.getSeed()).putLong(rand.getGamma()).putInt(factors.size());
+        for (ThirstyFactor factor : factors) {
+            out.ensure(1 + 8);
+            switch (factor) {
+                case RoomTemperature roomTemperature ->
+                    out.buffer.put(ROOM_TEMPERATURE).putDouble(roomTemperature.getCelsius());
+                case WorkIntensity workIntensity ->
+                    out.buffer.put(WORK_INTENSITY).putInt(workIntensity.getIntensity());
+                default ->
+                    throw new SimulationCheckpointException("Can't save thirsty factor " + factor.getClass().getName());
+            }
+        }
+    }
+
+    private static ThirstyFactorManager readThirstyFactorManager(Input in, boolean intFactorCount) throws IOException {
+        in.require(8 + 8 + (intFactorCount ? 4 : 1));
+        SplitMixRandom rand = new SplitMixRandom(in.buffer.getLong(), in.buffer.getLong());
+        int size = intFactorCount ? in.buffer.getInt() : in.buffer.get();
+        if (size < 0) {
+            throw new SimulationCheckpointException("Invalid number of thirsty factors in checkpoint: " + size);
+        }
+        List<ThirstyFactor> factors = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            in.require(1);
+            byte kind = in.buffer.get();
+            switch (kind) {
+                case ROOM_TEMPERATURE -> {
+                    in.require(8);
+                    factors.add(RoomTemperature.ofCelsius(in.buffer.getDouble()));
+                }
+                case WORK_INTENSITY -> {
+                    in.require(4);
+                    factors.add(new WorkIntensity(in.buffer.getInt()));
+                }
+                default ->
+                    throw new SimulationCheckpointException("Unknown thirsty factor in checkpoint: " + kind);
+            }
+        }
+        if (!isBuilderOrder(factors)) {
+            return new ThirstyFactorManager(factors, rand);
+        }
+        ThirstyFactorBuilder builder = new ThirstyFactorBuilder().withRandomGenerator(rand);
+        for (ThirstyFactor factor : factors) {
+            if (factor instanceof RoomTemperature roomTemperature) {
+                builder.addRoomTemperatureCelsius(roomTemperature.getCelsius());
+            } else {
+                builder.addWorkIntensity(((WorkIntensity) factor).getIntensity());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Check if the factors are in the same order the thirsty factor builder puts them (then the builder creates a
+     * manager that uses the random generator in the same way)
+     */
+    private static boolean isBuilderOrder(List<ThirstyFactor> factors) {
+        int roomTemperatures = 0, workIntensities = 0;
+        for (ThirstyFactor factor : factors) {
+            if (factor instanceof RoomTemperature) {
+                if (roomTemperatures++ > 0 || workIntensities > 0) {
+                    return false;
+                }
+            } else if (workIntensities++ > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes to a channel through a buffer, flushing it whenever there's not enough space.
+     */
+    private static class Output {
+
+        final FileChannel channel;
+        final ByteBuffer buffer;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+                if (buffer.remaining() < bytes) {
+                    throw new SimulationCheckpointException("Value too large for checkpoint: " + bytes + " bytes");
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads from a channel through a buffer, refilling it whenever there's not enough data.
+     */
+    private static class Input {
+
+        final FileChannel channel;
+        final ByteBuffer buffer;
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.buffer.flip(); // starts empty
+        }
+
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            if (bytes > buffer.capacity()) {
+                throw new SimulationCheckpointException("Value too large in checkpoint: " + bytes + " bytes");
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new SimulationCheckpointException("Checkpoint file is truncated");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.entity.InternDesk;
+import enterprise.glassjoke.exception.EnterpriseGlassJokeBaseException;
+import enterprise.glassjoke.time.TimePassageManager;
+import enterprise.glassjoke.time.VirtualClock;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs the working day of many employees, each one in their own virtual thread.
+ *
+ * All employees share the same virtual clock, which starts at the earliest schedule's start hour. Each employee's
+ * moments start at their own schedule's start hour (as in the sequential simulation), and the clock goes through the
+ * moments of all employees, in order.
+ *
+ * @author hkotsubo
+ */
+class VirtualThreadDayRunner {
+
+    private static final Logger logger = LogManager.getLogger(VirtualThreadDayRunner.class.getSimpleName());
+
+    private final List<WorkingDaySimulator> simulators;
+    private final InternDesk internDesk;
+    private final TimePassageManager<LocalTime> timePassageManager;
+
+    VirtualThreadDayRunner(List<WorkingDaySimulator> simulators, InternDesk internDesk,
+            TimePassageManager<LocalTime> timePassageManager) {
+        this.simulators = simulators;
+        this.internDesk = internDesk;
+        this.timePassageManager = timePassageManager;
+    }
+
+    /**
+     * Run the working day and wait until all employees go home.
+     *
+     * @return The combined report of all employees
+     */
+    WorkingDayReport run() {
+        if (simulators.isEmpty()) {
+            return WorkingDayReport.empty();
+        }
+        LocalTime start = simulators.get(0).getWorkingSchedule().getStart();
+        LocalTime end = simulators.get(0).getWorkingSchedule().getEnd();
+        for (WorkingDaySimulator simulator : simulators) {
+            WorkingSchedule schedule = simulator.getWorkingSchedule();
+            start = schedule.getStart().isBefore(start) ? schedule.getStart() : start;
+            end = schedule.getEnd().isAfter(end) ? schedule.getEnd() : end;
+        }
+
+        // everybody must be registered before the clock starts ticking
+        VirtualClock clock = new VirtualClock(start, timePassageManager);
+        List<VirtualClock.Participant> participants = new ArrayList<>(simulators.size());
+        for (int i = 0; i < simulators.size(); i++) {
+            participants.add(clock.register(simulators.get(i).getWorkingSchedule().getStart()));
+        }
+
+        logger.info("It's {}, let's work until {}", start, end);
+        List<Future<WorkingDayReport>> reports = new ArrayList<>(simulators.size());
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("employee-", 0).factory())) {
+            for (int i = 0; i < simulators.size(); i++) {
+                WorkingDaySimulator simulator = simulators.get(i);
+                VirtualClock.Participant participant = participants.get(i);
+                reports.add(executor.submit(() -> simulator.simulateWorkingDay(participant, internDesk)));
+            }
+        }
+        logger.info("It's {}, go home!", clock.now());
+
+        WorkingDayReport total = WorkingDayReport.empty();
+        for (Future<WorkingDayReport> report : reports) {
+            total = total.combine(getReport(report));
+        }
+        return total;
+    }
+
+    private static WorkingDayReport getReport(Future<WorkingDayReport> report) {
+        try {
+            return report.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new EnterpriseGlassJokeBaseException("Employee's working day failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EnterpriseGlassJokeBaseException("Interrupted while waiting for the working day to end", e);
+        }
+    }
+}
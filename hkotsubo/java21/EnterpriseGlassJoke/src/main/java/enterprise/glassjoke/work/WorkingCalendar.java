@@ -0,0 +1,103 @@
+package enterprise.glassjoke.work;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Defines which days are working days in a period, and the working schedule of each one.
+ *
+ * Each day of the week can have its own working schedule (days without a schedule are not working days, like weekends),
+ * and holidays are never working days.
+ *
+ * All working days of the period are precomputed in a bitset, so finding the next working day skips all the non-working
+ * days at once (no matter how many of them there are).
+ *
+ * Calendars are immutable, use {@link WorkingCalendarBuilder} to create them.
+ *
+ * @author hkotsubo
+ */
+public class WorkingCalendar {
+
+    private final LocalDate firstDay, lastDay;
+    private final Map<DayOfWeek, WorkingSchedule> schedules;
+
+    // bit i is set if (firstDay + i days) is a working day
+    private final BitSet workingDays;
+
+    WorkingCalendar(LocalDate firstDay, LocalDate lastDay, Map<DayOfWeek, WorkingSchedule> schedules, BitSet workingDays) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.schedules = schedules.isEmpty() ? new EnumMap<>(DayOfWeek.class) : new EnumMap<>(schedules);
+        this.workingDays = (BitSet) workingDays.clone();
+    }
+
+    /**
+     * Get the first day of the calendar's period
+     *
+     * @return The first day
+     */
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Get the last day of the calendar's period
+     *
+     * @return The last day (inclusive)
+     */
+    public LocalDate getLastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Get the number of working days in the calendar's period
+     *
+     * @return The number of working days
+     */
+    public int getNumberOfWorkingDays() {
+        return workingDays.cardinality();
+    }
+
+    /**
+     * Check if a day is a working day.
+     *
+     * @param day The day to check
+     *
+     * @return true if it's a working day, false otherwise (including days outside the calendar's period)
+     */
+    public boolean isWorkingDay(LocalDate day) {
+        long index = ChronoUnit.DAYS.between(firstDay, day);
+        return index >= 0 && day.compareTo(lastDay) <= 0 && workingDays.get((int) index);
+    }
+
+    /**
+     * Get the working schedule of a day.
+     *
+     * @param day The day
+     *
+     * @return The working schedule, or null if it's not a working day
+     */
+    public WorkingSchedule getSchedule(LocalDate day) {
+        return isWorkingDay(day) ? schedules.get(day.getDayOfWeek()) : null;
+    }
+
+    /**
+     * Find the first working day that is equal or after the specified day.
+     *
+     * @param day The day to start the search
+     *
+     * @return The next working day, or null if there are no more working days in the calendar's period
+     */
+    public LocalDate nextWorkingDay(LocalDate day) {
+        long index = Math.max(0, ChronoUnit.DAYS.between(firstDay, day));
+        if (day.isAfter(lastDay)) {
+            return null;
+        }
+        int next = workingDays.nextSetBit((int) index);
+        return next < 0 ? null : firstDay.plusDays(next);
+    }
+}
@@ -0,0 +1,145 @@
+package enterprise.glassjoke.work;
+
+import enterprise.glassjoke.exception.IllegalIntervalBoundariesException;
+import enterprise.glassjoke.time.TimeProvider;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builder for working calendars.
+ *
+ * By default, the period starts today and lasts one year, and there are no working days at all (which is nice, but
+ * makes the simulation quite boring). Add schedules to some days of the week to have working days.
+ *
+ * @author hkotsubo
+ */
+public class WorkingCalendarBuilder {
+
+    private LocalDate firstDay, lastDay;
+    private final Map<DayOfWeek, WorkingSchedule> schedules;
+    private final Set<LocalDate> holidays;
+
+    public WorkingCalendarBuilder() {
+        this(new TimeProvider());
+    }
+
+    /**
+     * Create a builder whose default period starts at the time provider's current date.
+     *
+     * @param timeProvider The time provider
+     */
+    public WorkingCalendarBuilder(TimeProvider timeProvider) {
+        this.firstDay = timeProvider.today();
+        this.lastDay = this.firstDay.plusYears(1).minusDays(1);
+        this.schedules = new EnumMap<>(DayOfWeek.class);
+        this.holidays = new HashSet<>();
+    }
+
+    /**
+     * Set the calendar's period
+     *
+     * @param firstDay The first day
+     * @param lastDay The last day (inclusive)
+     *
+     * @return This builder
+     */
+    public WorkingCalendarBuilder withPeriod(LocalDate firstDay, LocalDate lastDay) {
+        this.firstDay = Objects.requireNonNull(firstDay, "first day can't be null");
+        this.lastDay = Objects.requireNonNull(lastDay, "last day can't be null");
+        return this;
+    }
+
+    /**
+     * Set the working schedule of a day of the week
+     *
+     * @param dayOfWeek The day of the week
+     * @param schedule The working schedule
+     *
+     * @return This builder
+     */
+    public WorkingCalendarBuilder withSchedule(DayOfWeek dayOfWeek, WorkingSchedule schedule) {
+        this.schedules.put(Objects.requireNonNull(dayOfWeek, "day of week can't be null"),
+                           Objects.requireNonNull(schedule, "schedule can't be null"));
+        return this;
+    }
+
+    /**
+     * Set the same working schedule from monday to friday
+     *
+     * @param schedule The working schedule
+     *
+     * @return This builder
+     */
+    public WorkingCalendarBuilder withWeekdaysSchedule(WorkingSchedule schedule) {
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                withSchedule(dayOfWeek, schedule);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add a holiday (there's no work on holidays, regardless of the day of the week)
+     *
+     * @param holiday The holiday
+     *
+     * @return This builder
+     */
+    public WorkingCalendarBuilder addHoliday(LocalDate holiday) {
+        this.holidays.add(Objects.requireNonNull(holiday, "holiday can't be null"));
+        return this;
+    }
+
+    /**
+     * Add many holidays
+     *
+     * @param holidays The holidays
+     *
+     * @return This builder
+     */
+    public WorkingCalendarBuilder addHolidays(Collection<LocalDate> holidays) {
+        holidays.forEach(this::addHoliday);
+        return this;
+    }
+
+    /**
+     * Build the working calendar, precomputing all its working days.
+     *
+     * @return The working calendar
+     */
+    public WorkingCalendar build() {
+        if (lastDay.isBefore(firstDay)) {
+            throw new IllegalIntervalBoundariesException("last day can't be before first day");
+        }
+        long days = ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+        if (days > Integer.MAX_VALUE) {
+            throw new IllegalIntervalBoundariesException("calendar's period is too long");
+        }
+        BitSet workingDays = new BitSet((int) days);
+        if (!schedules.isEmpty()) {
+            // mark each day of the week with a schedule, jumping a week at a time
+            for (int i = 0; i < 7 && i < days; i++) {
+                if (schedules.containsKey(firstDay.plusDays(i).getDayOfWeek())) {
+                    for (int day = i; day < days; day += 7) {
+                        workingDays.set(day);
+                    }
+                }
+            }
+            for (LocalDate holiday : holidays) {
+                if (!holiday.isBefore(firstDay) && !holiday.isAfter(lastDay)) {
+                    workingDays.clear((int) ChronoUnit.DAYS.between(firstDay, holiday));
+                }
+            }
+        }
+        return new WorkingCalendar(firstDay, lastDay, schedules, workingDays);
+    }
+}
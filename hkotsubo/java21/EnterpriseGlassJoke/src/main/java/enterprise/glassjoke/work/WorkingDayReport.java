@@ -0,0 +1,97 @@
+package enterprise.glassjoke.work;
+
+/**
+ * Summary of what happened during a simulated working day.
+ *
+ * A report can describe a single employee or a whole office: reports are combined by adding up their values, so the
+ * office-level totals are just the combination of every employee's report.
+ *
+ * Reports are immutable.
+ *
+ * @author hkotsubo
+ */
+public class WorkingDayReport {
+
+    private static final WorkingDayReport EMPTY = new WorkingDayReport(0, 0, 0, 0, 0, 0);
+
+    private final int employees;
+    private final long iterations;
+    private final long drinks;
+    private final long internCalls;
+    private final long milliLitersConsumed;
+    private final long milliLitersRefilled;
+
+    /**
+     * Create a report.
+     *
+     * @param employees How many employees are included in this report
+     * @param iterations How many iterations (time passages) were simulated
+     * @param drinks How many times someone drank from their liquid container
+     * @param internCalls How many times an intern was called
+     * @param milliLitersConsumed The total amount of liquid consumed, in milliliters
+     * @param milliLitersRefilled The total amount of liquid added by interns, in milliliters
+     */
+    public WorkingDayReport(int employees, long iterations, long drinks, long internCalls, long milliLitersConsumed,
+            long milliLitersRefilled) {
+        this.employees = employees;
+        this.iterations = iterations;
+        this.drinks = drinks;
+        this.internCalls = internCalls;
+        this.milliLitersConsumed = milliLitersConsumed;
+        this.milliLitersRefilled = milliLitersRefilled;
+    }
+
+    /**
+     * Get a report where nothing happened (useful as a starting point when combining reports).
+     *
+     * @return The empty report
+     */
+    public static WorkingDayReport empty() {
+        return EMPTY;
+    }
+
+    public int getEmployees() {
+        return employees;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getDrinks() {
+        return drinks;
+    }
+
+    public long getInternCalls() {
+        return internCalls;
+    }
+
+    public long getMilliLitersConsumed() {
+        return milliLitersConsumed;
+    }
+
+    public long getMilliLitersRefilled() {
+        return milliLitersRefilled;
+    }
+
+    /**
+     * Combine this report with another one, adding up all the values.
+     *
+     * @param other The other report
+     *
+     * @return A new report with the totals of both reports
+     */
+    public WorkingDayReport combine(WorkingDayReport other) {
+        return new WorkingDayReport(this.employees + other.employees, this.iterations + other.iterations,
+                                    this.drinks + other.drinks, this.internCalls + other.internCalls,
+                                    this.milliLitersConsumed + other.milliLitersConsumed,
+                                    this.milliLitersRefilled + other.milliLitersRefilled);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkingDayReport{employees=" + employees + ", iterations=" + iterations + ", drinks=" + drinks
+                + ", internCalls=" + internCalls + ", milliLitersConsumed=" + milliLitersConsumed
+                + ", milliLitersRefilled=" + milliLitersRefilled + '}';
+    }
+}
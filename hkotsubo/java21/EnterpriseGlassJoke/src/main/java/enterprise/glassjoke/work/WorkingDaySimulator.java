@@ -2,19 +2,36 @@ package enterprise.glassjoke.work;
 
 import enterprise.glassjoke.container.LiquidContainer;
 import enterprise.glassjoke.container.LiquidType;
+import enterprise.glassjoke.entity.AsyncRefillService;
 import enterprise.glassjoke.entity.Employee;
 import enterprise.glassjoke.entity.Intern;
+import enterprise.glassjoke.entity.InternDesk;
+import enterprise.glassjoke.entity.InternPool;
+import enterprise.glassjoke.entity.RefillDispatcher;
 import enterprise.glassjoke.entity.factory.InternFactory;
+import enterprise.glassjoke.event.SimulationEvent;
+import enterprise.glassjoke.event.SimulationListener;
+import enterprise.glassjoke.thirsty.BatchThirstyEvaluator;
+import enterprise.glassjoke.thirsty.RoomTemperature;
+import enterprise.glassjoke.thirsty.ThirstyFactor;
 import enterprise.glassjoke.thirsty.ThirstyFactorManager;
+import enterprise.glassjoke.thirsty.WorkIntensity;
+import enterprise.glassjoke.time.AdaptiveTimePassageManager;
 import enterprise.glassjoke.time.TimePassageManager;
+import enterprise.glassjoke.time.VirtualClock;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * Simulates a working day.
  *
- * TODO: add support for multiple employees, each one with their own working schedule, multiple days, etc.
+ * Each simulator handles a single employee. To simulate a whole office, see {@link OfficeSimulator}.
+ *
+ * TODO: add support for multiple days, etc.
  *
  * @author hkotsubo
  */
@@ -27,6 +44,19 @@ public class WorkingDaySimulator {
     private final InternFactory internFactory;
     private final ThirstyFactorManager thirstyFactorManager;
     private final TimePassageManager<LocalTime> timePassageManager;
+    private ExecutionMode executionMode;
+    // where the interns come from, when there's no intern desk (if null, a new intern is summoned each time)
+    private InternPool internPool;
+    // if set, all refills go through it (even with virtual threads)
+    private RefillDispatcher refillDispatcher;
+    // if set, the employee keeps doing their things while the container is filled
+    private AsyncRefillService asyncRefillService;
+
+    // who is told about what happens to the employee (null if nobody cares), and the employee's index in the office
+    private SimulationListener listener;
+    private int member;
+    // if the employee is enjoying the interval (only tracked when there's a listener)
+    private boolean inInterval;
 
     /**
      * Create a working day simulator.
@@ -46,6 +76,81 @@ public class WorkingDaySimulator {
         this.internFactory = internFactory;
         this.thirstyFactorManager = thirstyFactorManager;
         this.timePassageManager = timePassageManager;
+        this.executionMode = ExecutionMode.SEQUENTIAL;
+    }
+
+    /**
+     * Get how the working day is executed
+     *
+     * @return The execution mode
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Set how the working day is executed.
+     *
+     * By default, everything runs sequentially in the caller's thread.
+     *
+     * If it's set to VIRTUAL_THREADS, the employee runs their day in a virtual thread, and the intern runs in another
+     * one. Time passes according to a virtual clock shared by both, and when the employee calls the intern, they wait
+     * (in a cheap way) until the intern fills the liquid container.
+     *
+     * @param executionMode The execution mode
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = Objects.requireNonNull(executionMode, "execution mode can't be null");
+    }
+
+    /**
+     * Set the pool where the employee borrows an intern when the liquid container is empty.
+     *
+     * If not set (or set to null), a new intern is summoned each time. The pool is not used with virtual threads
+     * (the interns work in an intern desk).
+     *
+     * @param internPool The intern pool
+     */
+    public void setInternPool(InternPool internPool) {
+        this.internPool = internPool;
+    }
+
+    /**
+     * Send all refill requests to a dispatcher, which groups the requests of many employees in the interns' trips.
+     *
+     * The request's priority is the thirsty level of the employee's current work intensity (a few hundred points, not
+     * the intensity itself, so the dispatcher's aging still gets low-priority requests served during the same moment).
+     * When set, the dispatcher is used in all execution modes (instead of the intern desk or the intern pool).
+     *
+     * @param refillDispatcher The refill dispatcher (if null, it's not used)
+     */
+    public void setRefillDispatcher(RefillDispatcher refillDispatcher) {
+        this.refillDispatcher = refillDispatcher;
+    }
+
+    /**
+     * Call the interns asynchronously: when the container is empty, the employee requests a refill and keeps doing what
+     * they should be doing (working or enjoying the interval) while the intern is on the way, and drinks only after the
+     * container is filled. It's still in the same moment, so the results are the same of waiting for the intern.
+     *
+     * When set, the service is used instead of the refill dispatcher, the intern desk or the intern pool. With the
+     * adaptive time passage manager, the employee just waits for the refill.
+     *
+     * @param asyncRefillService The asynchronous refill service (if null, it's not used)
+     */
+    public void setAsyncRefillService(AsyncRefillService asyncRefillService) {
+        this.asyncRefillService = asyncRefillService;
+    }
+
+    /**
+     * Tell a listener about everything that happens to the employee.
+     *
+     * @param member The employee's index in the office
+     * @param listener The listener (if null, nobody is told)
+     */
+    void setListener(int member, SimulationListener listener) {
+        this.member = member;
+        this.listener = listener;
     }
 
     /**
@@ -72,24 +177,338 @@ public class WorkingDaySimulator {
      * TODO: add more simulation types with algorithm variations (e.g. include boring meetings, which might affect
      * employee's stress and increase thirsty levels, there could be lazy or incompetent employees that create more work
      * for other employees, etc)
+     *
+     * If the time passage manager is an {@link AdaptiveTimePassageManager}, each iteration covers as many of its fine
+     * steps as it allows (the employee drinks the amount of all of them, and the conditions change as many times as
+     * they would), stopping early if the thirsty level moves beyond its tolerance. Each fine step counts as an
+     * iteration in the report.
+     *
+     * @return The report of what happened during the working day
      */
-    public void simulateWorkingDay() {
+    public WorkingDayReport simulateWorkingDay() {
+        if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+            try (InternDesk internDesk = new InternDesk(internFactory, 1)) {
+                return new VirtualThreadDayRunner(List.of(this), internDesk, timePassageManager).run();
+            }
+        }
+        if (timePassageManager instanceof AdaptiveTimePassageManager adaptive) {
+            return simulateAdaptively(adaptive);
+        }
+
+        WorkingDayTally tally = new WorkingDayTally();
         // start working day
         LocalTime currentTime = workingSchedule.getStart();
         logger.info("It's {}, let's work until {}", currentTime, workingSchedule.getEnd());
+        if (workingSchedule.inWorkingHours(currentTime)) {
+            notifyArrival(currentTime);
+        }
         while (workingSchedule.inWorkingHours(currentTime)) {
-            if (employee.isThirsty()) {
-                if (liquidContainer.isEmpty()) {
-                    Intern intern = employee.callIntern(internFactory);
-                    intern.fill(liquidContainer, LiquidType.WATER);
-                }
-                employee.drink(liquidContainer, thirstyFactorManager);
+            simulateMoment(currentTime, null, tally);
+            currentTime = timePassageManager.nextMoment(currentTime);
+        }
+        logger.info("It's {}, go home!", currentTime);
+        return tally.toReport();
+    }
+
+    /**
+     * Simulates the working day with steps that change according to an adaptive time passage manager.
+     */
+    private WorkingDayReport simulateAdaptively(AdaptiveTimePassageManager manager) {
+        WorkingDayTally tally = new WorkingDayTally();
+        Interval interval = workingSchedule.getInterval();
+        AdaptiveTimePassageManager.Stepper stepper = interval == null
+                ? manager.newStepper(workingSchedule.getStart(), workingSchedule.getEnd())
+                : manager.newStepper(workingSchedule.getStart(), workingSchedule.getEnd(), interval.getStart(),
+                                     interval.getEnd());
+        LocalTime currentTime = workingSchedule.getStart();
+        logger.info("It's {}, let's work until {}", currentTime, workingSchedule.getEnd());
+        if (workingSchedule.inWorkingHours(currentTime)) {
+            notifyArrival(currentTime);
+        }
+        while (workingSchedule.inWorkingHours(currentTime)) {
+            boolean thirsty = employee.isThirsty();
+            boolean internCalled = thirsty && liquidContainer.isEmpty();
+            if (internCalled) {
+                refill(currentTime, null, tally);
+            }
+            int thirstyLevel = thirstyFactorManager.getThirstyLevel(employee);
+            int maxSteps = stepper.nextFineSteps(currentTime, liquidContainer.getCurrentVolume(), thirstyLevel);
+            double celsius = getCelsius();
+            int workIntensity = getWorkIntensity();
+            // the conditions change once per fine step, and the moment ends as soon as the thirsty level isn't within
+            // the tolerance anymore (so the next fine steps don't drink the wrong amount)
+            int steps = 0;
+            int thirstyLevelAfter;
+            do {
+                thirstyFactorManager.changeConditions();
+                steps++;
+                thirstyLevelAfter = thirstyFactorManager.getThirstyLevel(employee);
+            } while (steps < maxSteps && stepper.withinTolerance(thirstyLevel, thirstyLevelAfter));
+            // after the first step, the employee is always thirsty (see OfficeEntity.whatShouldBeDoing)
+            int drinks = thirsty ? steps : steps - 1;
+            if (drinks > 0) {
+                drink(currentTime, tally, ThirstyFactorManager.createFixedValueManager(thirstyLevel * drinks), drinks);
+            }
+            if (listener != null) {
+                updateInterval(currentTime);
             }
             employee.whatShouldBeDoing(workingSchedule, currentTime);
-            currentTime = timePassageManager.nextMoment(currentTime);
-            thirstyFactorManager.changeConditions();
+            notifyConditionsChange(currentTime, celsius, workIntensity);
+            tally.iterations += steps;
+            stepper.momentDone(thirstyLevel, thirstyLevelAfter, internCalled);
+            currentTime = stepper.advance(currentTime, steps);
         }
         logger.info("It's {}, go home!", currentTime);
+        return tally.toReport();
+    }
+
+    /**
+     * Simulates the working day in the current thread, synchronized by a virtual clock shared with other office
+     * entities.
+     *
+     * The employee waits until the clock reaches their schedule's start hour, and leaves the clock when their working
+     * hours are over.
+     *
+     * @param participant This employee's registration in the virtual clock
+     * @param internDesk The desk where the interns are called
+     *
+     * @return The report of what happened during the working day
+     */
+    WorkingDayReport simulateWorkingDay(VirtualClock.Participant participant, InternDesk internDesk) {
+        WorkingDayTally tally = new WorkingDayTally();
+        try {
+            LocalTime currentTime = participant.now();
+            while (currentTime.isBefore(workingSchedule.getStart())) {
+                currentTime = participant.awaitNextMoment();
+            }
+            if (workingSchedule.inWorkingHours(currentTime)) {
+                notifyArrival(currentTime);
+            }
+            while (workingSchedule.inWorkingHours(currentTime)) {
+                simulateMoment(currentTime, internDesk, tally);
+                currentTime = participant.awaitNextMoment();
+            }
+        } finally {
+            participant.leave();
+        }
+        return tally.toReport();
+    }
+
+    /**
+     * Simulates what happens in a single moment of the working day (an iteration), except the passage of time.
+     *
+     * @param currentTime The current time
+     * @param internDesk The desk where the interns are called. If null, interns are created and called inline
+     * @param tally Where the things that happened are counted
+     */
+    private void simulateMoment(LocalTime currentTime, InternDesk internDesk, WorkingDayTally tally) {
+        if (employee.isThirsty()) {
+            if (liquidContainer.isEmpty()) {
+                if (asyncRefillService != null) {
+                    simulateMomentWhileRefilling(currentTime, tally);
+                    return;
+                }
+                refill(currentTime, internDesk, tally);
+            }
+            drink(currentTime, tally);
+        }
+        if (listener != null) {
+            updateInterval(currentTime);
+        }
+        employee.whatShouldBeDoing(workingSchedule, currentTime);
+        changeConditions(currentTime, 1);
+        tally.iterations++;
+    }
+
+    /**
+     * Simulates a moment in which the employee calls an intern asynchronously: they do what they should be doing while
+     * the intern is on the way, and drink after the container is filled.
+     *
+     * At the end, the employee is thirsty or not according to what they did (drinking doesn't change that, as it
+     * happened during the activity), so the next moments are the same of waiting for the intern before doing anything.
+     * That's why the refill never stays pending after the moment: there's at most one refill in flight per employee
+     * (see {@link OfficeSimulatorBuilder#withAsyncRefillService}).
+     */
+    private void simulateMomentWhileRefilling(LocalTime currentTime, WorkingDayTally tally) {
+        notify(new SimulationEvent.InternSummoned(currentTime, member));
+        CompletableFuture<LiquidContainer> refill = employee.callInternAsync(asyncRefillService, liquidContainer,
+                                                                             LiquidType.WATER, getRefillPriority());
+        if (listener != null) {
+            updateInterval(currentTime);
+        }
+        employee.whatShouldBeDoing(workingSchedule, currentTime);
+        boolean thirstyAfterwards = employee.isQuietlyThirsty();
+        refill.join();
+        filled(currentTime, tally);
+        drink(currentTime, tally);
+        employee.setThirsty(thirstyAfterwards);
+        changeConditions(currentTime, 1);
+        tally.iterations++;
+    }
+
+    /**
+     * The employee calls an intern to fill the liquid container
+     */
+    private void refill(LocalTime currentTime, InternDesk internDesk, WorkingDayTally tally) {
+        notify(new SimulationEvent.InternSummoned(currentTime, member));
+        if (asyncRefillService != null) {
+            employee.callInternAsync(asyncRefillService, liquidContainer, LiquidType.WATER, getRefillPriority())
+                    .join();
+        } else if (refillDispatcher != null) {
+            employee.callIntern(refillDispatcher, liquidContainer, LiquidType.WATER, getRefillPriority());
+        } else if (internDesk != null) {
+            employee.callIntern(internDesk, liquidContainer, LiquidType.WATER);
+        } else if (internPool != null) {
+            employee.callIntern(internPool, liquidContainer, LiquidType.WATER);
+        } else {
+            Intern intern = employee.callIntern(internFactory);
+            intern.fill(liquidContainer, LiquidType.WATER);
+        }
+        filled(currentTime, tally);
+    }
+
+    /**
+     * The intern filled the liquid container
+     */
+    private void filled(LocalTime currentTime, WorkingDayTally tally) {
+        tally.internCalls++;
+        tally.milliLitersRefilled += liquidContainer.getCurrentVolume();
+        notify(new SimulationEvent.Filled(currentTime, member, LiquidType.WATER, liquidContainer.getCurrentVolume()));
+    }
+
+    /**
+     * The employee drinks from their liquid container
+     */
+    void drink(LocalTime currentTime, WorkingDayTally tally) {
+        drink(currentTime, tally, thirstyFactorManager, 1);
+    }
+
+    /**
+     * The employee drinks from their liquid container (the amount of some drinks at once)
+     */
+    void drink(LocalTime currentTime, WorkingDayTally tally, ThirstyFactorManager manager, long drinks) {
+        int volumeBeforeDrinking = liquidContainer.getCurrentVolume();
+        employee.drink(liquidContainer, manager);
+        int consumed = volumeBeforeDrinking - liquidContainer.getCurrentVolume();
+        tally.drinks += drinks;
+        tally.milliLitersConsumed += consumed;
+        notify(new SimulationEvent.Consumed(currentTime, member, consumed));
+    }
+
+    /**
+     * The thirsty factors' conditions might change (as many times as the number of steps)
+     */
+    void changeConditions(LocalTime currentTime, int steps) {
+        if (listener == null) {
+            for (int i = 0; i < steps; i++) {
+                thirstyFactorManager.changeConditions();
+            }
+            return;
+        }
+        double celsius = getCelsius();
+        int workIntensity = getWorkIntensity();
+        for (int i = 0; i < steps; i++) {
+            thirstyFactorManager.changeConditions();
+        }
+        notifyConditionsChange(currentTime, celsius, workIntensity);
+    }
+
+    /**
+     * Tell the listener if the conditions are different from what they were
+     */
+    private void notifyConditionsChange(LocalTime currentTime, double celsius, int workIntensity) {
+        if (listener != null
+                && (Double.compare(celsius, getCelsius()) != 0 || workIntensity != getWorkIntensity())) {
+            notify(new SimulationEvent.ConditionsChanged(currentTime, member, getCelsius(), getWorkIntensity()));
+        }
+    }
+
+    /**
+     * Tell the listener that the employee arrived, with their current state
+     */
+    void notifyArrival(LocalTime currentTime) {
+        inInterval = false;
+        if (listener != null) {
+            listener.onEvent(new SimulationEvent.Arrived(currentTime, member, liquidContainer.getCapacity(),
+                                                         liquidContainer.getType(), liquidContainer.getContents(),
+                                                         getCelsius(), getWorkIntensity()));
+        }
+    }
+
+    /**
+     * Tell the listener if the employee entered or left the interval
+     */
+    private void updateInterval(LocalTime currentTime) {
+        boolean interval = workingSchedule.getInterval() != null && workingSchedule.getInterval().contains(currentTime);
+        if (interval != inInterval) {
+            inInterval = interval;
+            notify(interval ? new SimulationEvent.IntervalEntered(currentTime, member)
+                   : new SimulationEvent.IntervalLeft(currentTime, member));
+        }
+    }
+
+    void notify(SimulationEvent event) {
+        if (listener != null) {
+            listener.onEvent(event);
+        }
+    }
+
+    double getCelsius() {
+        for (ThirstyFactor factor : thirstyFactorManager.getFactors()) {
+            if (factor instanceof RoomTemperature roomTemperature) {
+                return roomTemperature.getCelsius();
+            }
+        }
+        return BatchThirstyEvaluator.NO_ROOM_TEMPERATURE;
+    }
+
+    /**
+     * The priority of the employee's refills: the thirsty level of the current work intensity (or zero, if there's no
+     * such factor)
+     */
+    private int getRefillPriority() {
+        int intensity = getWorkIntensity();
+        return intensity == BatchThirstyEvaluator.NO_WORK_INTENSITY ? 0 : WorkIntensity.thirstyLevelOf(intensity);
     }
 
+    int getWorkIntensity() {
+        for (ThirstyFactor factor : thirstyFactorManager.getFactors()) {
+            if (factor instanceof WorkIntensity workIntensity) {
+                return workIntensity.getIntensity();
+            }
+        }
+        return BatchThirstyEvaluator.NO_WORK_INTENSITY;
+    }
+
+    int getMember() {
+        return member;
+    }
+
+    boolean hasListener() {
+        return listener != null;
+    }
+
+    WorkingSchedule getWorkingSchedule() {
+        return workingSchedule;
+    }
+
+    Employee getEmployee() {
+        return employee;
+    }
+
+    LiquidContainer getLiquidContainer() {
+        return liquidContainer;
+    }
+
+    InternFactory getInternFactory() {
+        return internFactory;
+    }
+
+    ThirstyFactorManager getThirstyFactorManager() {
+        return thirstyFactorManager;
+    }
+
+    TimePassageManager<LocalTime> getTimePassageManager() {
+        return timePassageManager;
+    }
 }
@@ -0,0 +1,19 @@
+package enterprise.glassjoke.work;
+
+/**
+ * Mutable counters used while a working day is being simulated. When the day ends, they become a report.
+ *
+ * @author hkotsubo
+ */
+class WorkingDayTally {
+
+    long iterations;
+    long drinks;
+    long internCalls;
+    long milliLitersConsumed;
+    long milliLitersRefilled;
+
+    WorkingDayReport toReport() {
+        return new WorkingDayReport(1, iterations, drinks, internCalls, milliLitersConsumed, milliLitersRefilled);
+    }
+}